@@ -0,0 +1,85 @@
+/** JMH benchmarks of the hot paths: parsing, the six operations and rendering
+ *   - every operation runs on every Workload, given by the parameters of the two subclasses:
+ *      - GeneralBenchmarks: dense and random polynomials, shape x degree x coefficient size
+ *      - SparseBenchmarks: x^N+1, by degree only, since its coefficients are always 1
+ *   - the mean time per operation is measured; run with the GC profiler for allocation as well, as bytes per
+ *     operation (gc.alloc.rate.norm), since most of the optimizations so far were about allocation
+ *   - benchmarks/baseline.txt is the output of such a run, to compare later runs with; its first lines give the
+ *     command, the JVM and the machine, and runs are only comparable on the same ones
+ *   - two forks with a fixed heap, so one lucky or unlucky JIT compilation or heap size does not make the result
+ *   - built by "mvn -B package", then run from the repository root:
+ *       java -jar benchmarks/target/benchmarks.jar -prof gc [REGEX, like "multiply" or "divide"] [-p degree=4096]
+ */
+
+package benchmark;
+
+import model.DivisionResult;
+import model.InputEvaluator;
+import model.Message;
+import model.Operations;
+import model.Polynomial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public abstract class Benchmarks {
+    //set up by the subclass, from its parameters
+    protected Workload workload;
+
+    @Benchmark
+    public Polynomial parse(){
+        Polynomial polynomial = new Polynomial();
+        InputEvaluator.evaluationRoutine(workload.getFirstText(), polynomial, new Message());
+        return polynomial;
+    }
+
+    @Benchmark
+    public Polynomial add() throws Operations.OverflowException{
+        return Operations.addition(workload.getFirst(), workload.getSecond());
+    }
+
+    @Benchmark
+    public Polynomial subtract() throws Operations.OverflowException{
+        return Operations.subtraction(workload.getFirst(), workload.getSecond());
+    }
+
+    @Benchmark
+    public Polynomial multiply() throws Operations.OverflowException{
+        return Operations.multiplication(workload.getFirst(), workload.getSecond());
+    }
+
+    @Benchmark
+    public DivisionResult divide() throws Operations.OverflowException{
+        return Operations.division(workload.getDividend(), workload.getSecond());
+    }
+
+    @Benchmark
+    public Polynomial differentiate() throws Operations.OverflowException{
+        return Operations.differentiation(workload.getFirst());
+    }
+
+    @Benchmark
+    public String integrate() throws Operations.OverflowException{
+        return Operations.integration(workload.getFirst());
+    }
+
+    @Benchmark
+    public String render(){
+        return workload.getFirst().niceForm();
+    }
+}
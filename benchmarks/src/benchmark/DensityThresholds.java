@@ -0,0 +1,83 @@
+/** JMH runs which the density FastMultiplication needs to be worth it is derived from
+ *   - operands of the given length, one coefficient in "sparsity" present (the leading one always), 1..100
+ *   - termByTerm is the loop of Operations over the terms only, fast is Karatsuba / Toom-3 on the dense arrays, zeros
+ *     included: where termByTerm wins, the operands are too sparse for the fast algorithms
+ *   - benchmarks/thresholds.txt is the recorded run
+ */
+
+package benchmark;
+
+import model.FastMultiplication;
+import model.Operations;
+import model.Polynomial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class DensityThresholds {
+    @Param({"2048", "8192"})
+    public int size;
+
+    @Param({"1", "2", "3", "4"})
+    public int sparsity;
+
+    private Polynomial first;
+    private Polynomial second;
+    private long[] firstDense;
+    private long[] secondDense;
+    private int karatsubaThreshold;
+
+    @Setup
+    public void setUp(){
+        Random random = new Random(size * 31L + sparsity);
+        first = Polynomial.fromDense(spread(random, size, sparsity));
+        second = Polynomial.fromDense(spread(random, size, sparsity));
+        firstDense = first.toDense();
+        secondDense = second.toDense();
+        karatsubaThreshold = FastMultiplication.getKaratsubaThreshold();
+    }
+
+    @TearDown(Level.Iteration)
+    public void restoreThreshold(){
+        FastMultiplication.setKaratsubaThreshold(karatsubaThreshold);
+    }
+
+    private static long[] spread(Random random, int size, int sparsity){
+        long[] array = new long[size];
+        for (int i = 0; i < size; i++)
+            if (i == size - 1 || random.nextInt(sparsity) == 0)
+                array[i] = 1 + random.nextInt(100);
+        return array;
+    }
+
+    @Benchmark
+    public Polynomial termByTerm() throws Operations.OverflowException{
+        FastMultiplication.setKaratsubaThreshold(Integer.MAX_VALUE);
+        return Operations.multiplication(first, second);
+    }
+
+    @Benchmark
+    public long[] fast(){
+        return FastMultiplication.multiply(firstDense, secondDense);
+    }
+}
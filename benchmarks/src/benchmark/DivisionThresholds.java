@@ -0,0 +1,89 @@
+/** JMH runs which the Newton threshold of FastDivision is derived from
+ *   - a dense dividend of the given degree divided by a monic divisor of half that degree, as Operations.division
+ *     gets them; the division is exact and the quotient's coefficients are small, so Newton iteration gives a result
+ *   - longDivision turns Newton iteration off, newton forces it: the quotient and divisor length (about half the degree)
+ *     at the smallest degree where newton wins is the threshold
+ *   - benchmarks/thresholds.txt is the recorded run
+ */
+
+package benchmark;
+
+import model.DivisionResult;
+import model.FastDivision;
+import model.Operations;
+import model.Polynomial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class DivisionThresholds {
+    @Param({"1024", "4096", "8192", "12288", "16384", "65536"})
+    public int degree;
+
+    private Polynomial dividend;
+    private Polynomial divisor;
+    private int newtonThreshold;
+
+    @Setup
+    public void setUp() throws Operations.OverflowException{
+        Random random = new Random(degree);
+        long[] divisorArray = small(random, degree / 2 + 1);
+        divisorArray[degree / 2] = 1;
+        divisor = Polynomial.fromDense(divisorArray);
+        dividend = Operations.multiplication(divisor, Polynomial.fromDense(small(random, degree - degree / 2 + 1)));
+        newtonThreshold = FastDivision.getNewtonThreshold();
+
+        //Newton iteration must give a result here, and the same one as long division, or the comparison means nothing
+        FastDivision.setNewtonThreshold(1);
+        if (FastDivision.divide(dividend.toDense(), divisor.toDense()) == null)
+            throw new IllegalStateException("Newton iteration gives no result at degree " + degree);
+        String expected = longDivision().niceForm();
+        if (!newton().niceForm().equals(expected))
+            throw new IllegalStateException("Newton iteration and long division disagree at degree " + degree);
+    }
+
+    @TearDown(Level.Iteration)
+    public void restoreThreshold(){
+        FastDivision.setNewtonThreshold(newtonThreshold);
+    }
+
+    //every coefficient present, 1..9
+    private static long[] small(Random random, int length){
+        long[] array = new long[length];
+        for (int i = 0; i < length; i++)
+            array[i] = 1 + random.nextInt(9);
+        return array;
+    }
+
+    @Benchmark
+    public DivisionResult longDivision() throws Operations.OverflowException{
+        FastDivision.setNewtonThreshold(Integer.MAX_VALUE);
+        return Operations.division(dividend, divisor);
+    }
+
+    @Benchmark
+    public DivisionResult newton() throws Operations.OverflowException{
+        FastDivision.setNewtonThreshold(1);
+        return Operations.division(dividend, divisor);
+    }
+}
@@ -0,0 +1,23 @@
+/** The benchmarks of Benchmarks on dense and random polynomials, of every degree and coefficient size
+ */
+
+package benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+public class GeneralBenchmarks extends Benchmarks {
+    @Param({"DENSE", "RANDOM"})
+    public Workload.Shape shape;
+
+    @Param({"16", "256", "4096"})
+    public int degree;
+
+    @Param({"9", "100"})
+    public int maxCoefficient;
+
+    @Setup
+    public void setUp(){
+        workload = new Workload(shape, degree, maxCoefficient);
+    }
+}
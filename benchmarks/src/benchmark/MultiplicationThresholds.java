@@ -0,0 +1,112 @@
+/** JMH runs which the thresholds of FastMultiplication are derived from, on dense operands with coefficients 1..100
+ *   - every method sets the thresholds it needs, before each call (FastMultiplication reads them as it recurses)
+ *   - schoolbook against karatsubaStep, one level of Karatsuba on top of the schoolbook loop: the smallest size
+ *     where the step wins is the Karatsuba threshold
+ *   - recursive, Karatsuba all the way down to that threshold, against toomStep, one level of Toom-3 on top of it:
+ *     the smallest size where the step wins is the Toom-3 threshold
+ *   - fast, Karatsuba and Toom-3 with both thresholds, against the NTT: the smallest size where the NTT wins is the
+ *     NTT threshold
+ *   - benchmarks/thresholds.txt is the recorded run, FastMultiplication gives the thresholds read from it
+ */
+
+package benchmark;
+
+import model.FastMultiplication;
+import model.NumberTheoreticTransform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MultiplicationThresholds {
+    @Param({"64", "128", "256", "384", "512", "768", "1024", "2048", "4096", "8192", "16384", "32768", "65536", "131072"})
+    public int size;
+
+    private long[] first;
+    private long[] second;
+    private int karatsubaThreshold;
+    private int toomThreshold;
+    private int nttThreshold;
+
+    @Setup
+    public void setUp(){
+        Random random = new Random(size);
+        first = dense(random, size);
+        second = dense(random, size);
+        karatsubaThreshold = FastMultiplication.getKaratsubaThreshold();
+        toomThreshold = FastMultiplication.getToomThreshold();
+        nttThreshold = FastMultiplication.getNttThreshold();
+    }
+
+    @TearDown(Level.Iteration)
+    public void restoreThresholds(){
+        setThresholds(karatsubaThreshold, toomThreshold, nttThreshold);
+    }
+
+    //every coefficient present, 1..100
+    static long[] dense(Random random, int size){
+        long[] array = new long[size];
+        for (int i = 0; i < size; i++)
+            array[i] = 1 + random.nextInt(100);
+        return array;
+    }
+
+    private static void setThresholds(int karatsuba, int toom, int ntt){
+        FastMultiplication.setKaratsubaThreshold(karatsuba);
+        FastMultiplication.setToomThreshold(toom);
+        FastMultiplication.setNttThreshold(ntt);
+    }
+
+    @Benchmark
+    public long[] schoolbook(){
+        return FastMultiplication.schoolbook(first, second);
+    }
+
+    @Benchmark
+    public long[] karatsubaStep(){
+        setThresholds(size, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        return FastMultiplication.multiply(first, second);
+    }
+
+    @Benchmark
+    public long[] recursive(){
+        setThresholds(karatsubaThreshold, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        return FastMultiplication.multiply(first, second);
+    }
+
+    @Benchmark
+    public long[] toomStep(){
+        setThresholds(karatsubaThreshold, size, Integer.MAX_VALUE);
+        return FastMultiplication.multiply(first, second);
+    }
+
+    @Benchmark
+    public long[] fast(){
+        setThresholds(karatsubaThreshold, toomThreshold, Integer.MAX_VALUE);
+        return FastMultiplication.multiply(first, second);
+    }
+
+    @Benchmark
+    public long[] ntt(){
+        return NumberTheoreticTransform.multiply(first, second);
+    }
+}
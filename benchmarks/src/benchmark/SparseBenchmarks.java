@@ -0,0 +1,18 @@
+/** The benchmarks of Benchmarks on x^N+1 (and x^(N/2)+1 as the second operand), of every degree
+ *   - no coefficient size parameter: sparse polynomials always have coefficients 1
+ */
+
+package benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+public class SparseBenchmarks extends Benchmarks {
+    @Param({"16", "256", "4096"})
+    public int degree;
+
+    @Setup
+    public void setUp(){
+        workload = new Workload(Workload.Shape.SPARSE, degree, 1);
+    }
+}
@@ -0,0 +1,92 @@
+/** Operands of one benchmark case: two polynomials of a given shape, degree and coefficient size
+ *   - DENSE: every exponent from the degree down to 0 is present
+ *   - SPARSE: x^N+1, the worst case for dense algorithms; its coefficients are always 1, whatever maxCoefficient is
+ *   - RANDOM: about one exponent in four is present, with random signs
+ *   - the second operand has half the degree and is monic, so division never stops early, and the coefficients are
+ *     small enough that no operation overflows
+ *   - division gets its own dividend, a multiple of the second operand: dividing by it directly would make the
+ *     coefficients of the quotient grow until they overflow
+ *   - generated from a fixed seed, so every run (and the baseline) measures the same polynomials
+ */
+
+package benchmark;
+
+import model.Operations;
+import model.Polynomial;
+
+import java.util.Random;
+
+public class Workload {
+    public enum Shape { DENSE, SPARSE, RANDOM }
+
+    private final Shape shape;
+    private final int degree;
+    private final int maxCoefficient;
+    private final Polynomial first;
+    private final Polynomial second;
+    private final Polynomial dividend;
+    private final String firstText;
+
+    Workload(Shape shape, int degree, int maxCoefficient){
+        this.shape = shape;
+        this.degree = degree;
+        this.maxCoefficient = maxCoefficient;
+
+        Random random = new Random(31L * degree + shape.ordinal());
+        this.first = generate(random, degree, false);
+        this.second = generate(random, degree / 2, true);
+        try{
+            this.dividend = Operations.multiplication(second, generate(random, degree - degree / 2, false));
+        }
+        catch (Operations.OverflowException oe){
+            throw new IllegalArgumentException("Coefficients too big for a workload: " + maxCoefficient);
+        }
+        this.firstText = first.niceForm();
+    }
+
+    private Polynomial generate(Random random, int degree, boolean monic){
+        Polynomial polynomial = new Polynomial();
+        for (int exponent = degree; exponent >= 0; exponent--){
+            if (exponent == degree)
+                polynomial.add(monic || shape == Shape.SPARSE ? 1 : coefficient(random), exponent);
+            else if (shape == Shape.SPARSE){
+                if (exponent == 0)
+                    polynomial.add(1, 0);
+            }
+            else if (shape == Shape.DENSE || random.nextInt(4) == 0)
+                polynomial.add(coefficient(random), exponent);
+        }
+        return polynomial;
+    }
+
+    //a non-zero coefficient; dense ones are positive, random ones get a random sign
+    private long coefficient(Random random){
+        long value = 1 + random.nextInt(maxCoefficient);
+        return shape == Shape.RANDOM && random.nextBoolean() ? -value : value;
+    }
+
+    Polynomial getFirst(){
+        return first;
+    }
+
+    Polynomial getSecond(){
+        return second;
+    }
+
+    //a multiple of the second operand, of the same degree as the first one
+    Polynomial getDividend(){
+        return dividend;
+    }
+
+    //the first operand as typed by a user, for the parsing benchmark
+    String getFirstText(){
+        return firstText;
+    }
+
+    //e.g. "dense/256/c100", sparse polynomials always have coefficients 1
+    @Override
+    public String toString(){
+        String name = shape.name().toLowerCase() + "/" + degree;
+        return shape == Shape.SPARSE ? name : name + "/c" + maxCoefficient;
+    }
+}
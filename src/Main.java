@@ -1,12 +1,132 @@
+import control.BatchControl;
+import control.BatchStatistics;
+import control.Calculation;
 import control.Control;
+import control.ResultCache;
+import model.Metrics;
+import model.ModularOperations;
+import model.RecordingMetrics;
 import view.View;
 
+import javax.management.JMException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 public class Main {
 
+    /** Starts the GUI (in exact mode with "--exact"), or with "--batch [options] [input file] [output file]" the headless
+     *  batch mode (see BatchControl)
+     *   - in batch mode, standard input / output are used if no files are given ("-" also means standard input)
+     *   - options: "--threads N" to evaluate on N threads, "--cache N" to remember at most N results (0 turns
+     *     the cache off), "--exact" to calculate without overflow and with exact fractions, "--modulus P" to calculate modulo the
+     *     prime P, "--stats" to print the throughput and the cache statistics to standard error, "--metrics" to
+     *     record latencies, overflows and parse failures (see RecordingMetrics), print them to standard error at the end,
+     *     and publish them through JMX while running
+     */
     public static void  main(String[] args) {
 
+        if (args.length > 0 && args[0].equals("--batch")){
+            System.exit(runBatch(args));
+        }
+
+        //exact mode in the GUI as well, so for example powers do not overflow
+        if (args.length > 0 && args[0].equals("--exact"))
+            Calculation.setExact(true);
+
         View view = new View();
         new Control(view);
 
     }
+
+    //runs the batch mode, returns the exit code: 0 if all went well, 1 if some lines had errors, 2 for bad usage or I/O problems
+    private static int runBatch(String[] args){
+        int threads = 1;
+        boolean stats = false;
+        RecordingMetrics metrics = null;
+        List<String> files = new ArrayList<>();
+
+        for (int i = 1; i < args.length; i++){
+            if (args[i].equals("--stats"))
+                stats = true;
+            else if (args[i].equals("--metrics")){
+                metrics = new RecordingMetrics();
+                Metrics.set(metrics);
+                try{
+                    metrics.register();
+                }
+                catch (JMException jme){
+                    System.err.println("Metrics not published through JMX: " + jme.getMessage());
+                }
+            }
+            else if (args[i].equals("--exact"))
+                Calculation.setExact(true);
+            else if (args[i].equals("--modulus") && i + 1 < args.length){
+                try{
+                    Calculation.setModular(new ModularOperations(Long.parseLong(args[++i])));
+                }
+                catch (IllegalArgumentException iae){       //NumberFormatException as well
+                    System.err.println("Modulus must be an odd prime smaller than 2^62.");
+                    return 2;
+                }
+            }
+            else if (args[i].equals("--cache") && i + 1 < args.length){
+                int capacity;
+                try{
+                    capacity = Integer.parseInt(args[++i]);
+                }
+                catch (NumberFormatException nfe){
+                    capacity = -1;
+                }
+                if (capacity < 0){
+                    System.err.println("Cache size must be a non-negative integer.");
+                    return 2;
+                }
+                Calculation.setCache(capacity == 0 ? null : new ResultCache(capacity));
+            }
+            else if (args[i].equals("--threads") && i + 1 < args.length){
+                try{
+                    threads = Integer.parseInt(args[++i]);
+                }
+                catch (NumberFormatException nfe){
+                    threads = 0;
+                }
+                if (threads < 1){
+                    System.err.println("Number of threads must be a positive integer.");
+                    return 2;
+                }
+            }
+            else
+                files.add(args[i]);
+        }
+
+        try (Reader input = !files.isEmpty() && !files.get(0).equals("-")
+                    ? Files.newBufferedReader(Path.of(files.get(0)), StandardCharsets.UTF_8)
+                    : new InputStreamReader(System.in, StandardCharsets.UTF_8);
+             Writer output = files.size() > 1
+                    ? Files.newBufferedWriter(Path.of(files.get(1)), StandardCharsets.UTF_8)
+                    : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)){
+            BatchStatistics statistics = BatchControl.run(input, output, threads);
+            if (stats){
+                System.err.println(statistics);
+                if (Calculation.getCache() != null)
+                    System.err.println(Calculation.getCache());
+            }
+            if (metrics != null)
+                System.err.print(metrics);
+            return statistics.getErrors() == 0 ? 0 : 1;
+        }
+        catch (IOException ioe){
+            System.err.println("Batch mode failed: " + ioe.getMessage());
+            return 2;
+        }
+    }
 }
@@ -0,0 +1,90 @@
+/**Headless counterpart of Control, for using the calculator from scripts and pipelines
+ - reads one operation per line, like "add x^2+1 x-1" or "integrate 3x^2", and writes one result per line
+   (see OperationRequest.fromLine for the accepted lines)
+ - never touches the GUI (nor AWT), so it also works on machines without a display
+ - results are written as they are, errors as "error: [text] ([source])", where source is the same number
+   the GUI would show (1 or 2 for bad inputs, 0 if the operation itself failed)
+ - empty lines and lines starting with "#" are skipped
+ - with more than one thread, operations are done in parallel (see ParallelBatch), results keep the order of lines
+ */
+
+package control;
+
+import model.Message;
+import model.MessageType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Objects;
+
+public class BatchControl {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    //processes every line of "input" on the calling thread, see run(Reader, Writer, int)
+    public static BatchStatistics run(Reader input, Writer output) throws IOException{
+        return run(input, output, 1);
+    }
+
+    /** Processes every line of "input", writing the results into "output"
+     *   - returns the number of operations, errors and the time it took
+     *   - IOExceptions of the streams are passed on to the caller
+     */
+    public static BatchStatistics run(Reader input, Writer output, int threads) throws IOException{
+        BufferedReader reader = new BufferedReader(input, BUFFER_SIZE);
+        Iterator<OperationRequest> requests = reader.lines()
+                .map(OperationRequest::fromLine)
+                .filter(Objects::nonNull)
+                .iterator();
+
+        try{
+            if (threads > 1){
+                try (ParallelBatch batch = new ParallelBatch(threads)){
+                    return batch.evaluate(requests, message -> write(message, output));
+                }
+            }
+
+            long start = System.nanoTime();
+            long operations = 0;
+            long errors = 0;
+            while (requests.hasNext()){
+                Message message = requests.next().calculate();
+                operations++;
+                if (message.getMessageType() == MessageType.INCORRECT)
+                    errors++;
+                write(message, output);
+            }
+            return new BatchStatistics(operations, errors, System.nanoTime() - start);
+        }
+        catch (UncheckedIOException uioe){
+            throw uioe.getCause();      //reading lines and writing results from lambdas wraps the IOExceptions
+        }
+        catch (InterruptedException ie){
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch evaluation interrupted.", ie);
+        }
+        finally{
+            output.flush();
+        }
+    }
+
+    //writes the result line of one operation
+    private static void write(Message message, Writer output){
+        try{
+            if (message.getMessageType() == MessageType.INCORRECT){
+                output.write("error: ");
+                output.write(message.getText());
+                output.write(" (" + message.getErrorSource() + ")");
+            }
+            else
+                output.write(message.getText());
+            output.write('\n');
+        }
+        catch (IOException ioe){
+            throw new UncheckedIOException(ioe);
+        }
+    }
+}
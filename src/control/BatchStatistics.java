@@ -0,0 +1,41 @@
+/**Summary of a batch run - how many operations were done, how many failed, and how fast it went
+ */
+
+package control;
+
+public class BatchStatistics {
+    private final long operations;
+    private final long errors;
+    private final long elapsedNanos;
+
+    public BatchStatistics(long operations, long errors, long elapsedNanos) {
+        this.operations = operations;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    //operations per second
+    public double getThroughput(){
+        if (elapsedNanos == 0)
+            return 0;
+        return operations * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d operations (%d errors) in %.3f s, %.0f operations/s",
+                operations, errors, elapsedNanos / 1e9, getThroughput());
+    }
+}
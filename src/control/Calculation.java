@@ -0,0 +1,289 @@
+/**Class which does one whole calculation, from the input texts to the result message
+ - used by the GUI (Control) and by the headless batch mode (BatchControl)
+ - does not touch the GUI at all, so it can be called from any thread
+ - handles exceptions as error messages, the same way for every caller
+ - results are remembered in a ResultCache, so repeated operations on the same operands are not done again
+ - every operation done (not the ones answered from the cache), overflow and bad input is reported to the
+   installed Metrics
+ - "Expression" takes a whole expression as its first input (see ExpressionParser), evaluated exactly in every mode
+ - any other RuntimeException of an operation (a bug) is reported as "Operation failed: ..." on its own result, so one
+   bad input can not stop a whole batch; cancellation is still passed on to the caller
+    - Errors (running out of memory, stack overflow) are passed on as well: after them the state of the other threads
+      and of the cache is unknown, so the batch has to stop; big inputs are bounded up front instead (see
+      Operations.power, ModularOperations.MAX_DEGREE)
+ */
+
+package control;
+
+import model.ExactOperations;
+import model.ExactPolynomial;
+import model.Expression;
+import model.ExpressionParser;
+import model.InputEvaluator;
+import model.Message;
+import model.MessageType;
+import model.Metrics;
+import model.ModularOperations;
+import model.Operations;
+import model.Polynomial;
+import model.PolynomialEvaluator;
+import model.PolynomialGcd;
+import model.RationalOperations;
+import model.RationalPolynomial;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+public class Calculation {
+    //for simplicity, i divided the operations in two categories
+    public static final List <String> TWO_OPERAND_OPERATIONS = Arrays.asList("Add","Subtract","Multiply","Divide","Gcd","Evaluate","Power");
+    public static final List <String> ONE_OPERAND_OPERATIONS = Arrays.asList("Integrate","Differentiate");
+    public static final String EXPRESSION = "Expression";
+
+    public static final int DEFAULT_CACHE_CAPACITY = 1024;
+
+    //null if caching is turned off
+    private static volatile ResultCache cache = new ResultCache(DEFAULT_CACHE_CAPACITY);
+
+    public static ResultCache getCache() {
+        return cache;
+    }
+
+    //replaces the cache, null turns caching off
+    public static void setCache(ResultCache cache) {
+        Calculation.cache = cache;
+    }
+
+    //in exact mode addition, subtraction, multiplication and differentiation never overflow (see ExactOperations),
+    //division and integration give fractions instead of truncating (see RationalOperations)
+    private static volatile boolean exact;
+
+    public static boolean isExact() {
+        return exact;
+    }
+
+    public static void setExact(boolean exact) {
+        Calculation.exact = exact;
+    }
+
+    //if set, every operation is done modulo its prime (see ModularOperations), null for integer arithmetic
+    private static volatile ModularOperations modular;
+
+    public static ModularOperations getModular() {
+        return modular;
+    }
+
+    public static void setModular(ModularOperations modular) {
+        Calculation.modular = modular;
+    }
+
+    /** Evaluates the input(s) and does the operation
+     *   - "operation" is the text of an operation button, "secondString" is ignored for one operand operations
+     *   - returns a message of type CORRECT with the result, or of type INCORRECT with the cause of error
+     *      - the source of the error is 1 or 2 for bad inputs, 0 if the operation itself failed
+     */
+    public static Message calculate(String operation, String firstString, String secondString){
+        //create new message object, associated with the operation
+        Message message = new Message();
+        message.setMessageType(MessageType.CORRECT);
+
+        if (operation.equals(EXPRESSION))
+            return calculateExpression(firstString, message);
+
+        boolean twoOperands = TWO_OPERAND_OPERATIONS.contains(operation);
+        if (!twoOperands && !ONE_OPERAND_OPERATIONS.contains(operation)){
+            message.setMessageType(MessageType.INCORRECT);
+            message.setText("Unknown operation: " + operation + ".");
+            return message;
+        }
+
+        //try getting polynomial from first input
+        Polynomial firstPolynomial = new Polynomial();
+        if (!evaluate(firstString, firstPolynomial, message, 1))
+            return message;
+
+        //try getting polynomial from second input
+        Polynomial secondPolynomial = new Polynomial();
+        if (twoOperands && !evaluate(secondString, secondPolynomial, message, 2))
+            return message;
+
+        //results of operations on the same operands are taken from the cache (exact results are kept apart)
+        boolean exactMode = exact;
+        ModularOperations modularOperations = modular;
+        String cacheOperation = modularOperations != null ? operation + " (mod " + modularOperations.getModulus() + ")"
+                : exactMode ? operation + " (exact)" : operation;
+        ResultCache resultCache = cache;
+        Polynomial cacheSecond = twoOperands ? secondPolynomial : null;
+        if (resultCache != null && ResultCache.isCacheable(firstPolynomial, cacheSecond)){
+            Message cached = resultCache.get(cacheOperation, firstPolynomial, cacheSecond);
+            if (cached != null)
+                return cached;
+        }
+        else
+            resultCache = null;
+
+        //try doing the operation, timing it only if someone is listening
+        Metrics metrics = Metrics.get();
+        long start = metrics == Metrics.NO_OP ? 0 : System.nanoTime();
+        try {
+            if (modularOperations != null)
+                calculateModular(modularOperations, operation, firstPolynomial, secondPolynomial, message);
+            else if (!exactMode || !calculateExact(operation, firstPolynomial, secondPolynomial, message))
+                switch (operation) {
+                    case "Add" -> message.setText(Operations.addition(firstPolynomial, secondPolynomial).niceForm());
+                    case "Subtract" -> message.setText(Operations.subtraction(firstPolynomial, secondPolynomial).niceForm());
+                    case "Multiply" -> message.setText(Operations.multiplication(firstPolynomial, secondPolynomial).niceForm());
+                    case "Divide" -> message.setText(Operations.division(firstPolynomial, secondPolynomial).niceForm());
+                    case "Integrate" -> message.setText(Operations.integration(firstPolynomial));
+                    case "Differentiate" -> message.setText(Operations.differentiation(firstPolynomial).niceForm());
+                    case "Gcd" -> message.setText(PolynomialGcd.gcd(ExactPolynomial.of(firstPolynomial), ExactPolynomial.of(secondPolynomial)).niceForm());
+                    case "Evaluate" -> message.setText(Long.toString(PolynomialEvaluator.evaluate(firstPolynomial, point(secondPolynomial))));
+                    case "Power" -> message.setText(Operations.power(firstPolynomial, exponent(secondPolynomial)).niceForm());
+                    default -> System.err.println("Unexpected entry, in calculate.");
+                }
+        }
+        catch (Operations.OverflowException | ArithmeticException e ){
+            message.setMessageType(MessageType.INCORRECT);
+            message.setText(e.getMessage());
+            message.setErrorSource(0);
+            if (e instanceof Operations.OverflowException)
+                metrics.overflow(operation);
+        }
+        catch (CancellationException ce){
+            throw ce;
+        }
+        catch (RuntimeException e){
+            return failed(message, e);      //not cached, it may well work another time
+        }
+        if (metrics != Metrics.NO_OP)
+            metrics.operationCompleted(operation, System.nanoTime() - start,
+                    firstPolynomial.size() + (twoOperands ? secondPolynomial.size() : 0));
+
+        //overflows are cached as well, since the same operands would overflow again
+        if (resultCache != null)
+            resultCache.put(cacheOperation, firstPolynomial, cacheSecond, message);
+        return message;
+    }
+
+    //parses and evaluates an expression; syntax errors are errors of the first input
+    private static Message calculateExpression(String text, Message message){
+        Expression expression;
+        try {
+            expression = ExpressionParser.parse(text);
+        }
+        catch (ExpressionParser.ParseException pe) {
+            message.setMessageType(MessageType.INCORRECT);
+            message.setText(pe.getMessage());
+            message.setErrorSource(1);
+            Metrics.get().parseFailed(pe.getMessage());
+            return message;
+        }
+
+        Metrics metrics = Metrics.get();
+        long start = metrics == Metrics.NO_OP ? 0 : System.nanoTime();
+        try {
+            message.setText(expression.evaluateNiceForm());
+        }
+        catch (Operations.OverflowException | ArithmeticException e) {
+            message.setMessageType(MessageType.INCORRECT);
+            message.setText(e.getMessage());
+            message.setErrorSource(0);
+            if (e instanceof Operations.OverflowException)
+                metrics.overflow(EXPRESSION);
+        }
+        catch (CancellationException ce){
+            throw ce;
+        }
+        catch (RuntimeException e){
+            return failed(message, e);
+        }
+        if (metrics != Metrics.NO_OP)
+            metrics.operationCompleted(EXPRESSION, System.nanoTime() - start, expression.countNodes());
+        return message;
+    }
+
+    //sets up "message" for an operation which failed in an unexpected way
+    private static Message failed(Message message, RuntimeException cause){
+        message.setMessageType(MessageType.INCORRECT);
+        message.setText("Operation failed: " + (cause.getMessage() == null ? cause.getClass().getSimpleName()
+                : cause.getMessage()) + ".");
+        message.setErrorSource(0);
+        return message;
+    }
+
+    //does the operation with ExactOperations or RationalOperations, returns false if it has no exact version
+    private static boolean calculateExact(String operation, Polynomial first, Polynomial second, Message message)
+            throws Operations.OverflowException{
+        switch (operation) {
+            case "Add" -> message.setText(ExactOperations.addition(ExactPolynomial.of(first), ExactPolynomial.of(second)).niceForm());
+            case "Subtract" -> message.setText(ExactOperations.subtraction(ExactPolynomial.of(first), ExactPolynomial.of(second)).niceForm());
+            case "Multiply" -> message.setText(ExactOperations.multiplication(ExactPolynomial.of(first), ExactPolynomial.of(second)).niceForm());
+            case "Differentiate" -> message.setText(ExactOperations.differentiation(ExactPolynomial.of(first)).niceForm());
+            case "Power" -> message.setText(ExactOperations.power(ExactPolynomial.of(first), exponent(second)).niceForm());
+            case "Divide" -> message.setText(RationalOperations.division(RationalPolynomial.of(first), RationalPolynomial.of(second)).niceForm());
+            case "Integrate" -> {
+                RationalPolynomial integral = RationalOperations.integration(RationalPolynomial.of(first));
+                message.setText(integral.size() == 0 ? "C" : integral.niceForm() + "+C");
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //does the operation modulo a prime, in the same output format as the integer operations
+    private static void calculateModular(ModularOperations operations, String operation, Polynomial first,
+                                         Polynomial second, Message message){
+        long[] a = operations.reduce(first);
+        long[] b = TWO_OPERAND_OPERATIONS.contains(operation) ? operations.reduce(second) : null;
+        switch (operation) {
+            case "Add" -> message.setText(operations.niceForm(operations.addition(a, b)));
+            case "Subtract" -> message.setText(operations.niceForm(operations.subtraction(a, b)));
+            case "Multiply" -> message.setText(operations.niceForm(operations.multiplication(a, b)));
+            case "Divide" -> {
+                long[][] result = operations.division(a, b);
+                message.setText("Q: " + operations.niceForm(result[0]) + "  R: " + operations.niceForm(result[1]));
+            }
+            case "Integrate" -> {
+                long[] integral = operations.integration(a);
+                message.setText(integral.length == 0 ? "C" : operations.niceForm(integral) + "+C");
+            }
+            case "Differentiate" -> message.setText(operations.niceForm(operations.differentiation(a)));
+            case "Gcd" -> message.setText(operations.niceForm(operations.greatestCommonDivisor(a, b)));
+            case "Evaluate" -> message.setText(Long.toString(operations.evaluate(a, point(second))));
+            case "Power" -> message.setText(operations.niceForm(operations.power(a, exponent(second))));
+            default -> System.err.println("Unexpected entry, in calculateModular.");
+        }
+    }
+
+    //the second operand of "Evaluate" is the point, which must be a constant
+    private static long point(Polynomial polynomial){
+        if (polynomial.biggestExponent() != 0)
+            throw new ArithmeticException("The point of evaluation must be a number.");
+        return polynomial.size() == 0 ? 0 : polynomial.getCoefficient(0);
+    }
+
+    //the second operand of "Power" is the exponent, which must be a non-negative number
+    private static int exponent(Polynomial polynomial){
+        if (polynomial.biggestExponent() != 0 || (polynomial.size() > 0 && polynomial.getCoefficient(0) < 0))
+            throw new ArithmeticException("The exponent must be a non-negative number.");
+        return polynomial.size() == 0 ? 0 : (int) polynomial.getCoefficient(0);
+    }
+
+    //gets a polynomial from an input; on failure sets up "message" and returns false
+    private static boolean evaluate(String string, Polynomial polynomial, Message message, int source){
+        try {
+            if (InputEvaluator.evaluationRoutine(string, polynomial, message))
+                return true;
+        }
+        catch (NumberFormatException nfe) {
+            message.setText("Not a monomial / input overflow.");
+        }
+        message.setMessageType(MessageType.INCORRECT);
+        message.setErrorSource(source);
+        Metrics.get().parseFailed(message.getText());
+        return false;
+    }
+}
@@ -1,14 +1,13 @@
 /**Class which connects the view (GUI) with the model (logic)
  - contains implementation of ActionListener and DocumentListener
- - handles exceptions as error messages displayed on the GUI
+ - the calculations themselves (and their error messages) are done by Calculation, on a background thread
+ - the inputs are checked while typing by LivePreview
  */
 
 package control;
 
 import model.Message;
 import model.MessageType;
-import model.Operations;
-import model.Polynomial;
 import view.View;
 
 import javax.swing.*;
@@ -16,22 +15,24 @@ import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.Arrays;
-import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class Control{
-    //for simplicity, i divided the operations in two categories
-    private final List <String> TWO_OPERAND_OPERATIONS = Arrays.asList("Add","Subtract","Multiply","Divide");
-    private final List <String> ONE_OPERAND_OPERATIONS = Arrays.asList("Integrate","Differentiate");
-
     private final View view;
 
+    //operation running in the background, null if there is none; only used on the event dispatch thread
+    private OperationWorker worker;
+
+    private final LivePreview livePreview;
+
     public Control(View view){
         this.view = view;
+        this.livePreview = new LivePreview(view);
 
         //add listeners
         view.addButtonButtonsListener(new ButtonButtonsListener());
         view.addOperationButtonsListener(new OperationButtonsListener());
+        view.addCancelButtonListener(new CancelButtonListener());
         view.addInputDocumentListener(new InputTextFieldListener());
     }
 
@@ -42,108 +43,67 @@ public class Control{
             JButton buttonSource = (JButton) objectSource;
             String operationText = buttonSource.getText();
 
-            //call needed routine
-            if ( TWO_OPERAND_OPERATIONS.contains(operationText)){
-                twoOperandsRoutine(operationText);
-            }
-            else if ( ONE_OPERAND_OPERATIONS.contains(operationText)){
-                oneOperatorRoutine(operationText);
-            }
+            //a new operation makes the result of the previous one useless, so stop it
+            if (worker != null)
+                worker.cancel(true);
+
+            //one operand operations work on the first input, the second one is ignored
+            worker = new OperationWorker(operationText, view.getInputText(1), view.getInputText(2));
+            view.setBusy(true);
+            worker.execute();
         }
+    }
 
-        //routine for operations with two operands
-        private void twoOperandsRoutine(String operation){
-            Polynomial firstPolynomial = new Polynomial();
-            Polynomial secondPolynomial = new Polynomial();
-            String firstString = view.getInputText(1);
-            String secondString = view.getInputText(2);
+    //does an operation in the background, so the GUI stays responsive (and the operation can be cancelled)
+    class OperationWorker extends SwingWorker<Message,Void>{
+        private final String operation;
+        private final String firstInput;
+        private final String secondInput;
 
-            //create new message object, associated with the operation
-            Message message = new Message();
-            message.setMessageType(MessageType.CORRECT);
+        OperationWorker(String operation, String firstInput, String secondInput){
+            this.operation = operation;
+            this.firstInput = firstInput;
+            this.secondInput = secondInput;
+        }
 
-            //try getting polynomial from first input
-            try {
-                if (!model.InputEvaluator.evaluationRoutine(firstString, firstPolynomial, message)) {
-                    message.setMessageType(MessageType.INCORRECT);
-                    view.setResultPanel(message, 1);
-                    return;
-                }
-            }
-            catch (NumberFormatException nfe) {
-                message.setMessageType(MessageType.INCORRECT);
-                message.setText("Not a monomial / input overflow.");
-                view.setResultPanel(message,1);
-                return;
-            }
+        @Override
+        protected Message doInBackground(){
+            return Calculation.calculate(operation, firstInput, secondInput);
+        }
 
-            //try getting polynomial from second input
-            try {
-                if (!model.InputEvaluator.evaluationRoutine(secondString,secondPolynomial,message)) {
-                    message.setMessageType(MessageType.INCORRECT);
-                    view.setResultPanel(message, 2);
-                    return;
-                }
-            }
-            catch (NumberFormatException nfe){
-                message.setMessageType(MessageType.INCORRECT);
-                message.setText("Not a monomial / input overflow.");
-                view.setResultPanel(message,2);
+        //runs on the event dispatch thread; results of replaced (stale) workers are simply dropped
+        @Override
+        protected void done(){
+            if (worker != this)
                 return;
-            }
+            worker = null;
+            view.setBusy(false);
 
-            //try doing the operation
-            try {
-                switch (operation) {
-                    case "Add" -> message.setText(Operations.addition(firstPolynomial, secondPolynomial).niceForm());
-                    case "Subtract" -> message.setText(Operations.subtraction(firstPolynomial, secondPolynomial).niceForm());
-                    case "Multiply" -> message.setText(Operations.multiplication(firstPolynomial, secondPolynomial).niceForm());
-                    case "Divide" -> message.setText(Operations.division(firstPolynomial, secondPolynomial));
-                    default -> System.out.println("Unexpected entry, in twoOperandsRoutine.");
-                }
-            }
-            catch (Operations.OverflowException | ArithmeticException e ){
+            Message message;
+            if (isCancelled()){
+                message = new Message();
                 message.setMessageType(MessageType.INCORRECT);
-                message.setText(e.getMessage());
+                message.setText("Operation cancelled.");
             }
-            view.setResultPanel(message,0);
-        }
-
-        //routine for operations with one operand - in a similar manner as twoOperandsRoutine
-        private void oneOperatorRoutine(String operation){
-            Polynomial polynomial = new Polynomial();
-            String string = view.getInputText(1);
-
-            Message message = new Message();
-            message.setMessageType(MessageType.CORRECT);
-
-            //try getting polynomial from first input
-            try {
-                if (!model.InputEvaluator.evaluationRoutine(string, polynomial, message)) {
+            else{
+                try{
+                    message = get();
+                }
+                catch (InterruptedException | ExecutionException ex){
+                    message = new Message();
                     message.setMessageType(MessageType.INCORRECT);
-                    view.setResultPanel(message, 1);
-                    return;
+                    message.setText("Operation failed.");
                 }
             }
-            catch (NumberFormatException nfe) {
-                message.setMessageType(MessageType.INCORRECT);
-                message.setText("Not a monomial / input overflow.");
-                view.setResultPanel(message,1);
-                return;
-            }
+            view.setResultPanel(message, message.getErrorSource());
+        }
+    }
 
-            //try doing the operation
-            try {
-                switch (operation) {
-                    case "Integrate" -> message.setText(Operations.integration(polynomial));
-                    case "Differentiate" -> message.setText(Operations.differentiation(polynomial).niceForm());
-                    default -> System.out.println("Unexpected entry, in oneOperatorRoutine.");
-                }
-            }catch (Operations.OverflowException oe){
-                message.setMessageType(MessageType.INCORRECT);
-                message.setText(oe.getMessage());
-            }
-            view.setResultPanel(message,0);
+    //action listener for the cancel button, shown while an operation is running
+    class CancelButtonListener implements ActionListener{
+        public void actionPerformed(ActionEvent e){
+            if (worker != null)
+                worker.cancel(true);    //interrupts the operation, which stops at its next check
         }
     }
 
@@ -203,6 +163,8 @@ public class Control{
                 String textTwo = view.getInputText(2);
                 view.setInputTexts(textOne,textTwo);
             }
+            //swap and reset change the inputs too, so the preview is always updated
+            livePreview.inputsChanged(view.getInputText(1), view.getInputText(2));
         }
     }
 }
\ No newline at end of file
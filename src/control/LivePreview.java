@@ -0,0 +1,80 @@
+/**Class which validates the inputs while the user types, and shows how they will be read
+ - the inputs are evaluated on a background thread, a short while after the last change (debouncing),
+   so fast typing and pasting do not flood the GUI with work
+ - every input has its own IncrementalEvaluator, so after typing or deleting at the end only the changed part is parsed
+ - the preview is set on the View from the event dispatch thread
+ */
+
+package control;
+
+import model.IncrementalEvaluator;
+import model.Message;
+import model.MessageType;
+import model.Polynomial;
+import view.View;
+
+import javax.swing.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+class LivePreview {
+    //time to wait after the last change before evaluating, in milliseconds
+    private static final long DELAY = 150;
+
+    private final View view;
+
+    //the evaluators are only used on the thread of the executor
+    private final IncrementalEvaluator firstEvaluator = new IncrementalEvaluator();
+    private final IncrementalEvaluator secondEvaluator = new IncrementalEvaluator();
+    private final ScheduledExecutorService executor;
+
+    //evaluation waiting for its delay to pass, only used on the event dispatch thread
+    private ScheduledFuture<?> pending;
+
+    LivePreview(View view){
+        this.view = view;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-preview");
+            thread.setDaemon(true);         //must not keep the application alive
+            return thread;
+        });
+    }
+
+    //called on the event dispatch thread whenever an input changes; earlier evaluations still waiting are dropped
+    void inputsChanged(String firstText, String secondText){
+        if (pending != null)
+            pending.cancel(false);
+        pending = executor.schedule(() -> {
+            Message first = preview(firstEvaluator, firstText);
+            Message second = preview(secondEvaluator, secondText);
+            SwingUtilities.invokeLater(() -> view.setPreview(first, second));
+        }, DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    //returns the normalized input (CORRECT), the reason it is invalid (INCORRECT), or an empty text for empty inputs
+    private static Message preview(IncrementalEvaluator evaluator, String text){
+        evaluator.update(text);
+
+        Message message = new Message();
+        message.setMessageType(MessageType.CORRECT);
+        if (text.isEmpty()){
+            message.setText("");
+            return message;
+        }
+
+        Polynomial polynomial = new Polynomial();
+        try{
+            if (evaluator.evaluate(polynomial, message)){
+                message.setText(polynomial.niceForm());
+                return message;
+            }
+        }
+        catch (NumberFormatException nfe){
+            message.setText("Not a monomial / input overflow.");
+        }
+        message.setMessageType(MessageType.INCORRECT);
+        return message;
+    }
+}
@@ -0,0 +1,92 @@
+/**One operation to be done by the batch modes (BatchControl, ParallelBatch)
+ - holds the operation (text of an operation button, like "Add") and the input texts, just like the GUI would give them
+ - immutable, so requests can be handed over between threads freely
+ */
+
+package control;
+
+import model.Message;
+import model.MessageType;
+
+import java.util.Map;
+
+public class OperationRequest {
+    //command words accepted in batch input lines, and the operations they stand for
+    private static final Map<String, String> COMMANDS = Map.ofEntries(
+            Map.entry("add", "Add"),
+            Map.entry("subtract", "Subtract"), Map.entry("sub", "Subtract"),
+            Map.entry("multiply", "Multiply"), Map.entry("mul", "Multiply"),
+            Map.entry("divide", "Divide"), Map.entry("div", "Divide"),
+            Map.entry("integrate", "Integrate"), Map.entry("int", "Integrate"),
+            Map.entry("differentiate", "Differentiate"), Map.entry("diff", "Differentiate"),
+            Map.entry("gcd", "Gcd"),
+            Map.entry("evaluate", "Evaluate"), Map.entry("eval", "Evaluate"),
+            Map.entry("power", "Power"), Map.entry("pow", "Power"),
+            Map.entry("expression", Calculation.EXPRESSION), Map.entry("expr", Calculation.EXPRESSION));
+
+    private final String operation;
+    private final String firstInput;
+    private final String secondInput;
+    private final String error;         //set if the request could not even be understood
+
+    public OperationRequest(String operation, String firstInput, String secondInput) {
+        this(operation, firstInput, secondInput, null);
+    }
+
+    private OperationRequest(String operation, String firstInput, String secondInput, String error) {
+        this.operation = operation;
+        this.firstInput = firstInput;
+        this.secondInput = secondInput;
+        this.error = error;
+    }
+
+    /** Builds a request from a batch input line, like "add x^2+1 x-1" or "integrate 3x^2"
+     *   - for expressions, the rest of the line is the expression, spaces included: "expr (x+1) * (x-1)"
+     *   - returns null for lines which should be skipped (empty lines and lines starting with "#")
+     *   - lines with unknown commands or a wrong number of operands give a request which results in an error
+     */
+    public static OperationRequest fromLine(String line){
+        String[] words = line.trim().split("\\s+");
+        if (words[0].isEmpty() || words[0].startsWith("#"))
+            return null;
+
+        String operation = COMMANDS.get(words[0].toLowerCase());
+        if (operation == null)
+            return new OperationRequest(null, "", "", "Unknown operation: " + words[0] + ".");
+
+        if (operation.equals(Calculation.EXPRESSION)){
+            if (words.length < 2)
+                return new OperationRequest(null, "", "", "Expected an expression for " + words[0] + ".");
+            return new OperationRequest(operation, line.trim().substring(words[0].length()).trim(), "");
+        }
+
+        int operands = Calculation.TWO_OPERAND_OPERATIONS.contains(operation) ? 2 : 1;
+        if (words.length != operands + 1)
+            return new OperationRequest(null, "", "", "Expected " + operands + " operand(s) for " + words[0] + ".");
+
+        return new OperationRequest(operation, words[1], operands == 2 ? words[2] : "");
+    }
+
+    //does the operation, see Calculation.calculate
+    public Message calculate(){
+        if (error != null){
+            Message message = new Message();
+            message.setMessageType(MessageType.INCORRECT);
+            message.setText(error);
+            return message;
+        }
+        return Calculation.calculate(operation, firstInput, secondInput);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getFirstInput() {
+        return firstInput;
+    }
+
+    public String getSecondInput() {
+        return secondInput;
+    }
+}
@@ -0,0 +1,144 @@
+/**Evaluates many independent operations on several threads, keeping their order
+ - every request is a task of its own in a work-stealing ForkJoinPool, so one slow line only keeps its own thread
+   busy while the other threads go on with the following lines
+ - only a limited number of tasks is in flight at any time, so memory use does not depend on the number of
+   requests, and a slow consumer slows down the reading of requests instead of piling up results
+ - results are handed to the consumer in the same order as the requests came, on the calling thread
+ - every operation works on its own polynomials; what the threads do share is made safe this way:
+    - the settings of Calculation (cache, exact and modular mode) are volatile fields, read once at the start of an
+      operation, so a change only affects the operations started after it
+    - the thresholds of FastMultiplication and FastDivision are volatile fields as well; they only choose between
+      algorithms giving the same results
+    - ResultCache locks itself only to look up and store results, the operations run outside of the lock; the
+      operands of its keys are interned in a ConcurrentHashMap (see ImmutablePolynomial)
+    - the installed Metrics is called from every thread, implementations must be thread safe (see Metrics)
+ - when the evaluation stops early (the consumer failed, an Error, an interrupt), the tasks still running are
+   interrupted, so their operations stop at the next Operations.checkCancelled; ForkJoinTask.cancel would not do
+   that, so every task remembers the thread running it (see Task)
+ */
+
+package control;
+
+import model.Message;
+import model.MessageType;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class ParallelBatch implements AutoCloseable {
+    private static final int TASKS_PER_THREAD = 256;     //requests in flight, for each thread
+
+    private final ForkJoinPool pool;
+    private final int window;
+
+    public ParallelBatch(int threads){
+        if (threads < 1)
+            throw new IllegalArgumentException("At least one thread is needed.");
+        //the worker threads of a ForkJoinPool are daemon threads, so they do not keep the program alive
+        this.pool = new ForkJoinPool(threads);
+        this.window = threads * TASKS_PER_THREAD;
+    }
+
+    //same as evaluate(Iterator, Consumer), for a stream of requests
+    public BatchStatistics evaluate(Stream<OperationRequest> requests, Consumer<Message> results) throws InterruptedException{
+        return evaluate(requests.iterator(), results);
+    }
+
+    /** Does all the requests, giving the results to "results" in the order of the requests
+     *   - exceptions thrown by "results" stop the evaluation and are passed on to the caller
+     *   - returns the number of operations, errors and the time it took
+     */
+    public BatchStatistics evaluate(Iterator<OperationRequest> requests, Consumer<Message> results) throws InterruptedException{
+        long start = System.nanoTime();
+        long operations = 0;
+        long errors = 0;
+        ArrayDeque<Task> pending = new ArrayDeque<>(window);
+
+        try{
+            while (requests.hasNext()){
+                if (pending.size() == window)
+                    errors += deliver(pending.poll(), results);
+
+                Task task = new Task(requests.next());
+                operations++;
+                task.future = pool.submit(task::run);
+                pending.add(task);
+            }
+            while (!pending.isEmpty())
+                errors += deliver(pending.poll(), results);
+        }
+        finally{
+            for (Task task : pending)
+                task.cancel();
+        }
+        return new BatchStatistics(operations, errors, System.nanoTime() - start);
+    }
+
+    @Override
+    public void close(){
+        pool.shutdownNow();
+    }
+
+    //waits for a task, gives its result to the consumer, returns 1 if it is an error
+    private static long deliver(Task task, Consumer<Message> results) throws InterruptedException{
+        Message message;
+        try{
+            message = task.future.get();
+        }
+        catch (ExecutionException ee){
+            //calculations turn exceptions into messages, only Errors (running out of memory...) get here, stopping
+            //the batch the same way they would with one thread
+            if (ee.getCause() instanceof Error)
+                throw (Error) ee.getCause();
+            throw new IllegalStateException("Unexpected failure in batch evaluation.", ee.getCause());
+        }
+
+        results.accept(message);
+        return message.getMessageType() == MessageType.INCORRECT ? 1 : 0;
+    }
+
+    /** One request, remembering the thread running it, so that cancelling it can interrupt that thread
+     *   - the thread is only interrupted while it runs this request, and the interrupt is cleared when the request
+     *     ends, so it can not reach the next task of the same worker thread
+     */
+    private static final class Task {
+        private final OperationRequest request;
+        private ForkJoinTask<Message> future;     //set right after submitting, before anyone else sees the task
+        private Thread runner;                    //null when not running
+        private boolean cancelled;
+
+        Task(OperationRequest request){
+            this.request = request;
+        }
+
+        Message run(){
+            synchronized (this){
+                if (cancelled)
+                    throw new CancellationException();
+                runner = Thread.currentThread();
+            }
+            try{
+                return request.calculate();
+            }
+            finally{
+                synchronized (this){
+                    runner = null;
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        synchronized void cancel(){
+            cancelled = true;
+            future.cancel(false);
+            if (runner != null)
+                runner.interrupt();
+        }
+    }
+}
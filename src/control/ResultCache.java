@@ -0,0 +1,211 @@
+/**Cache of calculation results, used by Calculation in front of Operations
+ - keyed by the operation and the evaluated operands, so inputs written differently (for example "+1x^1" and "x")
+   but meaning the same polynomial share their result
+ - holds at most "capacity" results taking at most "maxBytes" bytes (estimated from the terms of the operands and the
+   length of the result), the least recently used ones are dropped when a new one does not fit in either limit
+ - operands with a lot of terms are not cached, so a few huge inputs can not fill up the memory
+ - the operands of the keys are hash-consed (see ImmutablePolynomial), so
+    - an operand used in many entries (or a result used again as an operand) is stored only once
+    - keys are compared by reference, after the operands of a lookup are interned
+ - safe to use from several threads (see ParallelBatch), the operations themselves run outside of the lock
+ */
+
+package control;
+
+import model.Message;
+import model.MessageType;
+import model.ImmutablePolynomial;
+import model.Polynomial;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public class ResultCache {
+    //operands (together) having more terms than this are not cached
+    private static final int MAX_CACHED_TERMS = 1 << 14;
+
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    //rough size of a term of an operand (an interned node, its weak reference and its entry in the intern table), of
+    //a character, and of an entry without its contents; shared nodes are counted for every entry using them
+    private static final int TERM_BYTES = 96;
+    private static final int CHARACTER_BYTES = 2;
+    private static final int ENTRY_BYTES = 128;
+
+    private final int capacity;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Result> results;
+
+    private long bytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ResultCache(int capacity){
+        this(capacity, DEFAULT_MAX_BYTES);
+    }
+
+    public ResultCache(int capacity, long maxBytes){
+        if (capacity < 1)
+            throw new IllegalArgumentException("Cache capacity must be at least 1.");
+        if (maxBytes < 1)
+            throw new IllegalArgumentException("Cache size in bytes must be at least 1.");
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+
+        //access order makes the LinkedHashMap an LRU list, the eldest entry is the least recently used one
+        this.results = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    //checks if the operands are small enough to be cached
+    static boolean isCacheable(Polynomial first, Polynomial second){
+        return first.size() + (second == null ? 0 : second.size()) <= MAX_CACHED_TERMS;
+    }
+
+    //returns a new Message with the cached result, or null if the result is not in the cache
+    Message get(String operation, Polynomial first, Polynomial second){
+        Key key = Key.of(operation, first, second);
+        synchronized (this){
+            Result result = results.get(key);
+            if (result == null){
+                misses++;
+                return null;
+            }
+            hits++;
+            return result.toMessage();
+        }
+    }
+
+    //stores the result of an operation; the operands are interned, so they may be modified afterwards
+    void put(String operation, Polynomial first, Polynomial second, Message message){
+        Key key = Key.of(operation, first, second);
+        Result result = new Result(message);
+        long size = key.bytes() + result.bytes();
+        if (size > maxBytes)
+            return;
+        synchronized (this){
+            Result old = results.put(key, result);
+            bytes += size;
+            if (old != null)
+                bytes -= key.bytes() + old.bytes();
+
+            //drops the least recently used results until both limits hold
+            Iterator<Map.Entry<Key, Result>> eldest = results.entrySet().iterator();
+            while (results.size() > capacity || bytes > maxBytes){
+                Map.Entry<Key, Result> entry = eldest.next();
+                bytes -= entry.getKey().bytes() + entry.getValue().bytes();
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+
+    public synchronized void clear(){
+        results.clear();
+        bytes = 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized int size(){
+        return results.size();
+    }
+
+    //estimated memory used by the cached results
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        return String.format("cache: %d hits, %d misses (%.1f%% hit rate), %d evictions, %d/%d entries, %d/%d KB",
+                hits, misses, lookups == 0 ? 0.0 : hits * 100.0 / lookups, evictions, results.size(), capacity,
+                bytes >> 10, maxBytes >> 10);
+    }
+
+    //operation and interned operands; the hash is computed once, when the key is created
+    private static class Key {
+        private final String operation;
+        private final ImmutablePolynomial first;
+        private final ImmutablePolynomial second;     //null for one operand operations
+        private final int hash;
+
+        Key(String operation, ImmutablePolynomial first, ImmutablePolynomial second){
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+            this.hash = 31 * (31 * operation.hashCode() + first.hashCode()) + Objects.hashCode(second);
+        }
+
+        static Key of(String operation, Polynomial first, Polynomial second){
+            return new Key(operation, ImmutablePolynomial.of(first), second == null ? null : ImmutablePolynomial.of(second));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key key = (Key) o;
+            return hash == key.hash && first == key.first && second == key.second && operation.equals(key.operation);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        long bytes(){
+            return ENTRY_BYTES + (long) TERM_BYTES * (first.size() + (second == null ? 0 : second.size()))
+                    + (long) CHARACTER_BYTES * operation.length();
+        }
+    }
+
+    //immutable copy of a result message, since Message objects are handed out and may be changed
+    private static class Result {
+        private final MessageType messageType;
+        private final String text;
+        private final int errorSource;
+
+        Result(Message message){
+            this.messageType = message.getMessageType();
+            this.text = message.getText();
+            this.errorSource = message.getErrorSource();
+        }
+
+        long bytes(){
+            return (long) CHARACTER_BYTES * (text == null ? 0 : text.length());
+        }
+
+        Message toMessage(){
+            Message message = new Message();
+            message.setMessageType(messageType);
+            message.setText(text);
+            message.setErrorSource(errorSource);
+            return message;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/** Result of a Polynomial division
+ *   - holds the quotient ("whole" part of division) and the remainder (what we are left with after division)
+ *   - pOne = quotient * pTwo + remainder
+ */
+
+package model;
+
+import java.io.IOException;
+
+public class DivisionResult {
+    private final Polynomial quotient;
+    private final Polynomial remainder;
+
+    public DivisionResult(Polynomial quotient, Polynomial remainder) {
+        this.quotient = quotient;
+        this.remainder = remainder;
+    }
+
+    public Polynomial getQuotient() {
+        return quotient;
+    }
+
+    public Polynomial getRemainder() {
+        return remainder;
+    }
+
+    //prints the result in the format Q: ___  R: ___
+    public String niceForm(){
+        return Rendering.render(16, out -> appendNiceForm(out));
+    }
+
+    //writes the result in the same format as niceForm into "out"
+    public void appendNiceForm(Appendable out) throws IOException{
+        out.append("Q: ");
+        quotient.appendNiceForm(out);
+        out.append("  R: ");
+        remainder.appendNiceForm(out);
+    }
+}
@@ -0,0 +1,350 @@
+/** Operations on ExactPolynomials, which never overflow (only exponents are still limited to int)
+ *   - same results as Operations, whenever Operations does not throw an OverflowException
+ *   - the work is done on longs, and a term is only moved to BigInteger once a long would overflow,
+ *     so small coefficients keep the speed of primitive arithmetic
+ *   - division and integration need rational coefficients, they are not done here
+ */
+
+package model;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public class ExactOperations {
+    //powers estimated to need more bits of coefficients than this are refused, instead of running out of memory
+    private static final double MAX_POWER_BITS = 1L << 28;
+
+    /** Polynomial addition
+     *   - returns polynomial equal to pOne + pTwo, merging the terms as Operations.addition does
+     */
+    public static ExactPolynomial addition(ExactPolynomial pOne, ExactPolynomial pTwo){
+        return merge(pOne, pTwo, false);
+    }
+
+    /** Polynomial subtraction
+     *   - returns polynomial equal to pOne - pTwo
+     */
+    public static ExactPolynomial subtraction(ExactPolynomial pOne, ExactPolynomial pTwo){
+        return merge(pOne, pTwo, true);
+    }
+
+    /** Polynomial multiplication
+     *   - every product of a term of pOne with a term of pTwo is added to the coefficient of its exponent
+     *   - coefficients are summed up in a dense array if the result is dense enough (see ProductHeap.isDenseEnough),
+     *     in a hash table otherwise
+     *   - throws OverflowException (like Operations.multiplication) only if the exponents overflow
+     */
+    public static ExactPolynomial multiplication(ExactPolynomial pOne, ExactPolynomial pTwo) throws Operations.OverflowException{
+        if (pOne.size() == 0 || pTwo.size() == 0)
+            return new ExactPolynomial();
+
+        Operations.overflowCheckForAddition(pOne.biggestExponent(), pTwo.biggestExponent());
+
+        long pairs = (long) pOne.size() * pTwo.size();
+        long degree = (long) pOne.biggestExponent() + pTwo.biggestExponent();
+        Accumulator accumulator = ProductHeap.isDenseEnough(pairs, degree)
+                ? new Accumulator((int) (degree + 1))
+                : new Accumulator();
+
+        for (int i = 0; i < pOne.size(); i++){
+            Operations.checkCancelled();
+            int exponentOne = pOne.getExponent(i);
+            boolean bigOne = pOne.isBig(i);
+            for (int j = 0; j < pTwo.size(); j++){
+                int exponent = exponentOne + pTwo.getExponent(j);
+                if (bigOne || pTwo.isBig(j)){
+                    accumulator.add(exponent, pOne.getBigCoefficient(i).multiply(pTwo.getBigCoefficient(j)));
+                    continue;
+                }
+
+                //the product fits in a long if its high half is just the sign extension of the low half
+                long a = pOne.getCoefficient(i);
+                long b = pTwo.getCoefficient(j);
+                long low = a * b;
+                if (Math.multiplyHigh(a, b) == (low >> 63))
+                    accumulator.add(exponent, low);
+                else
+                    accumulator.add(exponent, BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)));
+            }
+        }
+        return accumulator.toPolynomial();
+    }
+
+    /** Polynomial exponentiation
+     *   - returns pOne^exponent, for exponent >= 0, like Operations.power but without coefficient overflow
+     *   - single terms and binomials are expanded directly (the binomial coefficients are built one from the other),
+     *     anything else is squared and multiplied
+     *   - throws OverflowException only if the exponents overflow, and an ArithmeticException if the coefficients
+     *     could need more than MAX_POWER_BITS bits in total
+     */
+    public static ExactPolynomial power(ExactPolynomial pOne, int exponent) throws Operations.OverflowException{
+        if (exponent < 0)
+            throw new ArithmeticException("The exponent must be a non-negative number.");
+        ExactPolynomial result = new ExactPolynomial(1);
+        if (exponent == 0){
+            result.add(1, 0);
+            return result;
+        }
+        if (pOne.size() == 0)
+            return result;
+        if ((long) pOne.biggestExponent() * exponent > Integer.MAX_VALUE)
+            throw new Operations.OverflowException("Addition positive overflow.");
+        if (estimatedPowerBits(pOne, exponent) > MAX_POWER_BITS)
+            throw new ArithmeticException("Power too big for exact arithmetic.");
+
+        if (pOne.size() == 1){
+            result.add(pOne.getBigCoefficient(0).pow(exponent), pOne.getExponent(0) * exponent);
+            return result;
+        }
+        if (pOne.size() == 2)
+            return binomialPower(pOne, exponent);
+
+        ExactPolynomial base = pOne;
+        result = null;
+        while (true){
+            if ((exponent & 1) == 1)
+                result = result == null ? base : multiplication(result, base);
+            exponent >>>= 1;
+            if (exponent == 0)
+                return result == pOne ? addition(pOne, new ExactPolynomial()) : result;     //a copy
+            base = multiplication(base, base);
+        }
+    }
+
+    /** Upper bound of the size of pOne^exponent, in bits of coefficients
+     *   - the number of terms is at most exponent+1 for a binomial, and the span of exponents plus one otherwise
+     *   - no coefficient is bigger than (sum of the absolute values of the coefficients)^exponent
+     */
+    private static double estimatedPowerBits(ExactPolynomial pOne, int exponent){
+        double terms = pOne.size() == 1 ? 1 : pOne.size() == 2 ? exponent + 1.0
+                : (double) (pOne.biggestExponent() - pOne.getExponent(pOne.size() - 1)) * exponent + 1;
+        BigInteger sum = BigInteger.ZERO;
+        for (int i = 0; i < pOne.size(); i++)
+            sum = sum.add(pOne.getBigCoefficient(i).abs());
+        double bits = sum.equals(BigInteger.ONE) ? 1 : (double) sum.bitLength() * exponent;
+        return terms * bits;
+    }
+
+    //(a*x^m + b*x^n)^k as the sum of C(k,i) * a^(k-i) * b^i * x^(m*(k-i) + n*i), for i from 0 to k
+    private static ExactPolynomial binomialPower(ExactPolynomial pOne, int exponent){
+        BigInteger a = pOne.getBigCoefficient(0);
+        BigInteger b = pOne.getBigCoefficient(1);
+        int m = pOne.getExponent(0);
+        int n = pOne.getExponent(1);
+
+        //powers of a, from a^0 up; not needed for 1 and -1, whose powers are just signs
+        boolean unitA = a.abs().equals(BigInteger.ONE);
+        BigInteger[] powersOfA = null;
+        if (!unitA){
+            powersOfA = new BigInteger[exponent + 1];
+            powersOfA[0] = BigInteger.ONE;
+            for (int j = 1; j <= exponent; j++)
+                powersOfA[j] = powersOfA[j - 1].multiply(a);
+        }
+
+        ExactPolynomial result = new ExactPolynomial(exponent + 1);
+        BigInteger binomial = BigInteger.ONE;       //C(exponent, i)
+        BigInteger powerOfB = BigInteger.ONE;       //b^i
+        for (int i = 0; i <= exponent; i++){
+            if ((i & 0xFF) == 0)
+                Operations.checkCancelled();
+            BigInteger powerOfA = unitA ? (a.signum() < 0 && ((exponent - i) & 1) == 1 ? BigInteger.ONE.negate()
+                    : BigInteger.ONE) : powersOfA[exponent - i];
+            result.add(binomial.multiply(powerOfA).multiply(powerOfB), m * (exponent - i) + n * i);
+
+            binomial = binomial.multiply(BigInteger.valueOf(exponent - i)).divide(BigInteger.valueOf(i + 1));
+            powerOfB = powerOfB.multiply(b);
+        }
+        return result;
+    }
+
+    /** Polynomial differentiation
+     *   - the derivative of c*x^e is c*e*x^(e-1), constants disappear
+     */
+    public static ExactPolynomial differentiation(ExactPolynomial pOne){
+        ExactPolynomial result = new ExactPolynomial(pOne.size());
+        for (int i = 0; i < pOne.size(); i++){
+            int exponent = pOne.getExponent(i);
+            if (exponent == 0)
+                continue;
+
+            if (!pOne.isBig(i)){
+                long coefficient = pOne.getCoefficient(i);
+                long low = coefficient * exponent;
+                if (Math.multiplyHigh(coefficient, exponent) == (low >> 63)){
+                    result.add(low, exponent - 1);
+                    continue;
+                }
+            }
+            result.add(pOne.getBigCoefficient(i).multiply(BigInteger.valueOf(exponent)), exponent - 1);
+        }
+        return result;
+    }
+
+    //merges the terms of the two polynomials in decreasing order of exponents, adding or subtracting pTwo
+    private static ExactPolynomial merge(ExactPolynomial pOne, ExactPolynomial pTwo, boolean subtract){
+        ExactPolynomial result = new ExactPolynomial(pOne.size() + pTwo.size());
+        int n = 0;
+        int m = 0;
+        while (n < pOne.size() || m < pTwo.size()){
+            if (m == pTwo.size() || (n < pOne.size() && pOne.getExponent(n) > pTwo.getExponent(m))){
+                copyTerm(result, pOne, n++, false);
+            }
+            else if (n == pOne.size() || pTwo.getExponent(m) > pOne.getExponent(n)){
+                copyTerm(result, pTwo, m++, subtract);
+            }
+            else{
+                int exponent = pOne.getExponent(n);
+                if (!pOne.isBig(n) && !pTwo.isBig(m)){
+                    long a = pOne.getCoefficient(n);
+                    long b = pTwo.getCoefficient(m);
+                    long sum = subtract ? a - b : a + b;
+                    //overflow happened if the sign of the result differs from what the signs of the operands allow
+                    boolean overflow = subtract ? ((a ^ b) & (a ^ sum)) < 0 : ((a ^ sum) & (b ^ sum)) < 0;
+                    if (!overflow){
+                        result.add(sum, exponent);
+                        n++;
+                        m++;
+                        continue;
+                    }
+                }
+                BigInteger a = pOne.getBigCoefficient(n);
+                BigInteger b = pTwo.getBigCoefficient(m);
+                result.add(subtract ? a.subtract(b) : a.add(b), exponent);
+                n++;
+                m++;
+            }
+        }
+        return result;
+    }
+
+    //copies a term, flipping its sign if needed (-Long.MIN_VALUE is the only small value which becomes big)
+    private static void copyTerm(ExactPolynomial result, ExactPolynomial source, int index, boolean negate){
+        int exponent = source.getExponent(index);
+        if (!source.isBig(index) && !(negate && source.getCoefficient(index) == Long.MIN_VALUE))
+            result.add(negate ? -source.getCoefficient(index) : source.getCoefficient(index), exponent);
+        else
+            result.add(negate ? source.getBigCoefficient(index).negate() : source.getBigCoefficient(index), exponent);
+    }
+
+    /** Sum of coefficients for each exponent of a product
+     *   - every coefficient is a long, and what does not fit in it is moved over to a BigInteger
+     *   - dense form: the exponent is the position; sparse form: an open addressing hash table of exponents
+     */
+    private static class Accumulator {
+        private static final int EMPTY = -1;
+
+        private final boolean dense;
+        private int[] keys;             //exponent of each slot, only in sparse form
+        private long[] values;
+        private BigInteger[] overflow;  //null until needed
+        private int used;
+
+        //dense form, for exponents 0..length-1
+        Accumulator(int length){
+            dense = true;
+            values = new long[length];
+        }
+
+        //sparse form
+        Accumulator(){
+            dense = false;
+            keys = new int[16];
+            Arrays.fill(keys, EMPTY);
+            values = new long[16];
+        }
+
+        void add(int exponent, long value){
+            int slot = slot(exponent);
+            long current = values[slot];
+            long sum = current + value;
+            if (((current ^ sum) & (value ^ sum)) < 0){
+                //move the sum over to the BigInteger part, the long part starts again from 0
+                addOverflow(slot, BigInteger.valueOf(current).add(BigInteger.valueOf(value)));
+                values[slot] = 0;
+            }
+            else
+                values[slot] = sum;
+        }
+
+        void add(int exponent, BigInteger value){
+            addOverflow(slot(exponent), value);
+        }
+
+        private void addOverflow(int slot, BigInteger value){
+            if (overflow == null)
+                overflow = new BigInteger[values.length];
+            overflow[slot] = overflow[slot] == null ? value : overflow[slot].add(value);
+        }
+
+        //returns the position of the exponent, creating it in sparse form if needed
+        private int slot(int exponent){
+            if (dense)
+                return exponent;
+
+            int mask = keys.length - 1;
+            int slot = (exponent * 0x9E3779B9 >>> 7) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != exponent)
+                slot = (slot + 1) & mask;
+            if (keys[slot] == EMPTY){
+                if (2 * (used + 1) > keys.length){
+                    grow();
+                    return slot(exponent);
+                }
+                keys[slot] = exponent;
+                used++;
+            }
+            return slot;
+        }
+
+        private void grow(){
+            int[] oldKeys = keys;
+            long[] oldValues = values;
+            BigInteger[] oldOverflow = overflow;
+
+            keys = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            values = new long[keys.length];
+            overflow = oldOverflow == null ? null : new BigInteger[keys.length];
+            used = 0;
+            for (int i = 0; i < oldKeys.length; i++){
+                if (oldKeys[i] == EMPTY)
+                    continue;
+                int slot = slot(oldKeys[i]);
+                values[slot] = oldValues[i];
+                if (oldOverflow != null)
+                    overflow[slot] = oldOverflow[i];
+            }
+        }
+
+        //the sums, in decreasing order of exponents, zeros skipped
+        ExactPolynomial toPolynomial(){
+            if (dense){
+                ExactPolynomial result = new ExactPolynomial(values.length);
+                for (int exponent = values.length - 1; exponent >= 0; exponent--)
+                    addTerm(result, exponent, exponent);
+                return result;
+            }
+
+            //sort the used slots by exponent: exponent in the high half, slot in the low half
+            long[] order = new long[used];
+            int count = 0;
+            for (int slot = 0; slot < keys.length; slot++)
+                if (keys[slot] != EMPTY)
+                    order[count++] = ((long) keys[slot] << 32) | slot;
+            Arrays.sort(order);
+
+            ExactPolynomial result = new ExactPolynomial(used);
+            for (int i = used - 1; i >= 0; i--)
+                addTerm(result, (int) (order[i] >>> 32), (int) order[i]);
+            return result;
+        }
+
+        private void addTerm(ExactPolynomial result, int exponent, int slot){
+            if (overflow == null || overflow[slot] == null)
+                result.add(values[slot], exponent);
+            else
+                result.add(overflow[slot].add(BigInteger.valueOf(values[slot])), exponent);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/** Polynomial with coefficients of any size, used by ExactOperations
+ *   - same idea as Polynomial: terms in parallel arrays, in the order they were added
+ *   - every coefficient is kept in a long, and only the ones which do not fit are kept as BigInteger
+ *      - the BigInteger array is only created when the first big coefficient arrives, so polynomials with
+ *        small coefficients (the usual case) cost the same as a Polynomial
+ *   - BigIntegers which fit in a long are always turned back into a long, so a term is big only if it has to be
+ */
+
+package model;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public class ExactPolynomial {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] exponents;
+    private long[] coefficients;
+    private BigInteger[] bigCoefficients;   //null until needed; on a position it is null if the term is small
+    private int size;
+
+    public ExactPolynomial(){
+        this(INITIAL_CAPACITY);
+    }
+
+    //constructor with a capacity hint, used by operations which know the size of their result in advance
+    public ExactPolynomial(int capacity){
+        capacity = Math.max(capacity, 1);
+        exponents = new int[capacity];
+        coefficients = new long[capacity];
+        size = 0;
+    }
+
+    //builds the exact form of a Polynomial, all terms are small
+    public static ExactPolynomial of(Polynomial polynomial){
+        ExactPolynomial result = new ExactPolynomial(polynomial.size());
+        for (int i = 0; i < polynomial.size(); i++)
+            result.add(polynomial.getCoefficient(i), polynomial.getExponent(i));
+        return result;
+    }
+
+    //adds a small term, zeros are skipped
+    public void add(long coefficient, int exponent){
+        if (coefficient == 0)
+            return;
+        ensureCapacity();
+        exponents[size] = exponent;
+        coefficients[size] = coefficient;
+        size++;
+    }
+
+    //adds a term, which is only kept as a BigInteger if it does not fit in a long
+    public void add(BigInteger coefficient, int exponent){
+        if (coefficient.bitLength() < Long.SIZE){
+            add(coefficient.longValue(), exponent);
+            return;
+        }
+        ensureCapacity();
+        if (bigCoefficients == null)
+            bigCoefficients = new BigInteger[exponents.length];
+        exponents[size] = exponent;
+        coefficients[size] = 0;
+        bigCoefficients[size] = coefficient;
+        size++;
+    }
+
+    private void ensureCapacity(){
+        if (size < exponents.length)
+            return;
+        exponents = Arrays.copyOf(exponents, size * 2);
+        coefficients = Arrays.copyOf(coefficients, size * 2);
+        if (bigCoefficients != null)
+            bigCoefficients = Arrays.copyOf(bigCoefficients, size * 2);
+    }
+
+    //return number of terms
+    public int size(){
+        return size;
+    }
+
+    public int getExponent(int index){
+        return exponents[index];
+    }
+
+    //checks if the coefficient on position "index" does not fit in a long
+    public boolean isBig(int index){
+        return bigCoefficients != null && bigCoefficients[index] != null;
+    }
+
+    //the coefficient of a small term (see isBig)
+    public long getCoefficient(int index){
+        if (isBig(index))
+            throw new ArithmeticException("Coefficient does not fit in a long.");
+        return coefficients[index];
+    }
+
+    //the coefficient of any term, as a BigInteger
+    public BigInteger getBigCoefficient(int index){
+        return isBig(index) ? bigCoefficients[index] : BigInteger.valueOf(coefficients[index]);
+    }
+
+    //returns the biggest exponent, aka the first term's exponent
+    public int biggestExponent(){
+        if (size == 0)
+            return 0;
+        return exponents[0];
+    }
+
+    //checks if every coefficient fits in an int, so the polynomial can be turned into a Polynomial
+    public boolean fitsInt(){
+        for (int i = 0; i < size; i++)
+            if (isBig(i) || coefficients[i] > Integer.MAX_VALUE || coefficients[i] < Integer.MIN_VALUE)
+                return false;
+        return true;
+    }
+
+    //returns the Polynomial form, fitsInt must be checked first
+    public Polynomial toPolynomial(){
+        if (!fitsInt())
+            throw new ArithmeticException("Coefficient does not fit in an int.");
+        Polynomial result = new Polynomial(size);
+        for (int i = 0; i < size; i++)
+            result.add(coefficients[i], exponents[i]);
+        return result;
+    }
+
+    //prints the polynomial in the same form as Polynomial.niceForm
+    public String niceForm(){
+        return Rendering.render(size * 8, out -> appendNiceForm(out));
+    }
+
+    public void appendNiceForm(Appendable out) throws IOException{
+        if (size == 0){
+            out.append('0');
+            return;
+        }
+
+        for (int i = 0; i < size; i++){
+            if (!isBig(i)){
+                if (i > 0 && coefficients[i] > 0)
+                    out.append('+');
+                Monomial.appendNiceForm(out, coefficients[i], exponents[i]);
+                continue;
+            }
+
+            //big coefficients are never 1 or -1, so they are always printed
+            if (i > 0 && bigCoefficients[i].signum() > 0)
+                out.append('+');
+            out.append(bigCoefficients[i].toString());
+            if (exponents[i] == 1)
+                out.append('x');
+            else if (exponents[i] != 0){
+                out.append("x^");
+                out.append(Integer.toString(exponents[i]));
+            }
+        }
+    }
+}
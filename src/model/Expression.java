@@ -0,0 +1,452 @@
+/** Node of the syntax tree of a polynomial expression (see ExpressionParser), like "(x+1)^3*(x-1)'"
+ *   - leaves are monomials (c*x^e), the other nodes are operations on their children
+ *   - nodes are interned by the parser: two equal subexpressions are the same object (and the operands of + and *
+ *     are put in a fixed order first, so "a*b" and "b*a" are equal too); evaluate works out every object once,
+ *     so common subexpressions are calculated only once
+ *   - evaluation is exact, as over RationalPolynomials: "/" is the exact quotient, "%" its remainder, and the integral
+ *     is without the constant; nothing is turned into text in between
+ *      - while the values have integer coefficients which fit in an int, they are worked out on Polynomials with
+ *        Operations (and its fast multiplication, division and power)
+ *      - a node is worked out over RationalPolynomials only if that is not possible: a division leaves fractions,
+ *        an integral has fractions, or a coefficient does not fit in an int
+ *      - sums, differences, negations, derivatives and multiplications by a monomial only build LazyPolynomial
+ *        pipelines; these are worked out in one pass where a whole Polynomial is needed: by a multiplication,
+ *        division, power or integral, by a node used more than once, and when the result is printed
+ *      - a chain of sums and differences becomes one balanced merge of all its operands, so a long sum is neither
+ *        a deep pipeline nor quadratic
+ *   - immutable
+ */
+
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+public final class Expression {
+    public enum Kind { MONOMIAL, ADD, SUBTRACT, MULTIPLY, DIVIDE, REMAINDER, POWER, NEGATE, DERIVATIVE, INTEGRAL }
+
+    static final char INTEGRAL_SIGN = '\u222B';
+
+    private final Kind kind;
+    private final Expression left;      //operand of unary operations, left operand of binary ones
+    private final Expression right;
+    private final long value;           //coefficient of a monomial, exponent of a power
+    private final int exponent;         //exponent of a monomial
+    private final int id;               //order in which the parser created the node, to order operands
+    private final int hash;
+
+    Expression(Kind kind, Expression left, Expression right, long value, int exponent, int id){
+        this.kind = kind;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+        this.exponent = exponent;
+        this.id = id;
+        this.hash = Objects.hash(kind, System.identityHashCode(left), System.identityHashCode(right), value, exponent);
+    }
+
+    public Kind getKind(){
+        return kind;
+    }
+
+    public Expression getLeft(){
+        return left;
+    }
+
+    public Expression getRight(){
+        return right;
+    }
+
+    long getValue(){
+        return value;
+    }
+
+    int getExponent(){
+        return exponent;
+    }
+
+    int getId(){
+        return id;
+    }
+
+    //is "+" or "*": the order of the operands does not matter
+    static boolean isCommutative(Kind kind){
+        return kind == Kind.ADD || kind == Kind.MULTIPLY;
+    }
+
+    //evaluates the whole tree, each distinct node once
+    public RationalPolynomial evaluate() throws Operations.OverflowException{
+        return new Evaluation(this).rational();
+    }
+
+    //evaluates the whole tree, and returns the result in the form of RationalPolynomial.niceForm
+    public String evaluateNiceForm() throws Operations.OverflowException{
+        Evaluation evaluation = new Evaluation(this);
+        LazyPolynomial integer = evaluation.lazy.get(this);
+        if (integer != null){
+            try{
+                return integer.niceForm();      //the pipeline goes straight into the text
+            }
+            catch (Operations.OverflowException oe){
+                //worked out over the rationals below
+            }
+        }
+        return evaluation.rational().niceForm();
+    }
+
+    //the distinct nodes of the tree, children before their parents (left before right), without recursion
+    private static List<Expression> postOrder(Expression root){
+        List<Expression> order = new ArrayList<>();
+        Set<Expression> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Expression> done = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Expression> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()){
+            Expression node = stack.peek();
+            if (expanded.add(node)){
+                if (node.right != null && !done.contains(node.right))
+                    stack.push(node.right);
+                if (node.left != null && !done.contains(node.left))
+                    stack.push(node.left);
+            }
+            else{
+                stack.pop();
+                if (done.add(node))
+                    order.add(node);
+            }
+        }
+        return order;
+    }
+
+    //is a link of a chain of sums, which is merged as a whole
+    private static boolean isLinear(Kind kind){
+        return kind == Kind.ADD || kind == Kind.SUBTRACT || kind == Kind.NEGATE;
+    }
+
+    /** One evaluation of a tree, remembering the value of every node it worked out
+     *   - the distinct nodes are worked out in an order where children come before their parents, without recursion
+     *     (a long sum is a very deep tree)
+     *   - first every node which has an integer value gets it as a LazyPolynomial (see the class comment), then
+     *     rational works out the RationalPolynomial value of the nodes which need it
+     *   - an overflow in a pipeline only shows when it is worked out, the node then gets no integer value
+     */
+    private static final class Evaluation {
+        private final Expression root;
+        private final List<Expression> order;
+        //number of parents of each node
+        private final Map<Expression, Integer> uses = new IdentityHashMap<>();
+        //nodes inside a chain of sums, merged by the top of the chain instead of on their own
+        private final Set<Expression> absorbed = Collections.newSetFromMap(new IdentityHashMap<>());
+        //integer values, null for the nodes which have none
+        private final Map<Expression, LazyPolynomial> lazy = new IdentityHashMap<>();
+        //the integer values which have been worked out
+        private final Map<Expression, Polynomial> materialized = new IdentityHashMap<>();
+
+        Evaluation(Expression root){
+            this.root = root;
+            this.order = postOrder(root);
+
+            Map<Expression, Expression> parent = new IdentityHashMap<>();
+            for (Expression node : order)
+                for (Expression child : new Expression[]{node.left, node.right})
+                    if (child != null){
+                        uses.merge(child, 1, Integer::sum);
+                        parent.put(child, node);
+                    }
+            for (Expression node : order)
+                if (isLinear(node.kind) && uses(node) == 1 && isLinear(parent.get(node).kind))
+                    absorbed.add(node);
+
+            for (Expression node : order){
+                if (absorbed.contains(node))
+                    continue;
+                Operations.checkCancelled();
+                LazyPolynomial value;
+                try{
+                    value = integerValue(node);
+                }
+                catch (Operations.OverflowException oe){
+                    value = null;       //the rationals have longs, or report the overflow themselves
+                }
+                lazy.put(node, value);
+                if (value != null && uses(node) > 1)
+                    polynomial(node);   //worked out once, not by every user
+            }
+        }
+
+        private int uses(Expression node){
+            return uses.getOrDefault(node, 0);
+        }
+
+        //the worked out integer value of a node, null if it has none (or if working it out overflows)
+        private Polynomial polynomial(Expression node){
+            Polynomial result = materialized.get(node);
+            if (result != null)
+                return result;
+            LazyPolynomial value = lazy.get(node);
+            if (value == null)
+                return null;
+            try{
+                result = value.materialize();
+            }
+            catch (Operations.OverflowException oe){
+                lazy.put(node, null);
+                return null;
+            }
+            materialized.put(node, result);
+            lazy.put(node, LazyPolynomial.of(result));
+            return result;
+        }
+
+        //wraps a worked out value
+        private LazyPolynomial source(Expression node, Polynomial value){
+            if (value == null)
+                return null;
+            materialized.put(node, value);
+            return LazyPolynomial.of(value);
+        }
+
+        private LazyPolynomial integerValue(Expression node) throws Operations.OverflowException{
+            switch (node.kind) {
+                case MONOMIAL -> {
+                    if (node.value > Integer.MAX_VALUE || node.value < Integer.MIN_VALUE)
+                        return null;
+                    Polynomial term = new Polynomial(1);
+                    term.add(node.value, node.exponent);
+                    return source(node, term);
+                }
+                case ADD, SUBTRACT, NEGATE -> {
+                    return chain(node);
+                }
+                case DERIVATIVE -> {
+                    LazyPolynomial operand = lazy.get(node.left);
+                    return operand == null ? null : operand.differentiate();
+                }
+                case MULTIPLY -> {
+                    LazyPolynomial scaled = multiplicationByMonomial(node.left, node.right);
+                    if (scaled == null)
+                        scaled = multiplicationByMonomial(node.right, node.left);
+                    if (scaled != null)
+                        return scaled;
+                }
+                default -> {
+                }
+            }
+
+            //everything else needs whole Polynomials
+            Polynomial left = polynomial(node.left);
+            Polynomial right = node.right == null ? null : polynomial(node.right);
+            if (left == null || (node.right != null && right == null))
+                return null;
+            return source(node, switch (node.kind) {
+                case MULTIPLY -> Operations.multiplication(left, right);
+                case DIVIDE -> {
+                    DivisionResult division = division(left, right);
+                    yield division == null ? null : division.getQuotient();
+                }
+                case REMAINDER -> {
+                    DivisionResult division = division(left, right);
+                    yield division == null ? null : division.getRemainder();
+                }
+                case POWER -> node.value > Integer.MAX_VALUE ? null : Operations.power(left, (int) node.value);
+                case INTEGRAL -> integration(left);
+                default -> null;        //handled above
+            });
+        }
+
+        //operand * c*x^e as a pipeline, if "monomial" is one with an integer coefficient
+        private LazyPolynomial multiplicationByMonomial(Expression monomial, Expression operand){
+            if (monomial.kind != Kind.MONOMIAL || lazy.get(monomial) == null)
+                return null;
+            LazyPolynomial value = lazy.get(operand);
+            if (value == null)
+                return null;
+            if (monomial.value != 1)
+                value = value.scale((int) monomial.value);
+            return monomial.exponent == 0 ? value : value.shift(monomial.exponent);
+        }
+
+        /** The value of a chain of sums, differences and negations with "top" at its top
+         *   - the operands of the chain are collected (with their signs), and merged by a balanced tree of sums
+         */
+        private LazyPolynomial chain(Expression top){
+            List<LazyPolynomial> operands = new ArrayList<>();
+            ArrayDeque<Expression> links = new ArrayDeque<>();
+            ArrayDeque<Boolean> negated = new ArrayDeque<>();
+            links.push(top);
+            negated.push(false);
+            while (!links.isEmpty()){
+                Expression link = links.pop();
+                boolean negative = negated.pop();
+                if (link != top && !absorbed.contains(link)){
+                    LazyPolynomial value = lazy.get(link);
+                    if (value == null)
+                        return null;
+                    operands.add(negative ? value.negate() : value);
+                    continue;
+                }
+                links.push(link.left);
+                negated.push(negative != (link.kind == Kind.NEGATE));
+                if (link.right != null){
+                    links.push(link.right);
+                    negated.push(negative != (link.kind == Kind.SUBTRACT));
+                }
+            }
+            return sum(operands, 0, operands.size());
+        }
+
+        private static LazyPolynomial sum(List<LazyPolynomial> operands, int from, int to){
+            if (to - from == 1)
+                return operands.get(from);
+            int middle = (from + to) >>> 1;
+            return sum(operands, from, middle).add(sum(operands, middle, to));
+        }
+
+        /** Integer division, if it gives the exact quotient
+         *   - Operations.division stops at the first term it can not divide exactly, leaving a remainder at least
+         *     as big as the divisor; if it went to the end, the quotient and remainder are the rational ones
+         */
+        private static DivisionResult division(Polynomial dividend, Polynomial divisor) throws Operations.OverflowException{
+            if (divisor.size() == 0)
+                return null;        //the rational division reports it
+            DivisionResult result = Operations.division(dividend, divisor);
+            Polynomial remainder = result.getRemainder();
+            if (remainder.size() > 0 && remainder.biggestExponent() >= divisor.biggestExponent())
+                return null;
+            return result;
+        }
+
+        //the integral without the constant, if every coefficient divides exactly
+        private static Polynomial integration(Polynomial polynomial) throws Operations.OverflowException{
+            Operations.overflowCheckForAddition(polynomial.biggestExponent(), 1);
+            Polynomial result = new Polynomial(polynomial.size());
+            for (int i = 0; i < polynomial.size(); i++){
+                int exponent = polynomial.getExponent(i) + 1;
+                if (polynomial.getCoefficient(i) % exponent != 0)
+                    return null;
+                result.add(polynomial.getCoefficient(i) / exponent, exponent);
+            }
+            return result;
+        }
+
+        //the RationalPolynomial value of the root
+        RationalPolynomial rational() throws Operations.OverflowException{
+            //parents come first here: a node which can not be worked out over the integers needs its children
+            Map<Expression, RationalPolynomial> rational = new IdentityHashMap<>();
+            Set<Expression> needed = Collections.newSetFromMap(new IdentityHashMap<>());
+            needed.add(root);
+            for (int i = order.size() - 1; i >= 0; i--){
+                Expression node = order.get(i);
+                if (!needed.contains(node))
+                    continue;
+                Operations.checkCancelled();
+                if (absorbed.contains(node))
+                    lazy.put(node, chain(node));
+                Polynomial value = polynomial(node);
+                if (value != null)
+                    rational.put(node, RationalPolynomial.of(value));
+                else{
+                    if (node.left != null)
+                        needed.add(node.left);
+                    if (node.right != null)
+                        needed.add(node.right);
+                }
+            }
+
+            for (Expression node : order)
+                if (needed.contains(node) && !rational.containsKey(node)){
+                    Operations.checkCancelled();
+                    rational.put(node, rationalValue(node, rational));
+                }
+            return rational.get(root);
+        }
+
+        private static RationalPolynomial rationalValue(Expression node, Map<Expression, RationalPolynomial> values)
+                throws Operations.OverflowException{
+            RationalPolynomial left = values.get(node.left);
+            RationalPolynomial right = values.get(node.right);
+            return switch (node.kind) {
+                case MONOMIAL -> {
+                    RationalPolynomial term = new RationalPolynomial(1);
+                    term.add(node.value, node.exponent);
+                    yield term;
+                }
+                case ADD -> RationalOperations.addition(left, right);
+                case SUBTRACT -> RationalOperations.subtraction(left, right);
+                case MULTIPLY -> RationalOperations.multiplication(left, right);
+                case DIVIDE -> RationalOperations.division(left, right).getQuotient();
+                case REMAINDER -> RationalOperations.division(left, right).getRemainder();
+                case POWER -> power(left, node.value);
+                case NEGATE -> RationalOperations.subtraction(new RationalPolynomial(), left);
+                case DERIVATIVE -> RationalOperations.differentiation(left);
+                case INTEGRAL -> RationalOperations.integration(left);
+            };
+        }
+
+        //base^exponent by squaring; the degree of the result must fit in an int
+        private static RationalPolynomial power(RationalPolynomial base, long exponent) throws Operations.OverflowException{
+            if ((long) base.biggestExponent() * exponent > Integer.MAX_VALUE)
+                throw new ArithmeticException("Power overflow.");
+
+            RationalPolynomial result = new RationalPolynomial(1);
+            result.add(1, 0);
+            while (exponent != 0){
+                if ((exponent & 1) == 1)
+                    result = RationalOperations.multiplication(result, base);
+                exponent >>>= 1;
+                if (exponent != 0)
+                    base = RationalOperations.multiplication(base, base);
+            }
+            return result;
+        }
+    }
+
+    //number of distinct nodes, the number of operations evaluate does
+    public int countNodes(){
+        return postOrder(this).size();
+    }
+
+    //structural equality; the children are compared by identity, since they are interned already
+    @Override
+    public boolean equals(Object o){
+        if (this == o)
+            return true;
+        if (!(o instanceof Expression))
+            return false;
+        Expression other = (Expression) o;
+        return kind == other.kind && left == other.left && right == other.right && value == other.value
+                && exponent == other.exponent;
+    }
+
+    @Override
+    public int hashCode(){
+        return hash;
+    }
+
+    //fully parenthesized form, for debugging
+    @Override
+    public String toString(){
+        return switch (kind) {
+            case MONOMIAL -> {
+                RationalPolynomial term = new RationalPolynomial(1);
+                term.add(value, exponent);
+                yield term.niceForm();
+            }
+            case ADD -> "(" + left + "+" + right + ")";
+            case SUBTRACT -> "(" + left + "-" + right + ")";
+            case MULTIPLY -> "(" + left + "*" + right + ")";
+            case DIVIDE -> "(" + left + "/" + right + ")";
+            case REMAINDER -> "(" + left + "%" + right + ")";
+            case POWER -> "(" + left + ")^" + value;
+            case NEGATE -> "-(" + left + ")";
+            case DERIVATIVE -> "(" + left + ")'";
+            case INTEGRAL -> INTEGRAL_SIGN + "(" + left + ")";
+        };
+    }
+}
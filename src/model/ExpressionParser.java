@@ -0,0 +1,232 @@
+/** Parser of polynomial expressions, giving their syntax tree (see Expression)
+ *   - operators, from the loosest to the tightest:
+ *      - "+" and "-"
+ *      - "*", "/" (quotient), "%" (remainder), and multiplication without a sign: "2(x+1)", "(x+1)(x-1)"
+ *      - prefix "-", "d/dx" (derivative) and the integral sign U+222B (an optional "dx" may follow its operand)
+ *      - postfix "^n" (n a non-negative integer) and "'" (derivative), applied from left to right
+ *   - monomials are written like in the inputs ("3x^2", "x", "-5"), and parentheses group anything
+ *   - spaces are allowed anywhere between tokens
+ *   - equal subexpressions become the same node (see Expression), through the "nodes" table of the parser
+ *   - errors are reported with a ParseException, whose message tells what is wrong and where (1 based position)
+ */
+
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ExpressionParser {
+    //parentheses and prefix operators nested deeper than this are refused, the parser is recursive
+    private static final int MAX_DEPTH = 1000;
+
+    private final String text;
+    private int position;
+    private int depth;
+    private final Map<Expression, Expression> nodes = new HashMap<>();
+
+    private ExpressionParser(String text){
+        this.text = text;
+    }
+
+    //parses the whole text, which must be a single expression
+    public static Expression parse(String text) throws ParseException{
+        ExpressionParser parser = new ExpressionParser(text);
+        if (parser.atEnd())
+            throw new ParseException("Empty expression.");
+        Expression expression = parser.expression();
+        if (!parser.atEnd())
+            throw parser.unexpected();
+        return expression;
+    }
+
+    //expression := term { ("+" | "-") term }
+    private Expression expression() throws ParseException{
+        Expression result = term();
+        while (true){
+            if (accept('+'))
+                result = node(Expression.Kind.ADD, result, term(), 0, 0);
+            else if (accept('-'))
+                result = node(Expression.Kind.SUBTRACT, result, term(), 0, 0);
+            else
+                return result;
+        }
+    }
+
+    //term := unary { ("*" | "/" | "%") unary | unary }
+    private Expression term() throws ParseException{
+        Expression result = unary();
+        while (true){
+            if (accept('*'))
+                result = node(Expression.Kind.MULTIPLY, result, unary(), 0, 0);
+            else if (accept('/'))
+                result = node(Expression.Kind.DIVIDE, result, unary(), 0, 0);
+            else if (accept('%'))
+                result = node(Expression.Kind.REMAINDER, result, unary(), 0, 0);
+            else if (startsOperand())
+                result = node(Expression.Kind.MULTIPLY, result, unary(), 0, 0);
+            else
+                return result;
+        }
+    }
+
+    //unary := ("-" | "+" | "d/dx") unary | integral sign unary ["dx"] | postfix
+    private Expression unary() throws ParseException{
+        if (++depth > MAX_DEPTH)
+            throw new ParseException("Expression nested too deeply.");
+        try{
+            if (accept('+'))
+                return unary();
+            if (accept('-')){
+                Expression operand = unary();
+                if (operand.getKind() == Expression.Kind.MONOMIAL && operand.getValue() != Long.MIN_VALUE)
+                    return node(Expression.Kind.MONOMIAL, null, null, -operand.getValue(), operand.getExponent());
+                return node(Expression.Kind.NEGATE, operand, null, 0, 0);
+            }
+            if (accept("d/dx"))
+                return node(Expression.Kind.DERIVATIVE, unary(), null, 0, 0);
+            if (accept(Expression.INTEGRAL_SIGN)){
+                Expression operand = unary();
+                accept("dx");
+                return node(Expression.Kind.INTEGRAL, operand, null, 0, 0);
+            }
+            return postfix();
+        }
+        finally{
+            depth--;
+        }
+    }
+
+    //postfix := primary { "^" integer | "'" }
+    private Expression postfix() throws ParseException{
+        Expression result = primary();
+        while (true){
+            if (accept('^'))
+                result = node(Expression.Kind.POWER, result, null, exponent(), 0);
+            else if (accept('\''))
+                result = node(Expression.Kind.DERIVATIVE, result, null, 0, 0);
+            else
+                return result;
+        }
+    }
+
+    //primary := number ["x" ["^" integer]] | "x" ["^" integer] | "(" expression ")"
+    private Expression primary() throws ParseException{
+        skipSpaces();
+        if (atEnd())
+            throw new ParseException("Unexpected end of expression.");
+
+        if (accept('(')){
+            Expression inner = expression();
+            if (!accept(')'))
+                throw atEnd() ? new ParseException("Missing closing parenthesis.") : unexpected();
+            return inner;
+        }
+
+        long coefficient = 1;
+        boolean number = isDigit(text.charAt(position));
+        if (number)
+            coefficient = number();
+        skipSpaces();
+        if (!atEnd() && text.charAt(position) == 'x'){
+            position++;
+            int exponent = 1;
+            if (accept('^'))
+                exponent = exponent();
+            return node(Expression.Kind.MONOMIAL, null, null, coefficient, exponent);
+        }
+        if (number)
+            return node(Expression.Kind.MONOMIAL, null, null, coefficient, 0);
+        throw unexpected();
+    }
+
+    private long number() throws ParseException{
+        int start = position;
+        long value = 0;
+        while (position < text.length() && isDigit(text.charAt(position))){
+            int digit = text.charAt(position++) - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10)
+                throw new ParseException("Number too big at position " + (start + 1) + ".");
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    //the integer after a "^"
+    private int exponent() throws ParseException{
+        skipSpaces();
+        if (atEnd() || !isDigit(text.charAt(position)))
+            throw new ParseException("Exponent must be a non-negative integer, at position " + (position + 1) + ".");
+        int start = position;
+        long value = number();
+        if (value > Integer.MAX_VALUE)
+            throw new ParseException("Exponent too big at position " + (start + 1) + ".");
+        return (int) value;
+    }
+
+    //can the next token start an operand, for multiplication without a sign
+    private boolean startsOperand(){
+        skipSpaces();
+        if (atEnd())
+            return false;
+        char c = text.charAt(position);
+        return isDigit(c) || c == '(' || c == Expression.INTEGRAL_SIGN || c == 'x'
+                || text.startsWith("d/dx", position);
+    }
+
+    //returns the interned node equal to the given one, creating it if there is none yet
+    private Expression node(Expression.Kind kind, Expression left, Expression right, long value, int exponent){
+        if (Expression.isCommutative(kind) && left.getId() > right.getId()){
+            Expression swap = left;
+            left = right;
+            right = swap;
+        }
+        Expression candidate = new Expression(kind, left, right, value, exponent, nodes.size());
+        Expression existing = nodes.putIfAbsent(candidate, candidate);
+        return existing != null ? existing : candidate;
+    }
+
+    //skips spaces, then consumes "c" if it comes next
+    private boolean accept(char c){
+        skipSpaces();
+        if (!atEnd() && text.charAt(position) == c){
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean accept(String token){
+        skipSpaces();
+        if (text.startsWith(token, position)){
+            position += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpaces(){
+        while (position < text.length() && Character.isWhitespace(text.charAt(position)))
+            position++;
+    }
+
+    private boolean atEnd(){
+        skipSpaces();
+        return position >= text.length();
+    }
+
+    private ParseException unexpected(){
+        return new ParseException("Unexpected '" + text.charAt(position) + "' at position " + (position + 1) + ".");
+    }
+
+    private static boolean isDigit(char c){
+        return c >= '0' && c <= '9';
+    }
+
+    public static class ParseException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        ParseException(String msg){
+            super(msg);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/** Fast division of dense coefficient arrays, using Newton iteration
+ *   - works on the dense form of Polynomials (coefficient of x^i is on position i, see Polynomial.toDense)
+ *   - idea: reversing the coefficients turns division into multiplication with a power series inverse
+ *      - rev(quotient) = rev(dividend) * (1 / rev(divisor))  mod x^(n-m+1)
+ *      - the inverse is found with Newton iteration: g = g * (2 - f*g), doubling the correct terms each step
+ *   - the power series inverse usually has huge coefficients, so everything is done modulo the NTT primes
+ *     (see NumberTheoreticTransform), and the quotient and remainder are put back together at the end
+ *      - if both of them fit in an int, they are exact: a - q*b - r is 0 modulo P1*P2*P3, and too small to be anything else
+ *   - only used if the divisor's leading coefficient is 1 or -1, since then integer long division never truncates
+ *   - returns null whenever it can not give an exact result, and the caller falls back to long division
+ *   - gives a result only where long division (Operations) surely would not overflow, so the outcome does not depend
+ *     on which of them is used: every product of a quotient and a divisor coefficient must fit in an int, and so
+ *     must every coefficient of the remainder on the way (bounded by |dividend| + |quotient| * |divisor|, with the
+ *     biggest absolute value of one operand and the sum of absolute values of the other); when that can not be
+ *     shown, long division is left to do the operation, and to report the overflow if there is one
+ */
+
+package model;
+
+public class FastDivision {
+    //both the quotient and the divisor need to be at least this long for Newton iteration to be worth it (it first
+    //beats long division at degree 8192 over 4096, see DivisionThresholds in benchmarks/thresholds.txt)
+    private static volatile int newtonThreshold = 4096;
+
+    public static int getNewtonThreshold() {
+        return newtonThreshold;
+    }
+
+    public static void setNewtonThreshold(int newtonThreshold) {
+        if (newtonThreshold < 1)
+            throw new IllegalArgumentException("Newton threshold must be at least 1.");
+        FastDivision.newtonThreshold = newtonThreshold;
+    }
+
+    /** Divides "dividend" by "divisor" (dense arrays, last element of divisor non-zero)
+     *   - returns null if Newton iteration can not (or should not) be used, or if any coefficient
+     *     of the result does not fit in an int
+     */
+    public static DivisionResult divide(long[] dividend, long[] divisor){
+        int n = dividend.length - 1;
+        int m = divisor.length - 1;
+        int quotientLength = n - m + 1;
+
+        if (quotientLength < newtonThreshold || m + 1 < newtonThreshold)
+            return null;
+        if (Math.abs(divisor[m]) != 1)
+            return null;
+        if (2L * (n + 1) > NumberTheoreticTransform.MAX_LENGTH)
+            return null;
+
+        long[] primes = NumberTheoreticTransform.PRIMES;
+        long[][] quotients = new long[primes.length][];
+        long[][] remainders = new long[primes.length][];
+        for (int p = 0; p < primes.length; p++){
+            quotients[p] = quotientModulo(dividend, divisor, quotientLength, primes[p]);
+            remainders[p] = remainderModulo(dividend, divisor, quotients[p], primes[p]);
+        }
+
+        long[] quotient = reconstruct(quotients, quotientLength);
+        long[] remainder = reconstruct(remainders, m);
+        if (quotient == null || remainder == null || !fitsLongDivision(dividend, divisor, quotient))
+            return null;
+        return new DivisionResult(Polynomial.fromDense(quotient), Polynomial.fromDense(remainder));
+    }
+
+    //checks that none of the overflow checks of long division can fail for this quotient (see the class comment)
+    private static boolean fitsLongDivision(long[] dividend, long[] divisor, long[] quotient){
+        long maxQuotient = maxAbsolute(quotient);
+        long maxDivisor = maxAbsolute(divisor);
+        if (maxQuotient * maxDivisor > Integer.MAX_VALUE)
+            return false;
+        //both products are below length * Integer.MAX_VALUE after the check above, so they fit in a long
+        long changes = Math.min(maxQuotient * sumAbsolute(divisor), maxDivisor * sumAbsolute(quotient));
+        return maxAbsolute(dividend) + changes <= Integer.MAX_VALUE;
+    }
+
+    private static long maxAbsolute(long[] array){
+        long max = 0;
+        for (long value : array)
+            max = Math.max(max, Math.abs(value));
+        return max;
+    }
+
+    //coefficients fit in an int, and there are less than 2^31 of them, so the sum fits in a long
+    private static long sumAbsolute(long[] array){
+        long sum = 0;
+        for (long value : array)
+            sum += Math.abs(value);
+        return sum;
+    }
+
+    //returns the quotient of the division, modulo "prime"
+    private static long[] quotientModulo(long[] dividend, long[] divisor, int quotientLength, long prime){
+        long[] inverse = inverse(reverse(divisor, quotientLength), quotientLength, prime);
+        long[] reversedQuotient = truncate(NumberTheoreticTransform.multiplyModulo(
+                reverse(dividend, quotientLength), inverse, prime), quotientLength);
+        return reverse(reversedQuotient, quotientLength);
+    }
+
+    //returns dividend - quotient*divisor (only its part below the divisor's degree), modulo "prime"
+    private static long[] remainderModulo(long[] dividend, long[] divisor, long[] quotient, long prime){
+        int m = divisor.length - 1;
+        long[] product = NumberTheoreticTransform.multiplyModulo(quotient, divisor, prime);
+        long[] remainder = new long[m];
+        for (int i = 0; i < m; i++)
+            remainder[i] = Math.floorMod(dividend[i] - product[i], prime);
+        return remainder;
+    }
+
+    //returns g, for which f*g = 1 mod (x^length, prime), where f[0] is 1 or -1
+    private static long[] inverse(long[] f, int length, long prime){
+        long[] g = {Math.floorMod(f[0], prime)};      //1 and -1 are their own inverses
+        int current = 1;
+
+        while (current < length){
+            Operations.checkCancelled();
+            int next = Math.min(2 * current, length);
+
+            //error = 2 - f*g, then g = g * error
+            long[] error = truncate(NumberTheoreticTransform.multiplyModulo(truncate(f, next), g, prime), next);
+            for (int i = 0; i < next; i++)
+                error[i] = error[i] == 0 ? 0 : prime - error[i];
+            error[0] = (error[0] + 2) % prime;
+
+            g = truncate(NumberTheoreticTransform.multiplyModulo(g, error, prime), next);
+            current = next;
+        }
+        return g;
+    }
+
+    //puts the residues back together, returns null if any of the values is not exact or does not fit in an int
+    private static long[] reconstruct(long[][] residues, int length){
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++){
+            long value = NumberTheoreticTransform.reconstruct(residues[0][i], residues[1][i], residues[2][i]);
+            if (!NumberTheoreticTransform.isExact(value, residues[2][i]))
+                return null;
+            if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE)
+                return null;
+            result[i] = value;
+        }
+        return result;
+    }
+
+    //returns the first "length" coefficients of "array", padded with zeros if needed
+    private static long[] truncate(long[] array, int length){
+        long[] result = new long[length];
+        System.arraycopy(array, 0, result, 0, Math.min(length, array.length));
+        return result;
+    }
+
+    //returns the first "length" coefficients of the reversed array (x^deg * a(1/x))
+    private static long[] reverse(long[] array, int length){
+        long[] result = new long[length];
+        for (int i = 0; i < length && i < array.length; i++)
+            result[i] = array[array.length - 1 - i];
+        return result;
+    }
+}
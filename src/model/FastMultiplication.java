@@ -0,0 +1,229 @@
+/** Sub-quadratic multiplication of dense coefficient arrays
+ *   - works on the dense form of Polynomials (coefficient of x^i is on position i, see Polynomial.toDense)
+ *   - Karatsuba splits both operands in two halves and needs 3 (instead of 4) half-sized products
+ *   - Toom-3 splits both operands in three parts and needs 5 (instead of 9) third-sized products
+ *   - for very long operands the exact NTT is used (see NumberTheoreticTransform)
+ *   - below the thresholds the classic schoolbook loop is used, since it is faster for small operands
+ *   - the thresholds are the crossovers of the MultiplicationThresholds benchmark, recorded in benchmarks/thresholds.txt
+ *   - the algorithms never overflow a long, as long as the caller respects the "bound" described at multiply
+ */
+
+package model;
+
+public class FastMultiplication {
+    //the biggest magnitude allowed for any intermediate value, leaving room for a few additions
+    private static final double LIMIT = 0x1p61;
+
+    //operands shorter than this are multiplied with the schoolbook loop (one Karatsuba step first wins at 768)
+    private static volatile int karatsubaThreshold = 768;
+
+    //operands at least this long are multiplied with Toom-3 (if the coefficients are small enough); one Toom-3 step
+    //never beat Karatsuba up to 32768, where the NTT has taken over, so it is only used if set lower
+    private static volatile int toomThreshold = Integer.MAX_VALUE;
+
+    //operands at least this long are multiplied with the NTT (if the coefficients are small enough), which first wins
+    //at 16384
+    private static volatile int nttThreshold = 16384;
+
+    public static int getKaratsubaThreshold() {
+        return karatsubaThreshold;
+    }
+
+    public static void setKaratsubaThreshold(int karatsubaThreshold) {
+        if (karatsubaThreshold < 2)
+            throw new IllegalArgumentException("Karatsuba threshold must be at least 2.");
+        FastMultiplication.karatsubaThreshold = karatsubaThreshold;
+    }
+
+    public static int getToomThreshold() {
+        return toomThreshold;
+    }
+
+    public static void setToomThreshold(int toomThreshold) {
+        if (toomThreshold < 3)
+            throw new IllegalArgumentException("Toom-3 threshold must be at least 3.");
+        FastMultiplication.toomThreshold = toomThreshold;
+    }
+
+    public static int getNttThreshold() {
+        return nttThreshold;
+    }
+
+    public static void setNttThreshold(int nttThreshold) {
+        if (nttThreshold < 1)
+            throw new IllegalArgumentException("NTT threshold must be at least 1.");
+        FastMultiplication.nttThreshold = nttThreshold;
+    }
+
+    /** Checks if the fast algorithms can be used on two dense arrays without overflowing a long
+     *   - every coefficient of every intermediate product is at most sum(|a|) * sum(|b|)
+     *   - Karatsuba only adds a small factor on top of that, Toom-3 checks for itself at every level
+     */
+    public static boolean isSafe(long[] a, long[] b){
+        return bound(a, b) * 4 < LIMIT;
+    }
+
+    /** Returns the product of the two dense arrays, as a dense array of length a.length + b.length - 1
+     *   - the algorithm is selected based on the length of the operands, and on the thresholds
+     *   - caller must check isSafe first, otherwise the result may silently wrap around
+     */
+    public static long[] multiply(long[] a, long[] b){
+        if (Math.min(a.length, b.length) >= nttThreshold && NumberTheoreticTransform.canMultiply(a, b))
+            return NumberTheoreticTransform.multiply(a, b);
+        return multiply(a, b, bound(a, b));
+    }
+
+    //the schoolbook loop, also used as the base case of the recursion
+    public static long[] schoolbook(long[] a, long[] b){
+        if (a.length == 0 || b.length == 0)
+            return new long[0];
+
+        Operations.checkCancelled();
+        long[] result = new long[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++){
+            if (a[i] == 0)
+                continue;
+            for (int j = 0; j < b.length; j++)
+                result[i + j] += a[i] * b[j];
+        }
+        return result;
+    }
+
+    //"bound" is an upper limit of sum(|a|) * sum(|b|), it grows when Toom-3 evaluates its operands at -2
+    private static long[] multiply(long[] a, long[] b, double bound){
+        if (a.length == 0 || b.length == 0)
+            return new long[0];
+
+        int shorter = Math.min(a.length, b.length);
+        int longer = Math.max(a.length, b.length);
+
+        if (shorter < karatsubaThreshold)
+            return schoolbook(a, b);
+
+        //the splitting algorithms work best on operands of similar length, so cut the longer one in pieces
+        if (2 * shorter <= longer)
+            return unbalanced(a.length >= b.length ? a : b, a.length >= b.length ? b : a, bound);
+
+        if (longer >= toomThreshold && bound * 16 * 8 < LIMIT)
+            return toom3(a, b, bound);
+        return karatsuba(a, b, bound);
+    }
+
+    //multiplies each piece of "longer" (of the same length as "shorter") with "shorter", and adds them up
+    private static long[] unbalanced(long[] longer, long[] shorter, double bound){
+        long[] result = new long[longer.length + shorter.length - 1];
+        for (int offset = 0; offset < longer.length; offset += shorter.length){
+            long[] piece = slice(longer, offset, shorter.length);
+            addShifted(result, multiply(piece, shorter, bound), offset);
+        }
+        return result;
+    }
+
+    /** Karatsuba
+     *   - a = a0 + a1*x^k, b = b0 + b1*x^k
+     *   - a*b = z0 + z1*x^k + z2*x^2k, where z0 = a0*b0, z2 = a1*b1, z1 = (a0+a1)*(b0+b1) - z0 - z2
+     */
+    private static long[] karatsuba(long[] a, long[] b, double bound){
+        int k = (Math.max(a.length, b.length) + 1) / 2;
+
+        long[] a0 = slice(a, 0, k);
+        long[] a1 = slice(a, k, k);
+        long[] b0 = slice(b, 0, k);
+        long[] b1 = slice(b, k, k);
+
+        long[] z0 = multiply(a0, b0, bound);
+        long[] z2 = multiply(a1, b1, bound);
+        long[] z1 = multiply(sum(a0, a1, 1), sum(b0, b1, 1), bound);
+        for (int i = 0; i < z1.length; i++)
+            z1[i] -= z0[i] + z2[i];
+
+        long[] result = new long[a.length + b.length - 1];
+        addShifted(result, z0, 0);
+        addShifted(result, z1, k);
+        addShifted(result, z2, 2 * k);
+        return result;
+    }
+
+    /** Toom-3
+     *   - a = a0 + a1*x^k + a2*x^2k, and the same for b
+     *   - a and b are evaluated in the points 0, 1, -1, -2 and infinity, and the 5 values are multiplied
+     *   - the 5 coefficients of the product are interpolated back, using Bodrato's sequence (divisions are exact)
+     */
+    private static long[] toom3(long[] a, long[] b, double bound){
+        int k = (Math.max(a.length, b.length) + 2) / 3;
+
+        long[] a0 = slice(a, 0, k);
+        long[] a1 = slice(a, k, k);
+        long[] a2 = slice(a, 2 * k, k);
+        long[] b0 = slice(b, 0, k);
+        long[] b1 = slice(b, k, k);
+        long[] b2 = slice(b, 2 * k, k);
+
+        //evaluation in -2 multiplies the operands by at most 4 each
+        double childBound = bound * 16;
+
+        long[] aEven = sum(a0, a2, 1);
+        long[] bEven = sum(b0, b2, 1);
+
+        long[] rZero = multiply(a0, b0, childBound);
+        long[] rOne = multiply(sum(aEven, a1, 1), sum(bEven, b1, 1), childBound);
+        long[] rMinusOne = multiply(sum(aEven, a1, -1), sum(bEven, b1, -1), childBound);
+        long[] rMinusTwo = multiply(sum(sum(a0, a1, -2), a2, 4), sum(sum(b0, b1, -2), b2, 4), childBound);
+        long[] rInfinity = multiply(a2, b2, childBound);
+
+        int length = 2 * k - 1;
+        long[] r1 = new long[length];
+        long[] r2 = new long[length];
+        long[] r3 = new long[length];
+        for (int i = 0; i < length; i++){
+            r3[i] = (rMinusTwo[i] - rOne[i]) / 3;
+            r1[i] = (rOne[i] - rMinusOne[i]) / 2;
+            r2[i] = rMinusOne[i] - rZero[i];
+            r3[i] = (r2[i] - r3[i]) / 2 + 2 * rInfinity[i];
+            r2[i] = r2[i] + r1[i] - rInfinity[i];
+            r1[i] = r1[i] - r3[i];
+        }
+
+        long[] result = new long[a.length + b.length - 1];
+        addShifted(result, rZero, 0);
+        addShifted(result, r1, k);
+        addShifted(result, r2, 2 * k);
+        addShifted(result, r3, 3 * k);
+        addShifted(result, rInfinity, 4 * k);
+        return result;
+    }
+
+    //returns "length" elements of "array" starting from "from", padded with zeros if the array is shorter
+    private static long[] slice(long[] array, int from, int length){
+        long[] result = new long[length];
+        if (from < array.length)
+            System.arraycopy(array, from, result, 0, Math.min(length, array.length - from));
+        return result;
+    }
+
+    //returns a + factor * b, for arrays of the same length
+    private static long[] sum(long[] a, long[] b, long factor){
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            result[i] = a[i] + factor * b[i];
+        return result;
+    }
+
+    //adds "part" to "result", starting from position "shift"; the part falling out of result is always zero
+    private static void addShifted(long[] result, long[] part, int shift){
+        int end = Math.min(part.length, result.length - shift);
+        for (int i = 0; i < end; i++)
+            result[i + shift] += part[i];
+    }
+
+    //upper limit of sum(|a|) * sum(|b|), as a double, so it can not overflow
+    private static double bound(long[] a, long[] b){
+        double sumA = 0;
+        double sumB = 0;
+        for (long coefficient : a)
+            sumA += Math.abs((double) coefficient);
+        for (long coefficient : b)
+            sumB += Math.abs((double) coefficient);
+        return sumA * sumB;
+    }
+}
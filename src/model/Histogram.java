@@ -0,0 +1,75 @@
+/** Distribution of non-negative long values (latencies in nanoseconds, term counts), for RecordingMetrics
+ *   - log-linear buckets like HdrHistogram: values below 128 are counted exactly, bigger ones in buckets of
+ *     64 per power of two, so every value is known with less than 1/64 (1.6%) relative error
+ *   - fixed size (3712 counters) whatever the range of the values, and recording is a single atomic increment,
+ *     so threads can record concurrently without locking
+ */
+
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int HALF_BUCKET = 1 << SUB_BUCKET_BITS;            //64 buckets per power of two
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * HALF_BUCKET;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    //negative values are recorded as 0
+    public void record(long value){
+        value = Math.max(value, 0);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount(){
+        return count.sum();
+    }
+
+    public long getMax(){
+        return max.get();
+    }
+
+    public double getMean(){
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /** Returns the value below which "percentile" percent of the recorded values are
+     *   - the highest value of the bucket is returned, so the result is never lower than the exact one
+     *   - 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile){
+        long n = count.sum();
+        if (n == 0)
+            return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++){
+            seen += counts.get(i);
+            if (seen >= target)
+                return Math.min(highestValue(i), getMax());
+        }
+        return getMax();
+    }
+
+    //bucket b >= 1 holds the values [2^(b+6), 2^(b+7)), in 64 slices of width 2^b; bucket 0 holds 0..127 exactly
+    private static int index(long value){
+        int bucket = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return bucket * HALF_BUCKET + (int) (value >>> bucket);
+    }
+
+    private static long highestValue(int index){
+        int bucket = Math.max(0, index / HALF_BUCKET - 1);
+        long slice = index - (long) bucket * HALF_BUCKET;
+        return ((slice + 1) << bucket) - 1;
+    }
+}
@@ -0,0 +1,252 @@
+/** Immutable polynomial, for chains of operations where most of the terms stay the same
+ *   - stored as a linked list of terms (in decreasing order of exponents), each node being the first term and the
+ *     rest of the polynomial, so polynomials can share their tails
+ *      - addition and subtraction only create nodes for the terms before the end of the shorter operand, the
+ *        untouched rest of the longer operand becomes the tail of the result as it is
+ *   - every node is hash-consed: equal nodes are always the same object (see intern), so
+ *      - equal polynomials can be compared by reference (equals just compares the first node and the tail's reference)
+ *      - a monomial (a single node) which appears in many polynomials is stored only once
+ *   - the intern table is a ConcurrentHashMap of weak references, so
+ *      - threads interning nodes at the same time do not wait for one lock
+ *      - interned nodes which are not used anymore are freed by the garbage collector; the references left behind
+ *        are removed from the table the next time something is interned
+ *   - overflows are reported with the same messages as the methods of Operations
+ */
+
+package model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class ImmutablePolynomial {
+    //all the nodes in use, each one mapped to itself, so the node already interned can be found from an equal one
+    private static final ConcurrentHashMap<Interned, Interned> INTERNED = new ConcurrentHashMap<>();
+
+    //references of the nodes freed by the garbage collector, to be removed from INTERNED
+    private static final ReferenceQueue<ImmutablePolynomial> FREED = new ReferenceQueue<>();
+
+    //the polynomial without terms
+    public static final ImmutablePolynomial ZERO = new ImmutablePolynomial(0, 0, null);
+
+    private final int coefficient;
+    private final int exponent;
+    private final ImmutablePolynomial tail;    //null only for ZERO
+    private final int size;
+    private final int hash;
+
+    private ImmutablePolynomial(int coefficient, int exponent, ImmutablePolynomial tail){
+        this.coefficient = coefficient;
+        this.exponent = exponent;
+        this.tail = tail;
+        this.size = tail == null ? 0 : tail.size + 1;
+        this.hash = tail == null ? 0 : 31 * (31 * tail.hash + exponent) + coefficient;
+    }
+
+    /** Weak reference to an interned node, the key (and the value) of INTERNED
+     *   - two references are equal if their nodes are equal; a freed reference is only equal to itself, so it can
+     *     still be removed, while it can not be mistaken for a live node anymore
+     */
+    private static final class Interned extends WeakReference<ImmutablePolynomial> {
+        private final int hash;
+
+        Interned(ImmutablePolynomial node){
+            super(node, FREED);
+            this.hash = node.hash;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if (this == o)
+                return true;
+            if (!(o instanceof Interned))
+                return false;
+            ImmutablePolynomial node = get();
+            return node != null && node.equals(((Interned) o).get());
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+    }
+
+    //returns the (only) node with this first term and this tail; the tail must only have smaller exponents
+    private static ImmutablePolynomial intern(int coefficient, int exponent, ImmutablePolynomial tail){
+        for (Reference<? extends ImmutablePolynomial> freed = FREED.poll(); freed != null; freed = FREED.poll())
+            INTERNED.remove(freed);
+
+        ImmutablePolynomial node = new ImmutablePolynomial(coefficient, exponent, tail);
+        Interned reference = new Interned(node);
+        while (true){
+            Interned existing = INTERNED.putIfAbsent(reference, reference);
+            if (existing == null)
+                return node;
+            ImmutablePolynomial interned = existing.get();
+            if (interned != null)
+                return interned;
+            INTERNED.remove(existing, existing);    //freed since it was found, try again
+        }
+    }
+
+    /** Builds the immutable form of a Polynomial (terms in decreasing order of exponents), starting from its last term
+     *   - the coefficients must fit in an int, like the ones of every parsed input
+     */
+    public static ImmutablePolynomial of(Polynomial polynomial){
+        ImmutablePolynomial result = ZERO;
+        for (int i = polynomial.size() - 1; i >= 0; i--)
+            result = intern(Math.toIntExact(polynomial.getCoefficient(i)), polynomial.getExponent(i), result);
+        return result;
+    }
+
+    //returns the mutable form, for the methods of Operations
+    public Polynomial toPolynomial(){
+        Polynomial result = new Polynomial(size);
+        for (ImmutablePolynomial node = this; node != ZERO; node = node.tail)
+            result.add(node.coefficient, node.exponent);
+        return result;
+    }
+
+    /** Polynomial addition, same as Operations.addition
+     *   - the terms are merged until one operand ends, what is left of the other one is reused as it is
+     */
+    public ImmutablePolynomial add(ImmutablePolynomial other) throws Operations.OverflowException{
+        int[] coefficients = new int[size + other.size];
+        int[] exponents = new int[size + other.size];
+        int count = 0;
+
+        ImmutablePolynomial one = this;
+        ImmutablePolynomial two = other;
+        while (one != ZERO && two != ZERO){
+            if (one.exponent == two.exponent){
+                Operations.overflowCheckForAddition(one.coefficient, two.coefficient);
+                coefficients[count] = one.coefficient + two.coefficient;
+                exponents[count] = one.exponent;
+                if (coefficients[count] != 0)
+                    count++;
+                one = one.tail;
+                two = two.tail;
+            }
+            else if (one.exponent > two.exponent){
+                coefficients[count] = one.coefficient;
+                exponents[count++] = one.exponent;
+                one = one.tail;
+            }
+            else{
+                coefficients[count] = two.coefficient;
+                exponents[count++] = two.exponent;
+                two = two.tail;
+            }
+        }
+
+        return prepend(coefficients, exponents, count, one == ZERO ? two : one);
+    }
+
+    /** Polynomial subtraction, same as Operations.subtraction
+     *   - the tail of this polynomial is reused if "other" ends first; the terms of "other" always need new nodes
+     */
+    public ImmutablePolynomial subtract(ImmutablePolynomial other) throws Operations.OverflowException{
+        //Operations flips "other" first, so this overflow is found before any other
+        for (ImmutablePolynomial node = other; node != ZERO; node = node.tail)
+            if (node.coefficient == Integer.MIN_VALUE)
+                throw new Operations.OverflowException("Subtraction negative overflow.");
+
+        int[] coefficients = new int[size + other.size];
+        int[] exponents = new int[size + other.size];
+        int count = 0;
+
+        ImmutablePolynomial one = this;
+        ImmutablePolynomial two = other;
+        while (two != ZERO){
+            if (one != ZERO && one.exponent == two.exponent){
+                long difference = (long) one.coefficient - two.coefficient;
+                if (difference > Integer.MAX_VALUE)
+                    throw new Operations.OverflowException("Subtraction positive overflow");
+                if (difference < Integer.MIN_VALUE)
+                    throw new Operations.OverflowException("Subtraction negative overflow.");
+                coefficients[count] = (int) difference;
+                exponents[count] = one.exponent;
+                if (difference != 0)
+                    count++;
+                one = one.tail;
+                two = two.tail;
+            }
+            else if (one != ZERO && one.exponent > two.exponent){
+                coefficients[count] = one.coefficient;
+                exponents[count++] = one.exponent;
+                one = one.tail;
+            }
+            else{
+                coefficients[count] = -two.coefficient;
+                exponents[count++] = two.exponent;
+                two = two.tail;
+            }
+        }
+
+        return prepend(coefficients, exponents, count, one);
+    }
+
+    //Polynomial multiplication, done by Operations.multiplication (the product shares nothing with the operands)
+    public ImmutablePolynomial multiply(ImmutablePolynomial other) throws Operations.OverflowException{
+        return of(Operations.multiplication(toPolynomial(), other.toPolynomial()));
+    }
+
+    //Polynomial differentiation, done by Operations.differentiation
+    public ImmutablePolynomial differentiate() throws Operations.OverflowException{
+        return of(Operations.differentiation(toPolynomial()));
+    }
+
+    //puts the first "count" terms in front of "tail", starting from the last one
+    private static ImmutablePolynomial prepend(int[] coefficients, int[] exponents, int count, ImmutablePolynomial tail){
+        ImmutablePolynomial result = tail;
+        for (int i = count - 1; i >= 0; i--)
+            result = intern(coefficients[i], exponents[i], result);
+        return result;
+    }
+
+    //prints the polynomial the same way Polynomial.niceForm does
+    public String niceForm(){
+        return Rendering.render(size * 8, output -> {
+            if (this == ZERO)
+                output.append('0');
+            for (ImmutablePolynomial node = this; node != ZERO; node = node.tail){
+                if (node != this && node.coefficient > 0)
+                    output.append('+');
+                Monomial.appendNiceForm(output, node.coefficient, node.exponent);
+            }
+        });
+    }
+
+    //return number of terms
+    public int size(){
+        return size;
+    }
+
+    //the first (biggest) term, Monomial(0,0) for ZERO like in Polynomial
+    public Monomial biggestMonomial(){
+        return new Monomial(coefficient, exponent);
+    }
+
+    //the polynomial without its first term, ZERO for ZERO
+    public ImmutablePolynomial tail(){
+        return tail == null ? ZERO : tail;
+    }
+
+    //the tails are interned already, so comparing them by reference is enough (used when interning)
+    @Override
+    public boolean equals(Object o){
+        if (this == o)
+            return true;
+        if (!(o instanceof ImmutablePolynomial))
+            return false;
+        ImmutablePolynomial other = (ImmutablePolynomial) o;
+        return hash == other.hash && coefficient == other.coefficient && exponent == other.exponent &&
+                tail == other.tail;
+    }
+
+    @Override
+    public int hashCode(){
+        return hash;
+    }
+}
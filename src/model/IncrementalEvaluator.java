@@ -0,0 +1,96 @@
+/** Evaluation of an input which is being edited, for showing a live preview while the user types
+ *   - remembers how far the previous text was parsed, so after an edit only the changed end is parsed again
+ *      - typing at the end (the usual case) parses just the new characters
+ *      - deleting at the end goes back to the start of the last unchanged chunk (checkpoints are kept at every chunk)
+ *   - gives the same results and messages as InputEvaluator.evaluationRoutine would for the whole text
+ *   - not thread safe, every instance must be used by one thread at a time
+ */
+
+package model;
+
+import java.util.ArrayList;
+
+public class IncrementalEvaluator {
+    private final StringBuilder text = new StringBuilder();     //what has been parsed so far
+    private final Polynomial polynomial = new Polynomial();     //terms of the chunks finished so far
+    private final Message scratch = new Message();              //the live scanner never finishes, so it never reports
+    private PolynomialScanner scanner = new PolynomialScanner(polynomial, scratch);
+
+    //state of the scanner right before each chunk, for going back after a deletion
+    private final ArrayList<Checkpoint> checkpoints = new ArrayList<>();
+
+    private static class Checkpoint {
+        final int position;                 //length of the text before the chunk
+        final int terms;                    //number of terms of the Polynomial at that point
+        final PolynomialScanner scanner;
+
+        Checkpoint(int position, int terms, PolynomialScanner scanner){
+            this.position = position;
+            this.terms = terms;
+            this.scanner = scanner;
+        }
+    }
+
+    //updates the state to the new text of the input, parsing only what changed
+    public void update(String newText){
+        int common = 0;
+        int limit = Math.min(text.length(), newText.length());
+        while (common < limit && text.charAt(common) == newText.charAt(common))
+            common++;
+
+        if (common < text.length())
+            rewind(common);
+        for (int i = text.length(); i < newText.length(); i++)
+            feed(newText.charAt(i));
+    }
+
+    /** Evaluates the current text, like InputEvaluator.evaluationRoutine would
+     *   - the result is added to "result", which should be an empty Polynomial
+     *   - the state is not changed, so editing can go on afterwards
+     */
+    public boolean evaluate(Polynomial result, Message message) throws NumberFormatException{
+        for (int i = 0; i < polynomial.size(); i++)
+            result.add(polynomial.getCoefficient(i), polynomial.getExponent(i));
+        return scanner.copy(result, message).finish();
+    }
+
+    //the text evaluated at the moment
+    public String getText(){
+        return text.toString();
+    }
+
+    private void feed(char c){
+        if (text.length() > 0 && (c == '+' || c == '-'))    //a new chunk starts
+            checkpoints.add(new Checkpoint(text.length(), polynomial.size(), scanner.copy(polynomial, scratch)));
+        scanner.accept(c);
+        text.append(c);
+    }
+
+    //goes back to the state right after the first "length" characters
+    private void rewind(int length){
+        Checkpoint checkpoint = null;
+        while (!checkpoints.isEmpty()){
+            checkpoint = checkpoints.remove(checkpoints.size() - 1);
+            if (checkpoint.position <= length)
+                break;
+            checkpoint = null;
+        }
+
+        int from = 0;
+        if (checkpoint == null){
+            polynomial.truncate(0);
+            scanner = new PolynomialScanner(polynomial, scratch);
+        }
+        else{
+            from = checkpoint.position;
+            polynomial.truncate(checkpoint.terms);
+            scanner = checkpoint.scanner.copy(polynomial, scratch);
+        }
+
+        //parse again the unchanged part of the last chunk (this also puts back the removed checkpoint)
+        String kept = text.substring(from, length);
+        text.setLength(from);
+        for (int i = 0; i < kept.length(); i++)
+            feed(kept.charAt(i));
+    }
+}
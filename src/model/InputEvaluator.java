@@ -1,13 +1,22 @@
 /** Class which contains all the (static) methods needed for working with user input
  *   - verification : is input valid?
  *   - evaluation : extract the necessary data, get Polynomial from String
+ *      - or from a Reader, a channel, a (memory-mapped) buffer or a file, without building a String first
  */
 
 package model;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class InputEvaluator {
+    private static final int BUFFER_SIZE = 1 << 16;
 
     /** Evaluates the input string before it is converted into a Polynomial
      *   - delivers the cause of error through "message" (in case of invalid input)
@@ -23,7 +32,6 @@ public class InputEvaluator {
 
         //check if contains anything except characters needed to describe a polynomial, using regex
         if (!inputString.matches("^[0-9x^+-]*$")){
-            System.out.println("Illegal character in input.");
             message.setText("Illegal character in input.");
             return false;
         }
@@ -32,7 +40,6 @@ public class InputEvaluator {
         final String[] prohibitedSubstrings = {"++", "--", "+-", "-+", "^^", "xx" , "^x" , "^0", "^1+","^1-","-^","+^","+0","-0"};
         for (String i : prohibitedSubstrings){
             if (inputString.contains(i)){
-                System.out.println("Prohibited substring in input.");
                 message.setText("Prohibited substring in input.");
                 return false;
             }
@@ -99,14 +106,12 @@ public class InputEvaluator {
      *   - returns false if evaluation failed, true if evaluation passed
      */
     public static boolean postEvaluate(Polynomial polynomial, Message message){
-        ArrayList<Monomial> monomials = polynomial.getMonomials();
-
         boolean first = true;       //for first Monomial we do not have previous Monomial => nothing to check
         int previousExponent = -1;
         int currentExponent;
 
-        for (Monomial m : monomials){
-            currentExponent = m.getExponent();
+        for (int i = 0; i < polynomial.size(); i++){
+            currentExponent = polynomial.getExponent(i);
             if (!first){
                 if (currentExponent > previousExponent){
                     message.setText("Invalid order of monomials: " + currentExponent + " > " + previousExponent + ".");
@@ -126,26 +131,86 @@ public class InputEvaluator {
 
     /** Method to tie together the previous three methods, in order to use them easily
      *   - it does all the needed evaluation, and also returns the resulted Polynomial through parameter "polynomial"
-     *   - may throw a NumberFormatException due to evaluateInput
+     *   - does the same as preEvaluate, evaluateInput and postEvaluate (and gives the same messages), but in a
+     *     single pass over the characters, without regular expressions and without creating any substring
+     *     (see PolynomialScanner)
+     *   - may throw a NumberFormatException just like evaluateInput would
      *      - this will be handled when used
      *   - returns false if evaluation failed, true if evaluation passed
      */
     public static boolean evaluationRoutine(String string, Polynomial polynomial, Message message) throws NumberFormatException{
+        PolynomialScanner scanner = new PolynomialScanner(polynomial, message);
+        int length = string.length();
+        for (int i = 0; i < length; i++)
+            if (!scanner.accept(string.charAt(i)))
+                break;
+        return scanner.finish();
+    }
 
-        //pre-evaluate
-        if (!preEvaluate(string,message))
-            return false;
+    /** Same as evaluationRoutine(String,...), but reads the input from a Reader, one buffer at a time
+     *   - terms are added to "polynomial" while reading, the whole text is never held in memory
+     *   - input ends at the end of the stream or at the first line break (the rest is not read)
+     *   - IOExceptions of the reader are passed on to the caller
+     */
+    public static boolean evaluationRoutine(Reader reader, Polynomial polynomial, Message message) throws IOException, NumberFormatException{
+        PolynomialScanner scanner = new PolynomialScanner(polynomial, message);
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+
+        reading:
+        while ((read = reader.read(buffer)) != -1){
+            for (int i = 0; i < read; i++){
+                char c = buffer[i];
+                if (c == '\n' || c == '\r' || !scanner.accept(c))
+                    break reading;
+            }
+        }
+        return scanner.finish();
+    }
 
-        //evaluate
-        try{
-            evaluateInput(string,polynomial);
+    /** Same as evaluationRoutine(Reader,...), but reads raw bytes from a channel (socket, pipe, file...)
+     *   - every legal character is ASCII, so bytes are used as characters directly, without decoding
+     */
+    public static boolean evaluationRoutine(ReadableByteChannel channel, Polynomial polynomial, Message message) throws IOException, NumberFormatException{
+        PolynomialScanner scanner = new PolynomialScanner(polynomial, message);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        reading:
+        while (channel.read(buffer) != -1){
+            buffer.flip();
+            while (buffer.hasRemaining()){
+                char c = (char) (buffer.get() & 0xff);
+                if (c == '\n' || c == '\r' || !scanner.accept(c))
+                    break reading;
+            }
+            buffer.clear();
         }
-        catch (NumberFormatException nfe){
-            message.setText("Bad input: overflow / not polynomial");
-            throw new NumberFormatException();
+        return scanner.finish();
+    }
+
+    /** Same as evaluationRoutine(Reader,...), but reads the remaining bytes of a buffer (for example a MappedByteBuffer)
+     *   - the position of the buffer is not changed
+     */
+    public static boolean evaluationRoutine(ByteBuffer buffer, Polynomial polynomial, Message message) throws NumberFormatException{
+        PolynomialScanner scanner = new PolynomialScanner(polynomial, message);
+        int limit = buffer.limit();
+        for (int i = buffer.position(); i < limit; i++){
+            char c = (char) (buffer.get(i) & 0xff);
+            if (c == '\n' || c == '\r' || !scanner.accept(c))
+                break;
         }
+        return scanner.finish();
+    }
 
-        //post-evaluate
-        return postEvaluate(polynomial,message);
+    /** Reads a polynomial from a file, by mapping it into memory
+     *   - the file is not copied into the heap, the operating system pages it in while it is parsed
+     */
+    public static boolean evaluationRoutine(Path path, Polynomial polynomial, Message message) throws IOException, NumberFormatException{
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            if (channel.size() > Integer.MAX_VALUE)     //a single mapping can not be bigger, read it as a stream instead
+                return evaluationRoutine((ReadableByteChannel) channel, polynomial, message);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return evaluationRoutine(buffer, polynomial, message);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,304 @@
+/** Polynomial given by a pipeline of operations which is only worked out when needed, e.g.
+ *   LazyPolynomial.of(p).subtract(LazyPolynomial.of(q)).add(LazyPolynomial.of(r)).differentiate().materialize()
+ *   - every operation only builds a node; materialize (or appendNiceForm) then goes through the whole pipeline
+ *     once, pulling the terms one by one, in decreasing order of exponents, through a chain of cursors
+ *      - no intermediate Polynomial is built, the extra memory is one cursor per node, whatever the sizes
+ *      - add and subtract merge their operands like Operations.addition, the other operations map terms one by one
+ *   - overflow is checked term by term the same way the Operations methods check it, with the same messages, so
+ *     the result is the same as doing the operations one after the other (if several terms overflow, the one
+ *     reported may differ, since the steps are not done one after the other)
+ *   - the Polynomials given to "of" are read when the pipeline is materialized, they should not change before
+ *   - immutable, a pipeline can be materialized any number of times, or be part of other pipelines
+ */
+
+package model;
+
+import java.io.IOException;
+
+public abstract class LazyPolynomial {
+
+    private LazyPolynomial(){
+    }
+
+    //a new chain of cursors over the terms of this pipeline
+    abstract Cursor cursor();
+
+    /** Position in the terms of a pipeline
+     *   - next moves to the next non-zero term (exponent, coefficient), or returns false after the last one
+     */
+    abstract static class Cursor {
+        int exponent;
+        long coefficient;
+
+        abstract boolean next() throws Operations.OverflowException;
+    }
+
+    public static LazyPolynomial of(Polynomial polynomial){
+        return new Source(polynomial);
+    }
+
+    public LazyPolynomial add(LazyPolynomial other){
+        return new Sum(this, other, false);
+    }
+
+    public LazyPolynomial subtract(LazyPolynomial other){
+        return new Sum(this, other, true);
+    }
+
+    //checked like subtracting from 0
+    public LazyPolynomial negate(){
+        return new Negation(this);
+    }
+
+    //multiplication by a constant, checked like Operations.multiplication by a constant polynomial
+    public LazyPolynomial scale(int factor){
+        return new Scaling(this, factor);
+    }
+
+    public LazyPolynomial differentiate(){
+        return new Derivative(this);
+    }
+
+    //multiplication by x^places, checked like Operations.multiplication by x^places
+    public LazyPolynomial shift(int places){
+        if (places < 0)
+            throw new IllegalArgumentException("Shift must not be negative.");
+        return new Shift(this, places);
+    }
+
+    //works out the pipeline into a new Polynomial
+    public Polynomial materialize() throws Operations.OverflowException{
+        Polynomial result = new Polynomial();
+        Cursor cursor = cursor();
+        for (int count = 0; cursor.next(); count++){
+            if ((count & 0xFFF) == 0)
+                Operations.checkCancelled();
+            result.add(cursor.coefficient, cursor.exponent);
+        }
+        return result;
+    }
+
+    //works out the pipeline into text, in the form of Polynomial.niceForm, without building the Polynomial
+    public void appendNiceForm(Appendable out) throws Operations.OverflowException, IOException{
+        Cursor cursor = cursor();
+        boolean first = true;
+        for (int count = 0; cursor.next(); count++){
+            if ((count & 0xFFF) == 0)
+                Operations.checkCancelled();
+            if (!first && cursor.coefficient > 0)
+                out.append('+');
+            Monomial.appendNiceForm(out, cursor.coefficient, cursor.exponent);
+            first = false;
+        }
+        if (first)
+            out.append('0');
+    }
+
+    public String niceForm() throws Operations.OverflowException{
+        return Rendering.render(16, out -> appendNiceForm(out));
+    }
+
+    private static class Source extends LazyPolynomial {
+        private final Polynomial polynomial;
+
+        Source(Polynomial polynomial){
+            this.polynomial = polynomial;
+        }
+
+        @Override
+        Cursor cursor(){
+            return new Cursor() {
+                private int index;
+
+                @Override
+                boolean next(){
+                    if (index == polynomial.size())
+                        return false;
+                    exponent = polynomial.getExponent(index);
+                    coefficient = polynomial.getCoefficient(index);
+                    index++;
+                    return true;
+                }
+            };
+        }
+    }
+
+    //merge of two operands, like Operations.addition; terms which cancel out are skipped
+    private static class Sum extends LazyPolynomial {
+        private final LazyPolynomial first;
+        private final LazyPolynomial second;
+        private final boolean subtract;
+
+        Sum(LazyPolynomial first, LazyPolynomial second, boolean subtract){
+            this.first = first;
+            this.second = second;
+            this.subtract = subtract;
+        }
+
+        @Override
+        Cursor cursor(){
+            Cursor one = first.cursor();
+            Cursor two = second.cursor();
+            return new Cursor() {
+                private boolean started;
+                private boolean hasOne;
+                private boolean hasTwo;
+
+                @Override
+                boolean next() throws Operations.OverflowException{
+                    if (!started){
+                        hasOne = one.next();
+                        hasTwo = two.next();
+                        started = true;
+                    }
+                    while (hasOne || hasTwo){
+                        if (hasOne && (!hasTwo || one.exponent > two.exponent)){
+                            exponent = one.exponent;
+                            coefficient = one.coefficient;
+                            hasOne = one.next();
+                            return true;
+                        }
+                        if (!hasOne || two.exponent > one.exponent){
+                            if (subtract)
+                                Operations.overflowCheckForSubtraction(0, two.coefficient);
+                            exponent = two.exponent;
+                            coefficient = subtract ? -two.coefficient : two.coefficient;
+                            hasTwo = two.next();
+                            return true;
+                        }
+
+                        //same exponent
+                        long sum;
+                        if (subtract){
+                            Operations.overflowCheckForSubtraction(one.coefficient, two.coefficient);
+                            sum = one.coefficient - two.coefficient;
+                        }
+                        else{
+                            Operations.overflowCheckForAddition((int) one.coefficient, (int) two.coefficient);
+                            sum = one.coefficient + two.coefficient;
+                        }
+                        exponent = one.exponent;
+                        hasOne = one.next();
+                        hasTwo = two.next();
+                        if (sum != 0){
+                            coefficient = sum;
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static class Negation extends LazyPolynomial {
+        private final LazyPolynomial operand;
+
+        Negation(LazyPolynomial operand){
+            this.operand = operand;
+        }
+
+        @Override
+        Cursor cursor(){
+            Cursor source = operand.cursor();
+            return new Cursor() {
+                @Override
+                boolean next() throws Operations.OverflowException{
+                    if (!source.next())
+                        return false;
+                    Operations.overflowCheckForSubtraction(0, source.coefficient);
+                    exponent = source.exponent;
+                    coefficient = -source.coefficient;
+                    return true;
+                }
+            };
+        }
+    }
+
+    private static class Scaling extends LazyPolynomial {
+        private final LazyPolynomial operand;
+        private final int factor;
+
+        Scaling(LazyPolynomial operand, int factor){
+            this.operand = operand;
+            this.factor = factor;
+        }
+
+        @Override
+        Cursor cursor(){
+            Cursor source = operand.cursor();
+            return new Cursor() {
+                @Override
+                boolean next() throws Operations.OverflowException{
+                    if (factor == 0){
+                        //the result is 0, but the operand is still worked out, since it may overflow
+                        while (source.next())
+                            Operations.checkCancelled();
+                        return false;
+                    }
+                    if (!source.next())
+                        return false;
+                    Operations.overflowCheckForAMultiplication((int) source.coefficient, factor);
+                    exponent = source.exponent;
+                    coefficient = source.coefficient * factor;
+                    return true;
+                }
+            };
+        }
+    }
+
+    //like Operations.differentiation, constants disappear
+    private static class Derivative extends LazyPolynomial {
+        private final LazyPolynomial operand;
+
+        Derivative(LazyPolynomial operand){
+            this.operand = operand;
+        }
+
+        @Override
+        Cursor cursor(){
+            Cursor source = operand.cursor();
+            return new Cursor() {
+                @Override
+                boolean next() throws Operations.OverflowException{
+                    //the constant is skipped, but still pulled, so the operand is worked out to its end
+                    while (source.next()){
+                        if (source.exponent == 0)
+                            continue;
+                        Operations.overflowCheckForAMultiplication((int) source.coefficient, source.exponent);
+                        exponent = source.exponent - 1;
+                        coefficient = source.coefficient * source.exponent;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static class Shift extends LazyPolynomial {
+        private final LazyPolynomial operand;
+        private final int places;
+
+        Shift(LazyPolynomial operand, int places){
+            this.operand = operand;
+            this.places = places;
+        }
+
+        @Override
+        Cursor cursor(){
+            Cursor source = operand.cursor();
+            return new Cursor() {
+                @Override
+                boolean next() throws Operations.OverflowException{
+                    if (!source.next())
+                        return false;
+                    Operations.overflowCheckForAddition(source.exponent, places);
+                    exponent = source.exponent + places;
+                    coefficient = source.coefficient;
+                    return true;
+                }
+            };
+        }
+    }
+}
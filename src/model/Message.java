@@ -8,6 +8,7 @@ public class Message {
 
     private String text;
     private MessageType messageType;
+    private int errorSource;    //which input caused the error (1 or 2), 0 if the operation itself failed
 
     public String getText() {
         return text;
@@ -24,4 +25,12 @@ public class Message {
     public void setMessageType(MessageType messageType) {
         this.messageType = messageType;
     }
-}
\ No newline at end of file
+
+    public int getErrorSource() {
+        return errorSource;
+    }
+
+    public void setErrorSource(int errorSource) {
+        this.errorSource = errorSource;
+    }
+}
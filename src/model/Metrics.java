@@ -0,0 +1,42 @@
+/** Receiver of measurements about the calculations (see RecordingMetrics), installed with Metrics.set
+ *   - every method does nothing by default, and NO_OP (the default) overrides none of them, so instrumented code
+ *     costs a volatile read and an empty call the JIT removes; callers skip timing altogether when NO_OP is installed
+ *   - implementations are called from any thread (batch mode runs operations in parallel), so they must be thread safe
+ *   - replaces the console printing model classes used to do for tracing
+ */
+
+package model;
+
+public interface Metrics {
+    Metrics NO_OP = new Metrics() {};
+
+    //one operation was done (successfully or not), "terms" is the number of terms of its operands
+    default void operationCompleted(String operation, long nanos, int terms) {}
+
+    //an operation failed because some value did not fit (an OverflowException)
+    default void overflow(String operation) {}
+
+    //an input could not be turned into a polynomial, "reason" is the message shown to the user
+    default void parseFailed(String reason) {}
+
+    //adds "delta" to a named counter, for details of the algorithms (e.g. the steps of a division)
+    default void count(String counter, long delta) {}
+
+    //the installed Metrics, NO_OP if none
+    static Metrics get(){
+        return Installed.metrics;
+    }
+
+    //installs "metrics" for every thread, null goes back to NO_OP
+    static void set(Metrics metrics){
+        Installed.metrics = metrics == null ? NO_OP : metrics;
+    }
+
+    //holder of the installed Metrics, since an interface can not have a mutable field
+    final class Installed {
+        private static volatile Metrics metrics = NO_OP;
+
+        private Installed(){
+        }
+    }
+}
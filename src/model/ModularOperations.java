@@ -0,0 +1,482 @@
+/** Operations on polynomials with coefficients modulo a prime p (in Z/pZ)
+ *   - one object per modulus; it is immutable, so it can be shared between threads
+ *   - works on dense coefficient arrays (coefficient of x^i is on position i, see Polynomial.toDense), every
+ *     coefficient being in [0,p)
+ *   - products are reduced with Montgomery multiplication (R = 2^64), which needs no division:
+ *      - a number a is kept as a*R mod p ("Montgomery form"), then mul(a*R, b) = a*b mod p, using only
+ *        multiplications, shifts and one conditional subtraction
+ *      - only one of the operands of a multiplication has to be converted, so the result is in normal form
+ *   - since p is a prime, division is always exact (using the inverse of the divisor's leading coefficient),
+ *     and nothing ever overflows: there are no checks and no exceptions on the hot paths
+ *   - also evaluates polynomials, in many points at once with a subproduct tree (see evaluate)
+ *   - p must be odd and smaller than 2^62, so sums of two coefficients fit in a long
+ */
+
+package model;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ModularOperations {
+    //the biggest modulus supported, see the class comment
+    public static final long MAX_MODULUS = (1L << 62) - 1;
+
+    //dense arrays are used, so the degree of the operands is limited
+    public static final int MAX_DEGREE = 1 << 24;
+
+    //at least this many points (and coefficients) are evaluated with the subproduct tree, fewer with Horner's method;
+    //without the NTT (big moduli) multiplication is much slower, so the tree only pays off for a lot more points
+    private static final int SUBPRODUCT_THRESHOLD = 2048;
+    private static final int SUBPRODUCT_THRESHOLD_BIG_MODULUS = 1 << 17;
+
+    //remainders with a quotient and divisor at least this long are found with Newton iteration
+    private static final int NEWTON_THRESHOLD = 64;
+
+    //for moduli below this, every coefficient of a product (at most n*p^2) is smaller than the product of the three
+    //NTT primes, so long operands can be multiplied exactly with the NTT and reduced afterwards
+    private static final long NTT_MODULUS_LIMIT = 1L << 31;
+    private static final int NTT_THRESHOLD = 256;
+
+    private final long modulus;
+    private final long negativeInverse;    //-p^(-1) mod 2^64, for the Montgomery reduction
+    private final long rSquared;           //R^2 mod p, for converting to Montgomery form
+
+    public ModularOperations(long modulus){
+        if (modulus < 3 || modulus > MAX_MODULUS || !BigInteger.valueOf(modulus).isProbablePrime(64))
+            throw new IllegalArgumentException("Modulus must be an odd prime smaller than 2^62.");
+        this.modulus = modulus;
+
+        //Newton iteration for the inverse modulo 2^64, every step doubles the number of correct bits (p*p = 1 mod 8)
+        long inverse = modulus;
+        for (int i = 0; i < 5; i++)
+            inverse *= 2 - modulus * inverse;
+        this.negativeInverse = -inverse;
+
+        this.rSquared = BigInteger.ONE.shiftLeft(128).mod(BigInteger.valueOf(modulus)).longValue();
+    }
+
+    public long getModulus() {
+        return modulus;
+    }
+
+    //returns the dense form of a Polynomial, with every coefficient reduced into [0,p)
+    public long[] reduce(Polynomial polynomial){
+        if (polynomial.biggestExponent() > MAX_DEGREE)
+            throw new ArithmeticException("Degree too big for modular arithmetic.");
+        long[] dense = polynomial.toDense();
+        for (int i = 0; i < dense.length; i++)
+            dense[i] = Math.floorMod(dense[i], modulus);
+        return trim(dense);
+    }
+
+    //returns a + b
+    public long[] addition(long[] a, long[] b){
+        long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++)
+            result[i] = add(result[i], b[i]);
+        return trim(result);
+    }
+
+    //returns a - b
+    public long[] subtraction(long[] a, long[] b){
+        long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++)
+            result[i] = subtract(result[i], b[i]);
+        return trim(result);
+    }
+
+    /** Returns a * b
+     *   - a is converted to Montgomery form once, then Karatsuba (or the schoolbook loop, for short operands) is used;
+     *     Karatsuba only adds and subtracts the converted values, which keeps them in Montgomery form
+     */
+    public long[] multiplication(long[] a, long[] b){
+        if (a.length == 0 || b.length == 0)
+            return new long[0];
+        if (modulus < NTT_MODULUS_LIMIT && Math.min(a.length, b.length) >= NTT_THRESHOLD &&
+                a.length + b.length - 1 <= NumberTheoreticTransform.MAX_LENGTH)
+            return trim(nttMultiply(a, b));
+        long[] aMontgomery = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            aMontgomery[i] = toMontgomery(a[i]);
+        return trim(multiply(aMontgomery, b));
+    }
+
+    /** Returns {quotient, remainder} of a / b, where a = quotient * b + remainder, deg(remainder) < deg(b)
+     *   - the leading coefficient of b is inverted once, so every step of the long division is exact
+     *   - throws an ArithmeticException if b is zero
+     */
+    public long[][] division(long[] a, long[] b){
+        b = trim(b);
+        if (b.length == 0)
+            throw new ArithmeticException(Operations.DIVISION_BY_ZERO);
+        a = trim(a);
+        if (a.length < b.length)
+            return new long[][]{new long[0], a};
+
+        int m = b.length - 1;
+        long[] bMontgomery = new long[b.length];
+        for (int i = 0; i < b.length; i++)
+            bMontgomery[i] = toMontgomery(b[i]);
+        long leadingInverse = toMontgomery(inverse(b[m]));
+
+        long[] remainder = a.clone();
+        long[] quotient = new long[a.length - m];
+        for (int i = a.length - 1; i >= m; i--){
+            if ((i & 0xFFF) == 0)
+                Operations.checkCancelled();
+            long q = multiply(leadingInverse, remainder[i]);
+            quotient[i - m] = q;
+            if (q == 0)
+                continue;
+            for (int k = 0; k <= m; k++)
+                remainder[i - m + k] = subtract(remainder[i - m + k], multiply(bMontgomery[k], q));
+        }
+        return new long[][]{trim(quotient), trim(Arrays.copyOf(remainder, m))};
+    }
+
+    //returns a(x), with Horner's method
+    public long evaluate(long[] a, long x){
+        long xMontgomery = toMontgomery(Math.floorMod(x, modulus));
+        long result = 0;
+        for (int i = a.length - 1; i >= 0; i--)
+            result = add(multiply(xMontgomery, result), a[i]);
+        return result;
+    }
+
+    /** Returns a(x) for every x in "points"
+     *   - for many points a subproduct tree is used, in O(M(n) log(n)) instead of the O(n^2) of Horner's method
+     *      - the tree holds the products of (x - x_i) over groups of points: leaves are single points, every node
+     *        is the product of its two children
+     *      - going down, a is replaced by its remainder modulo each node, so at a leaf it is a(x_i)
+     *   - remainders are found with Newton iteration, so each level costs about as much as a multiplication
+     */
+    public long[] evaluate(long[] a, long[] points){
+        long[] values = new long[points.length];
+        int threshold = modulus < NTT_MODULUS_LIMIT ? SUBPRODUCT_THRESHOLD : SUBPRODUCT_THRESHOLD_BIG_MODULUS;
+        if (points.length < threshold || a.length < threshold){
+            horner(a, points, values);
+            return values;
+        }
+        subproductTree(a, points, values);
+        return values;
+    }
+
+    //evaluate with the subproduct tree, whatever the number of points (used directly by the tests)
+    void subproductTree(long[] a, long[] points, long[] values){
+        //levels of the tree, level 0 being the leaves; a node without a pair is carried up unchanged
+        List<long[][]> tree = new ArrayList<>();
+        long[][] level = new long[points.length][];
+        for (int i = 0; i < points.length; i++)
+            level[i] = new long[]{subtract(0, Math.floorMod(points[i], modulus)), 1};
+        tree.add(level);
+        while (level.length > 1){
+            Operations.checkCancelled();
+            long[][] next = new long[(level.length + 1) / 2][];
+            for (int i = 0; i < next.length; i++)
+                next[i] = 2 * i + 1 < level.length ? multiplication(level[2 * i], level[2 * i + 1]) : level[2 * i];
+            tree.add(next);
+            level = next;
+        }
+
+        long[][] remainders = {remainder(trim(a), level[0])};
+        for (int depth = tree.size() - 2; depth >= 0; depth--){
+            Operations.checkCancelled();
+            long[][] nodes = tree.get(depth);
+            long[][] next = new long[nodes.length][];
+            for (int i = 0; i < nodes.length; i++)
+                next[i] = remainder(remainders[i / 2], nodes[i]);
+            remainders = next;
+        }
+        for (int i = 0; i < points.length; i++)
+            values[i] = remainders[i].length == 0 ? 0 : remainders[i][0];
+    }
+
+    //Horner's method for several points at once: the steps for different points do not depend on each other,
+    //so the processor can work on four of them at the same time
+    private void horner(long[] a, long[] points, long[] values){
+        int i = 0;
+        for (; i + 4 <= points.length; i += 4){
+            Operations.checkCancelled();
+            long x0 = toMontgomery(Math.floorMod(points[i], modulus));
+            long x1 = toMontgomery(Math.floorMod(points[i + 1], modulus));
+            long x2 = toMontgomery(Math.floorMod(points[i + 2], modulus));
+            long x3 = toMontgomery(Math.floorMod(points[i + 3], modulus));
+            long v0 = 0, v1 = 0, v2 = 0, v3 = 0;
+            for (int k = a.length - 1; k >= 0; k--){
+                long coefficient = a[k];
+                v0 = add(multiply(x0, v0), coefficient);
+                v1 = add(multiply(x1, v1), coefficient);
+                v2 = add(multiply(x2, v2), coefficient);
+                v3 = add(multiply(x3, v3), coefficient);
+            }
+            values[i] = v0;
+            values[i + 1] = v1;
+            values[i + 2] = v2;
+            values[i + 3] = v3;
+        }
+        for (; i < points.length; i++)
+            values[i] = evaluate(a, points[i]);
+    }
+
+    /** Returns a mod b, for b with a non-zero leading coefficient
+     *   - long quotients are found with Newton iteration, like FastDivision does over the integers:
+     *     rev(quotient) = rev(a) * (1 / rev(b))  mod x^(n-m+1)
+     */
+    private long[] remainder(long[] a, long[] b){
+        int n = a.length - 1;
+        int m = b.length - 1;
+        if (n < m)
+            return a;
+        int quotientLength = n - m + 1;
+        if (quotientLength < NEWTON_THRESHOLD || m < NEWTON_THRESHOLD)
+            return division(a, b)[1];
+
+        long[] inverse = seriesInverse(reverse(b, quotientLength), quotientLength);
+        long[] reversedQuotient = Arrays.copyOf(multiplication(reverse(a, quotientLength), inverse), quotientLength);
+        long[] quotient = reverse(reversedQuotient, quotientLength);
+        long[] product = multiplication(quotient, b);
+
+        long[] result = new long[m];
+        for (int i = 0; i < m; i++)
+            result[i] = subtract(a[i], i < product.length ? product[i] : 0);
+        return trim(result);
+    }
+
+    //returns g, for which f*g = 1 mod x^length, where f[0] is not zero; every step doubles the correct terms
+    private long[] seriesInverse(long[] f, int length){
+        long[] g = {inverse(f[0])};
+        int current = 1;
+        while (current < length){
+            int next = Math.min(2 * current, length);
+
+            //g = g * (2 - f*g)
+            long[] error = Arrays.copyOf(multiplication(Arrays.copyOf(f, next), g), next);
+            for (int i = 0; i < next; i++)
+                error[i] = subtract(0, error[i]);
+            error[0] = add(error[0], 2);
+            g = Arrays.copyOf(multiplication(g, error), next);
+            current = next;
+        }
+        return g;
+    }
+
+    //returns the first "length" coefficients of the reversed array (x^deg * a(1/x)), padded with zeros if needed
+    private static long[] reverse(long[] array, int length){
+        long[] result = new long[length];
+        for (int i = 0; i < length && i < array.length; i++)
+            result[i] = array[array.length - 1 - i];
+        return result;
+    }
+
+    //returns the monic greatest common divisor of a and b (Euclid's algorithm), empty if both are zero
+    public long[] greatestCommonDivisor(long[] a, long[] b){
+        a = trim(a);
+        b = trim(b);
+        while (b.length > 0){
+            long[] remainder = division(a, b)[1];
+            a = b;
+            b = remainder;
+        }
+        if (a.length == 0)
+            return a;
+
+        long leadingInverse = toMontgomery(inverse(a[a.length - 1]));
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            result[i] = multiply(leadingInverse, a[i]);
+        return result;
+    }
+
+    /** Returns a^exponent, by squaring and multiplying (binary exponentiation)
+     *   - the degree of the result must not exceed MAX_DEGREE
+     */
+    public long[] power(long[] a, int exponent){
+        if (exponent < 0)
+            throw new ArithmeticException("The exponent must be a non-negative number.");
+        if (exponent == 0)
+            return new long[]{1};
+        if (a.length == 0)
+            return a;
+        if ((long) (a.length - 1) * exponent > MAX_DEGREE)
+            throw new ArithmeticException("Degree too big for modular arithmetic.");
+
+        long[] base = a;
+        long[] result = null;
+        while (true){
+            if ((exponent & 1) == 1)
+                result = result == null ? base : multiplication(result, base);
+            exponent >>>= 1;
+            if (exponent == 0)
+                return result == a ? Arrays.copyOf(a, a.length) : result;
+            base = multiplication(base, base);
+        }
+    }
+
+    //returns the derivative: the coefficient of x^(i-1) is i * a[i]
+    public long[] differentiation(long[] a){
+        if (a.length <= 1)
+            return new long[0];
+        long[] result = new long[a.length - 1];
+        for (int i = 1; i < a.length; i++)
+            result[i - 1] = multiply(toMontgomery(i % modulus), a[i]);
+        return trim(result);
+    }
+
+    /** Returns the integral (without the constant): the coefficient of x^(i+1) is a[i] / (i+1)
+     *   - throws an ArithmeticException if some a[i] is not zero while i+1 is a multiple of p, since then i+1 has no
+     *     inverse (zero terms there are fine, whatever the length of a)
+     */
+    public long[] integration(long[] a){
+        if (a.length == 0)
+            return new long[0];
+        long[] result = new long[a.length + 1];
+        for (int i = 0; i < a.length; i++){
+            if (a[i] == 0)
+                continue;
+            if ((i + 1) % modulus == 0)
+                throw new ArithmeticException("Integration needs the inverse of a multiple of the modulus.");
+            result[i + 1] = multiply(toMontgomery(inverse(i + 1)), a[i]);
+        }
+        return trim(result);
+    }
+
+    //returns the multiplicative inverse of a (non-zero) value, a^(p-2) by Fermat's little theorem
+    public long inverse(long value){
+        if (value % modulus == 0)
+            throw new ArithmeticException("Zero has no inverse.");
+        long base = toMontgomery(Math.floorMod(value, modulus));
+        long result = toMontgomery(1);
+        for (long exponent = modulus - 2; exponent > 0; exponent >>= 1){
+            //mul(x*R, y*R) = x*y*R, so the values stay in Montgomery form
+            if ((exponent & 1) == 1)
+                result = multiply(result, base);
+            base = multiply(base, base);
+        }
+        return multiply(result, 1);     //back to normal form: mul(x*R, 1) = x
+    }
+
+    //prints the polynomial in the same form as Polynomial.niceForm, coefficients being in [0,p)
+    public String niceForm(long[] dense){
+        return Rendering.render(16, output -> {
+            boolean first = true;
+            for (int i = dense.length - 1; i >= 0; i--){
+                if (dense[i] == 0)
+                    continue;
+                if (!first)
+                    output.append('+');
+                Monomial.appendNiceForm(output, dense[i], i);
+                first = false;
+            }
+            if (first)
+                output.append('0');
+        });
+    }
+
+    //the product modulo each NTT prime, put together with the Chinese Remainder Theorem and reduced modulo p
+    private long[] nttMultiply(long[] a, long[] b){
+        long[] primes = NumberTheoreticTransform.PRIMES;
+        long[] r1 = NumberTheoreticTransform.multiplyModulo(a, b, primes[0]);
+        long[] r2 = NumberTheoreticTransform.multiplyModulo(a, b, primes[1]);
+        long[] r3 = NumberTheoreticTransform.multiplyModulo(a, b, primes[2]);
+        long[] result = new long[r1.length];
+        for (int i = 0; i < result.length; i++)
+            result[i] = NumberTheoreticTransform.reconstructModulo(r1[i], r2[i], r3[i], modulus);
+        return result;
+    }
+
+    //a is in Montgomery form, b in normal form
+    private long[] multiply(long[] a, long[] b){
+        int shorter = Math.min(a.length, b.length);
+        if (shorter < FastMultiplication.getKaratsubaThreshold() || 2 * shorter <= Math.max(a.length, b.length))
+            return schoolbook(a, b);
+
+        //Karatsuba, see FastMultiplication.karatsuba
+        int k = (Math.max(a.length, b.length) + 1) / 2;
+        long[] a0 = slice(a, 0, k);
+        long[] a1 = slice(a, k, k);
+        long[] b0 = slice(b, 0, k);
+        long[] b1 = slice(b, k, k);
+
+        long[] z0 = multiply(a0, b0);
+        long[] z2 = multiply(a1, b1);
+        long[] z1 = multiply(sum(a0, a1), sum(b0, b1));
+        for (int i = 0; i < z1.length; i++)
+            z1[i] = subtract(z1[i], add(z0[i], z2[i]));
+
+        long[] result = new long[a.length + b.length - 1];
+        addShifted(result, z0, 0);
+        addShifted(result, z1, k);
+        addShifted(result, z2, 2 * k);
+        return result;
+    }
+
+    private long[] schoolbook(long[] a, long[] b){
+        Operations.checkCancelled();
+        long[] result = new long[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++){
+            if (a[i] == 0)
+                continue;
+            for (int j = 0; j < b.length; j++)
+                result[i + j] = add(result[i + j], multiply(a[i], b[j]));
+        }
+        return result;
+    }
+
+    private static long[] slice(long[] array, int from, int length){
+        long[] result = new long[length];
+        if (from < array.length)
+            System.arraycopy(array, from, result, 0, Math.min(length, array.length - from));
+        return result;
+    }
+
+    private long[] sum(long[] a, long[] b){
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            result[i] = add(a[i], b[i]);
+        return result;
+    }
+
+    private void addShifted(long[] result, long[] part, int shift){
+        int end = Math.min(part.length, result.length - shift);
+        for (int i = 0; i < end; i++)
+            result[i + shift] = add(result[i + shift], part[i]);
+    }
+
+    private long add(long a, long b){
+        long sum = a + b;
+        return sum >= modulus ? sum - modulus : sum;
+    }
+
+    private long subtract(long a, long b){
+        long difference = a - b;
+        return difference < 0 ? difference + modulus : difference;
+    }
+
+    private long toMontgomery(long value){
+        return multiply(value, rSquared);
+    }
+
+    /** Montgomery multiplication: returns a * b / R mod p, for a and b in [0,p)
+     *   - t = a*b is 128 bits long (high, low); m = low * (-1/p) makes t + m*p divisible by R = 2^64
+     *   - (t + m*p) / R is smaller than 2p, so one subtraction brings it into [0,p)
+     */
+    private long multiply(long a, long b){
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        long m = low * negativeInverse;
+        //unsigned high half of m*p (m may be "negative" as a signed long), low + (m*p mod 2^64) carries iff low != 0
+        long mpHigh = Math.multiplyHigh(m, modulus) + ((m >> 63) & modulus);
+        long result = high + mpHigh + (low != 0 ? 1 : 0);
+        return result >= modulus ? result - modulus : result;
+    }
+
+    //drops the zero coefficients from the end, so the last element (if any) is the leading coefficient
+    private static long[] trim(long[] dense){
+        int length = dense.length;
+        while (length > 0 && dense[length - 1] == 0)
+            length--;
+        return length == dense.length ? dense : Arrays.copyOf(dense, length);
+    }
+}
@@ -5,6 +5,8 @@
 
 package model;
 
+import java.io.IOException;
+
 public class Monomial {
     //attributes are set as final, since they are never modified
     private final int coefficient;    //integer, containing sign as well
@@ -18,33 +20,69 @@ public class Monomial {
 
     //prints a monomial in the form [coefficient][x][^exponent]
     public String niceForm(){
+        return Rendering.render(16, out -> appendNiceForm(out, coefficient, exponent));
+    }
+
+    //writes the monomial in the form [coefficient][x][^exponent] into "out", without creating any String
+    public void appendNiceForm(Appendable out) throws IOException{
+        appendNiceForm(out, coefficient, exponent);
+    }
+
+    //same as appendNiceForm, for a term which is not a Monomial object (used by Polynomial and integration)
+    static void appendNiceForm(Appendable out, long coefficient, int exponent) throws IOException{
 
         //special cases - we get rid of them, if they occur, skip the rest of method
-        if (coefficient == 0)
-            return "0";
+        if (coefficient == 0){
+            out.append('0');
+            return;
+        }
 
         if (exponent == 0)
-            if (coefficient == 1)           //output is just "1", otherwise coefficient 1 is not shown
-                return "1";
-            else if (coefficient == -1)     //output is just "-1", otherwise coefficient -1 would be just "-"
-                return "-1";
+            if (coefficient == 1){          //output is just "1", otherwise coefficient 1 is not shown
+                out.append('1');
+                return;
+            }
+            else if (coefficient == -1){    //output is just "-1", otherwise coefficient -1 would be just "-"
+                out.append("-1");
+                return;
+            }
 
         //more general cases
-        String output = "";
 
         //for coefficient; note that coefficient 0 is considered bad input, hence it is not dealt with
-        if (this.coefficient == -1)
-            output = output.concat("-");
-        else if (this.coefficient != 1)
-            output = output.concat(Integer.toString(this.coefficient));
+        if (coefficient == -1)
+            out.append('-');
+        else if (coefficient != 1)
+            appendNumber(out, coefficient);
 
         //for exponent
-        if (this.exponent == 1)
-            output = output.concat("x");
-        else if (this.exponent != 0)
-            output = output.concat("x^" + this.exponent);
+        if (exponent == 1)
+            out.append('x');
+        else if (exponent != 0){
+            out.append("x^");
+            appendNumber(out, exponent);
+        }
+    }
 
-        return output;
+    //writes a number digit by digit, so no String is created for it
+    private static void appendNumber(Appendable out, long number) throws IOException{
+        if (out instanceof StringBuilder){
+            ((StringBuilder) out).append(number);
+            return;
+        }
+        if (number < 0)
+            out.append('-');
+        else
+            number = -number;       //work with negative numbers, so Long.MIN_VALUE is handled as well
+
+        long divisor = 1;
+        while (number / divisor <= -10)
+            divisor *= 10;
+        while (divisor > 0){
+            out.append((char) ('0' - number / divisor));
+            number %= divisor;
+            divisor /= 10;
+        }
     }
 
     //checks if monomial's value is 0
@@ -52,6 +90,22 @@ public class Monomial {
         return coefficient == 0;
     }
 
+    //two Monomials are equal if they have the same coefficient and exponent
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Monomial))
+            return false;
+        Monomial monomial = (Monomial) o;
+        return coefficient == monomial.coefficient && exponent == monomial.exponent;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * coefficient + exponent;
+    }
+
     //getters
     public int getExponent() {
         return exponent;
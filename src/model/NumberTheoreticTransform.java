@@ -0,0 +1,175 @@
+/** Exact multiplication of dense coefficient arrays with the Number Theoretic Transform (NTT)
+ *   - the NTT is the Fast Fourier Transform done modulo a prime, so there is no floating point and no rounding error
+ *   - the product is computed modulo three different primes, then put back together with the
+ *     Chinese Remainder Theorem (Garner's method), which gives the exact integer coefficients
+ *   - runs in O(n*log(n)), so it is used for very long operands (see FastMultiplication)
+ *   - canMultiply checks up front if the exact coefficients can be recovered, otherwise the NTT must not be used
+ */
+
+package model;
+
+import java.util.Arrays;
+
+public class NumberTheoreticTransform {
+    //primes of the form c*2^k+1, all of them having 3 as primitive root
+    private static final long P1 = 998244353;     //119*2^23+1
+    private static final long P2 = 469762049;     //7*2^26+1
+    private static final long P3 = 167772161;     //5*2^25+1
+    private static final long ROOT = 3;
+
+    //the primes, for algorithms which need to work modulo each of them (see FastDivision)
+    static final long[] PRIMES = {P1, P2, P3};
+
+    //the longest transform supported by all three primes
+    static final int MAX_LENGTH = 1 << 23;
+
+    //precomputed constants for Garner's method
+    private static final long P1_INVERSE_MOD_P2 = power(P1 % P2, P2 - 2, P2);
+    private static final long P1P2_INVERSE_MOD_P3 = power(P1 * P2 % P3, P3 - 2, P3);
+
+    /** Checks if the NTT gives the exact product of a and b
+     *   - every coefficient of the product is at most min(length) * max(|a|) * max(|b|)
+     *   - this must stay below P1*P2/2, so the sign can be recovered from the third prime
+     */
+    public static boolean canMultiply(long[] a, long[] b){
+        if (a.length == 0 || b.length == 0)
+            return false;
+        if (a.length + b.length - 1 > MAX_LENGTH)
+            return false;
+
+        double bound = (double) Math.min(a.length, b.length) * maxAbsolute(a) * maxAbsolute(b);
+        return bound < (double) P1 * P2 / 4;
+    }
+
+    //returns the product of the two dense arrays; canMultiply must be checked first
+    public static long[] multiply(long[] a, long[] b){
+        int resultLength = a.length + b.length - 1;
+
+        long[] r1 = multiplyModulo(a, b, P1);
+        long[] r2 = multiplyModulo(a, b, P2);
+        long[] r3 = multiplyModulo(a, b, P3);
+
+        long[] result = new long[resultLength];
+        for (int i = 0; i < resultLength; i++)
+            result[i] = reconstruct(r1[i], r2[i], r3[i]);
+        return result;
+    }
+
+    /** Garner's method - finds the x (|x| < P1*P2/4) for which x = r1 mod P1, x = r2 mod P2, x = r3 mod P3
+     *   - x + P1*P2*P3 (if negative) is written as v1 + v2*P1 + v3*P1*P2
+     *   - for small x, v3 is either 0 (x non-negative) or P3-1 (x negative)
+     */
+    static long reconstruct(long r1, long r2, long r3){
+        long v1 = r1;
+        long v2 = (r2 - v1 % P2 + P2) % P2 * P1_INVERSE_MOD_P2 % P2;
+        long partial = (v1 + v2 * P1) % P3;
+        long v3 = (r3 - partial + P3) % P3 * P1P2_INVERSE_MOD_P3 % P3;
+
+        long value = v1 + v2 * P1;
+        if (v3 != 0)
+            value -= P1 * P2;
+        return value;
+    }
+
+    /** Garner's method for any x in [0, P1*P2*P3), returning x mod "modulus" (for ModularOperations)
+     *   - x = v1 + v2*P1 + v3*P1*P2, each part is reduced modulo "modulus" (smaller than 2^31) before adding
+     */
+    static long reconstructModulo(long r1, long r2, long r3, long modulus){
+        long v1 = r1;
+        long v2 = (r2 - v1 % P2 + P2) % P2 * P1_INVERSE_MOD_P2 % P2;
+        long partial = (v1 + v2 * P1) % P3;
+        long v3 = (r3 - partial + P3) % P3 * P1P2_INVERSE_MOD_P3 % P3;
+
+        long p1p2 = P1 % modulus * (P2 % modulus) % modulus;
+        return ((v1 + v2 * P1) % modulus + v3 * p1p2) % modulus;
+    }
+
+    //checks if "value" (given by reconstruct) really is the number with these residues, and not just a small number
+    //which happens to agree with it modulo P1 and P2
+    static boolean isExact(long value, long r3){
+        return Math.floorMod(value, P3) == r3;
+    }
+
+    //multiplies the two arrays modulo "prime", the result has a.length + b.length - 1 elements in [0,prime)
+    static long[] multiplyModulo(long[] a, long[] b, long prime){
+        int resultLength = a.length + b.length - 1;
+        int length = Integer.highestOneBit(Math.max(resultLength - 1, 1)) << 1;
+
+        long[] fa = new long[length];
+        long[] fb = new long[length];
+        for (int i = 0; i < a.length; i++)
+            fa[i] = Math.floorMod(a[i], prime);
+        for (int i = 0; i < b.length; i++)
+            fb[i] = Math.floorMod(b[i], prime);
+
+        transform(fa, prime, false);
+        transform(fb, prime, false);
+        for (int i = 0; i < length; i++)
+            fa[i] = fa[i] * fb[i] % prime;
+        transform(fa, prime, true);
+        return fa.length == resultLength ? fa : Arrays.copyOf(fa, resultLength);
+    }
+
+    //in-place iterative NTT (Cooley-Tukey), the inverse transform also divides by the length
+    private static void transform(long[] values, long prime, boolean inverse){
+        int n = values.length;
+
+        //bit-reversal permutation
+        for (int i = 1, j = 0; i < n; i++){
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1)
+                j ^= bit;
+            j ^= bit;
+            if (i < j){
+                long aux = values[i];
+                values[i] = values[j];
+                values[j] = aux;
+            }
+        }
+
+        for (int half = 1; half < n; half <<= 1){
+            Operations.checkCancelled();
+            long root = power(ROOT, (prime - 1) / (2L * half), prime);
+            if (inverse)
+                root = power(root, prime - 2, prime);
+
+            for (int start = 0; start < n; start += 2 * half){
+                long w = 1;
+                for (int k = 0; k < half; k++){
+                    long u = values[start + k];
+                    long v = values[start + k + half] * w % prime;
+                    values[start + k] = u + v < prime ? u + v : u + v - prime;
+                    values[start + k + half] = u - v >= 0 ? u - v : u - v + prime;
+                    w = w * root % prime;
+                }
+            }
+        }
+
+        if (inverse){
+            long lengthInverse = power(n, prime - 2, prime);
+            for (int i = 0; i < n; i++)
+                values[i] = values[i] * lengthInverse % prime;
+        }
+    }
+
+    //returns base^exponent mod "modulus", with exponentiation by squaring
+    private static long power(long base, long exponent, long modulus){
+        long result = 1;
+        base %= modulus;
+        while (exponent > 0){
+            if ((exponent & 1) == 1)
+                result = result * base % modulus;
+            base = base * base % modulus;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    //returns the biggest absolute value in a dense coefficient array, as a double so it can not overflow
+    private static double maxAbsolute(long[] dense){
+        double max = 0;
+        for (long coefficient : dense)
+            max = Math.max(max, Math.abs((double) coefficient));
+        return max;
+    }
+}
@@ -5,9 +5,14 @@
 
 package model;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
 
 public class Operations {
+    //loops which do very little work per step only check for cancellation once every this many (+1) steps
+    private static final int CANCELLATION_CHECK_MASK = (1 << 12) - 1;
+    //the message of every division by zero, whatever the coefficients (int, exact, rational or modulo p)
+    static final String DIVISION_BY_ZERO = "/ by zero";
 
     /** Monomial addition - produces sum of two monomials
      *   - returns monomial equal to mOne + mTwo
@@ -30,9 +35,12 @@ public class Operations {
      *   - uses Monomial addition
      *   - follows an algorithm similar to merging two arrays
      *   - works, since Polynomials' Monomials are already ordered in decreasing order of their exponents
+     *   - works directly on the terms of the Polynomials, no intermediate Monomials are created
      */
     public static Polynomial addition(Polynomial pOne, Polynomial pTwo) throws OverflowException{
-        Polynomial result = new Polynomial();
+        int sizeOne = pOne.size();
+        int sizeTwo = pTwo.size();
+        Polynomial result = new Polynomial(sizeOne + sizeTwo);
 
         int n = 0;
         int m = 0;
@@ -40,33 +48,36 @@ public class Operations {
         int expTwo;
 
         //while end not reached
-        while (n < pOne.size() && m < pTwo.size()) {
+        while (n < sizeOne && m < sizeTwo) {
 
-            expOne = pOne.get(n).getExponent();
-            expTwo = pTwo.get(m).getExponent();
+            expOne = pOne.getExponent(n);
+            expTwo = pTwo.getExponent(m);
 
             if (expOne == expTwo){
-                result.add(monomialAddition(pOne.get(n),pTwo.get(m)));
+                //whenever there is a possibility for overflow, it is checked by methods and
+                //an OverflowException custom exception is thrown if needed
+                overflowCheckForAddition((int) pOne.getCoefficient(n), (int) pTwo.getCoefficient(m));
+                result.add(pOne.getCoefficient(n) + pTwo.getCoefficient(m), expOne);
                 n++;
                 m++;
             }
             else if (expOne > expTwo){
-                result.add(pOne.get(n));
+                result.add(pOne.getCoefficient(n), expOne);
                 n++;
             }
             else{
-                result.add(pTwo.get(m));
+                result.add(pTwo.getCoefficient(m), expTwo);
                 m++;
             }
         }
 
         //add what may be left over
-        while(n < pOne.size()){
-            result.add(pOne.get(n));
+        while(n < sizeOne){
+            result.add(pOne.getCoefficient(n), pOne.getExponent(n));
             n++;
         }
-        while(m < pTwo.size()){
-            result.add(pTwo.get(m));
+        while(m < sizeTwo){
+            result.add(pTwo.getCoefficient(m), pTwo.getExponent(m));
             m++;
         }
 
@@ -118,43 +129,126 @@ public class Operations {
     }
 
     /** Polynomial multiplication
-     *   - uses Monomial multiplication
      *   - returns Polynomial equal to pOne * pTwo
-     *   - after doing multiplication itself, simplification is done as well
-     *      - this is essential, since otherwise returned Polynomial would not be "valid"
+     *   - each product of two terms is checked for overflow, the same way Monomial multiplication does it
+     *   - if the product has few possible exponents compared with its number of term pairs (the same rule as the exact
+     *     and rational multiplications, see ProductHeap.isDenseEnough), products are accumulated in a dense
+     *     coefficient array (indexed by exponent)
+     *      - long dense operands are multiplied with Karatsuba or Toom-3 instead of the schoolbook loop
+     *   - otherwise, products are generated directly in decreasing order of exponents and merged (sparseMultiplication)
+     *      - the result is already simplified and ordered, as postEvaluate expects a "valid" Polynomial to be
      */
     public static Polynomial multiplication(Polynomial pOne, Polynomial pTwo)throws OverflowException{
-        Polynomial result = new Polynomial();
+        if (pOne.size() == 0 || pTwo.size() == 0)
+            return new Polynomial();
+
+        overflowCheckForAddition(pOne.biggestExponent(), pTwo.biggestExponent());
+
+        long pairs = (long) pOne.size() * pTwo.size();
+        long degree = (long) pOne.biggestExponent() + pTwo.biggestExponent();
+        if (ProductHeap.isDenseEnough(pairs, degree))
+            return denseMultiplication(pOne, pTwo);
+        return sparseMultiplication(pOne, pTwo);
+    }
+
+    //Karatsuba / Toom-3 only beat the loop over the terms if at least 1 in this many coefficients of each operand is
+    //not zero (benchmarks/thresholds.txt, DensityThresholds)
+    private static final int FAST_FILL_RATIO = 3;
+
+    /** Dense multiplication
+     *   - works on the dense coefficient arrays of the operands
+     *   - for long operands with few zeros (see FAST_FILL_RATIO), Karatsuba, Toom-3 or the NTT is used (see
+     *     FastMultiplication), if no overflow can happen
+     *      - if every coefficient product fits in an int, the per-product check of the schoolbook loop can not fail
+     *   - otherwise falls back to the schoolbook loop over the terms (zeros are skipped), checking every product like
+     *     Monomial multiplication does
+     */
+    private static Polynomial denseMultiplication(Polynomial pOne, Polynomial pTwo) throws OverflowException{
+        long[] denseOne = pOne.toDense();
+        long[] denseTwo = pTwo.toDense();
+
+        if ((long) pOne.size() * FAST_FILL_RATIO >= denseOne.length
+                && (long) pTwo.size() * FAST_FILL_RATIO >= denseTwo.length
+                && Math.min(denseOne.length, denseTwo.length) >= FastMultiplication.getKaratsubaThreshold()
+                && maxAbsolute(denseOne) * maxAbsolute(denseTwo) <= Integer.MAX_VALUE
+                && FastMultiplication.isSafe(denseOne, denseTwo)){
+            long[] sums = FastMultiplication.multiply(denseOne, denseTwo);
+            for (long sum : sums)
+                overflowCheckForMultiplicationResult(sum);
+            return Polynomial.fromDense(sums);
+        }
 
-        ArrayList<Monomial> monomialsOne = pOne.getMonomials();
-        ArrayList<Monomial> monomialsTwo = pTwo.getMonomials();
+        long[] sums = new long[denseOne.length + denseTwo.length - 1];
 
-        //multiply every monomial on one side with every monomial on other side
-        for (Monomial i : monomialsOne){
-            for (Monomial j : monomialsTwo){
-                result.add(multiplyMonomial(i,j));
+        for (int i = 0; i < pOne.size(); i++){
+            checkCancelled();
+            int coefficientOne = (int) pOne.getCoefficient(i);
+            int exponentOne = pOne.getExponent(i);
+            for (int j = 0; j < pTwo.size(); j++){
+                int coefficientTwo = (int) pTwo.getCoefficient(j);
+                overflowCheckForAMultiplication(coefficientOne, coefficientTwo);
+                sums[exponentOne + pTwo.getExponent(j)] += (long) coefficientOne * coefficientTwo;
             }
         }
 
-        //simplify - sum each monomial's coefficient with the same exponent,
-        //and create a new, minimized Polynomial from this data
+        for (long sum : sums)
+            overflowCheckForMultiplicationResult(sum);
+        return Polynomial.fromDense(sums);
+    }
 
-        int i = result.biggestExponent();    //iterate from biggest exponent
-        int sumCoefficient;
+    //returns the biggest absolute value in a dense coefficient array
+    private static long maxAbsolute(long[] dense){
+        long max = 0;
+        for (long coefficient : dense)
+            max = Math.max(max, Math.abs(coefficient));
+        return max;
+    }
 
-        Polynomial simplifiedResult = new Polynomial();
-        ArrayList<Monomial> monomialsResult = result.getMonomials();
+    /** Sparse multiplication - Johnson's heap-based merge (see ProductHeap)
+     *   - each term of the shorter operand "walks" along the terms of the other operand
+     *   - products with the same exponent come out one after another, so they are summed up on the fly
+     *   - cost depends on the number of products (n*m*log(n)), not on the degree, so "x^1000000+1" is cheap
+     */
+    private static Polynomial sparseMultiplication(Polynomial pOne, Polynomial pTwo) throws OverflowException{
+        if (pOne.size() > pTwo.size()){     //keep the heap as small as possible
+            Polynomial aux = pOne;
+            pOne = pTwo;
+            pTwo = aux;
+        }
 
-        while (i >= 0){
-            sumCoefficient = 0;
-            for (Monomial m : monomialsResult)
-                if (m.getExponent() == i)
-                    sumCoefficient += m.getCoefficient();
-            if (sumCoefficient != 0)
-                simplifiedResult.add(new Monomial(sumCoefficient,i));
-            i--;
+        int n = pOne.size();
+        int m = pTwo.size();
+        ProductHeap heap = new ProductHeap(n, m, pOne::getExponent, pTwo::getExponent);
+
+        Polynomial result = new Polynomial(n + m);
+        int currentExponent = -1;
+        long currentSum = 0;
+
+        long steps = 0;
+        while (heap.hasNext()){
+            if ((++steps & CANCELLATION_CHECK_MASK) == 0)
+                checkCancelled();
+            int i = heap.first();
+            int j = heap.second();
+            int exponent = heap.exponent();
+
+            int coefficientOne = (int) pOne.getCoefficient(i);
+            int coefficientTwo = (int) pTwo.getCoefficient(j);
+            overflowCheckForAMultiplication(coefficientOne, coefficientTwo);
+
+            if (exponent != currentExponent){
+                overflowCheckForMultiplicationResult(currentSum);
+                result.add(currentSum, currentExponent);
+                currentExponent = exponent;
+                currentSum = 0;
+            }
+            currentSum += (long) coefficientOne * coefficientTwo;
+            heap.advance();
         }
-        return simplifiedResult;
+        overflowCheckForMultiplicationResult(currentSum);
+        result.add(currentSum, currentExponent);
+
+        return result;
     }
 
     /** Monomial division
@@ -170,15 +264,76 @@ public class Operations {
     }
 
     /** Polynomial division
-     *   - returns a String, which represents the result of pOne / pTwo
-     *      - result is shown in format Q: ___  R: ___ where Q means quotient, R means remainder
+     *   - returns the quotient and the remainder of pOne / pTwo, as Polynomials (see DivisionResult)
+     *      - DivisionResult.niceForm shows them in format Q: ___  R: ___ where Q means quotient, R means remainder
      *   - may produce ArithmeticException if division with 0 happens
-     *   - follows the Long Division Method
+     *   - follows the Long Division Method, with integer (truncating) division of the coefficients
+     *      - division stops when the leading coefficient of the remainder becomes smaller than the divisor's
+     *   - if the divisor's leading coefficient is 1 or -1, the dividend is dense and both operands are long, Newton
+     *     iteration is used instead (see FastDivision), which gives the same result faster
      */
-    public static String division(Polynomial pOne, Polynomial pTwo) throws ArithmeticException, OverflowException{
+    public static DivisionResult division(Polynomial pOne, Polynomial pTwo) throws ArithmeticException, OverflowException{
         if (pOne.biggestExponent() < pTwo.biggestExponent())
-            return "Q: 0  R: " + pOne.niceForm();
+            return new DivisionResult(new Polynomial(), new Polynomial(pOne));
+        //thrown here and not by the long division, since the JIT drops the message of an ArithmeticException it
+        //throws often, and the message is what the user sees
+        if (pTwo.size() == 0 && pOne.size() != 0)
+            throw new ArithmeticException(DIVISION_BY_ZERO);
+
+        if (pOne.isDense() || pOne.biggestExponent() < DENSE_DIVISION_LIMIT){
+            long[] dividend = pOne.toDense();
+            long[] divisor = pTwo.toDense();
+
+            //Newton iteration costs the same for every dividend of a degree, long division only works on its terms
+            DivisionResult fastResult = pOne.isDense() ? FastDivision.divide(dividend, divisor) : null;
+            if (fastResult != null)
+                return fastResult;
+            return denseDivision(dividend, divisor);
+        }
+        return sparseDivision(pOne, pTwo);
+    }
+
+    //the biggest degree for which a dense buffer is used in division even if the dividend is sparse
+    private static final int DENSE_DIVISION_LIMIT = 1 << 20;
+
+    /** Long division on a dense, mutable remainder buffer
+     *   - "remainder" starts as the dividend and is modified in place, no Polynomial is built per step
+     *   - overflow is checked the same way as multiplying the divisor by a quotient term and subtracting it would
+     */
+    private static DivisionResult denseDivision(long[] remainder, long[] divisor) throws OverflowException{
+        int divisorExponent = divisor.length - 1;
+        long divisorCoefficient = divisor[divisorExponent];
+        Polynomial quotient = new Polynomial(remainder.length - divisorExponent);
+
+        for (int i = remainder.length - 1; i >= divisorExponent; i--){
+            if (remainder[i] == 0)
+                continue;
+            checkCancelled();
+
+            long currentQuotient = remainder[i] / divisorCoefficient;   //throws ArithmeticException for 0 divisor
+            if (currentQuotient == 0)
+                break;
+            quotient.add(currentQuotient, i - divisorExponent);
+
+            int shift = i - divisorExponent;
+            for (int j = divisorExponent; j >= 0; j--)
+                if (divisor[j] != 0)
+                    overflowCheckForAMultiplication((int) currentQuotient, (int) divisor[j]);
+            for (int j = divisorExponent; j >= 0; j--)
+                if (divisor[j] != 0)
+                    overflowCheckForSubtraction(remainder[shift + j], currentQuotient * divisor[j]);
+            for (int j = 0; j <= divisorExponent; j++)
+                remainder[shift + j] -= currentQuotient * divisor[j];
+
+            //what is left from the leading term is smaller than the divisor's coefficient, so division stops here
+            if (remainder[i] != 0)
+                break;
+        }
+        return new DivisionResult(quotient, Polynomial.fromDense(remainder));
+    }
 
+    //long division on Polynomials, used when the dividend is too sparse for a dense buffer
+    private static DivisionResult sparseDivision(Polynomial pOne, Polynomial pTwo) throws OverflowException{
         Polynomial quotient = new Polynomial();         //"whole" part of division
         Polynomial remainder = new Polynomial(pOne);    //what we are left with after division
 
@@ -190,45 +345,148 @@ public class Operations {
         int divisorExponent = pTwo.biggestExponent();       //these are
         Monomial divisorMonomial = pTwo.biggestMonomial();  //constants
 
-        while (!remainder.niceForm().equals("0") && remainder.biggestExponent() >= divisorExponent){
+        long steps = 0;
+        while (remainder.size() != 0 && remainder.biggestExponent() >= divisorExponent){
+            checkCancelled();
             currentQuotientM = divideMonomial(remainder.biggestMonomial(),divisorMonomial);
-            if (currentQuotientM.niceForm().equals("0"))
+            if (currentQuotientM.isNull())
                 break;
-            System.out.println(currentQuotientM.niceForm());
-            if (!currentQuotientM.isNull())
-                quotient.add(currentQuotientM);
+            steps++;
+            quotient.add(currentQuotientM);
 
-            currentQuotientP = new Polynomial();
+            currentQuotientP = new Polynomial(1);
             currentQuotientP.add(currentQuotientM);
 
             toSubtract = multiplication(currentQuotientP,pTwo);
             remainder = subtraction(remainder,toSubtract);
         }
-        return "Q: " + quotient.niceForm() + "  R: " + remainder.niceForm();
+        Metrics.get().count("sparse division steps", steps);
+        return new DivisionResult(quotient, remainder);
     }
 
 
+    /** Polynomial exponentiation
+     *   - returns pOne^exponent, for exponent >= 0 (anything to the power 0 is 1)
+     *   - a single term c*x^e gives c^exponent*x^(e*exponent) directly, two terms are expanded with binomial
+     *     coefficients (see binomialPower), anything else is squared and multiplied (binary exponentiation), so
+     *     multiplication's fast paths do the work
+     *   - overflows when multiplying pOne by itself would (the terms are not worked out in the same order, so the
+     *     message may name the other sign); squaring skips some intermediate powers, so if terms cancel out, a power
+     *     may fit where one of the skipped powers would overflow
+     */
+    public static Polynomial power(Polynomial pOne, int exponent) throws OverflowException{
+        if (exponent < 0)
+            throw new ArithmeticException("The exponent must be a non-negative number.");
+        Polynomial result = new Polynomial(1);
+        if (exponent == 0){
+            result.add(1, 0);
+            return result;
+        }
+        if (pOne.size() == 0)
+            return result;
+        if ((long) pOne.biggestExponent() * exponent > Integer.MAX_VALUE)
+            throw new OverflowException("Addition positive overflow.");     //like multiplication's exponent check
+
+        if (pOne.size() == 1){
+            long coefficient = pOne.getCoefficient(0);
+            long value = coefficient;
+            if (Math.abs(coefficient) == 1)
+                value = (exponent & 1) == 0 ? 1 : coefficient;
+            else    //at most 31 steps before overflowing
+                for (int i = 1; i < exponent; i++){
+                    overflowCheckForAMultiplication((int) value, (int) coefficient);
+                    value *= coefficient;
+                }
+            result.add(value, pOne.getExponent(0) * exponent);
+            return result;
+        }
+        if (pOne.size() == 2)
+            return binomialPower(pOne, exponent);
+
+        Polynomial base = pOne;
+        result = null;
+        while (true){
+            if ((exponent & 1) == 1)
+                result = result == null ? base : multiplication(result, base);
+            exponent >>>= 1;
+            if (exponent == 0)
+                return result == pOne ? new Polynomial(pOne) : result;
+            base = multiplication(base, base);
+        }
+    }
+
+    /** (a*x^m + b*x^n)^k, as the sum of C(k,i) * a^(k-i) * b^i * x^(m*(k-i) + n*i), for i from 0 to k
+     *   - every term is worked out with its magnitude capped above the int range, so nothing can overflow in between;
+     *     the biggest coefficient of a power of a binomial only grows with the exponent, so the result overflows
+     *     exactly when multiplying the binomial by itself would
+     */
+    private static Polynomial binomialPower(Polynomial pOne, int exponent) throws OverflowException{
+        long a = pOne.getCoefficient(0);
+        long b = pOne.getCoefficient(1);
+        int m = pOne.getExponent(0);
+        int n = pOne.getExponent(1);
+
+        //C(k, k/2) does not fit in an int for k > MAX_BINOMIAL_EXPONENT, so bigger powers overflow within the first
+        //half of the terms; the space for the result must not depend on the exponent
+        Polynomial result = new Polynomial(Math.min(exponent, MAX_BINOMIAL_EXPONENT) + 1);
+        long binomial = 1;          //C(exponent, i)
+        for (int i = 0; i <= exponent; i++){
+            if ((i & CANCELLATION_CHECK_MASK) == 0)
+                checkCancelled();
+            long magnitude = cappedProduct(binomial, cappedProduct(cappedPower(Math.abs(a), exponent - i),
+                    cappedPower(Math.abs(b), i)));
+            boolean negative = (a < 0 && ((exponent - i) & 1) == 1) != (b < 0 && (i & 1) == 1);
+            long value = negative ? -magnitude : magnitude;
+            overflowCheckForMultiplicationResult(value);
+            result.add(value, m * (exponent - i) + n * i);
+
+            //C(k,i) fits in an int here (it divides the value), so the product below fits in a long
+            binomial = binomial * (exponent - i) / (i + 1);
+        }
+        return result;
+    }
+
+    //the biggest exponent k for which every C(k,i) fits in an int
+    private static final int MAX_BINOMIAL_EXPONENT = 33;
+
+    //beyond the int range, only the fact that a value is too big matters: products are capped at 2^32
+    private static final long PRODUCT_CAP = 1L << 32;
+
+    private static long cappedProduct(long a, long b){
+        if (a != 0 && b > PRODUCT_CAP / a)
+            return PRODUCT_CAP;
+        return a * b;
+    }
+
+    private static long cappedPower(long base, int exponent){
+        if (base == 1)
+            return 1;
+        long result = 1;
+        for (int i = 0; i < exponent && result < PRODUCT_CAP; i++)
+            result = cappedProduct(result, base);
+        return result;
+    }
+
     /** Polynomial differentiation
      *   - returns a Polynomial equal to the differentiation of pOne w.r.t "x"
      *   - relatively simple: multiply coefficient with exponent, decrement exponent
      *   - differentiation of constants results in 0
      */
     public static Polynomial differentiation(Polynomial pOne) throws OverflowException{
-        Polynomial result = new Polynomial();
+        Polynomial result = new Polynomial(pOne.size());
 
-        ArrayList<Monomial> monomials = pOne.getMonomials();
         int exponent;
         int coefficient;
-        for (Monomial i : monomials){
-            exponent = i.getExponent();
+        for (int i = 0; i < pOne.size(); i++){
+            exponent = pOne.getExponent(i);
             if (exponent == 0){
                 continue;
             }
-            coefficient = i.getCoefficient();
+            coefficient = (int) pOne.getCoefficient(i);
 
             overflowCheckForAMultiplication(coefficient,exponent);
 
-            result.add(new Monomial(coefficient * exponent,exponent-1));
+            result.add((long) coefficient * exponent,exponent-1);
         }
 
         return result;
@@ -241,9 +499,22 @@ public class Operations {
      *      - simplification of denominator and coefficient is done as well
      */
     public static String integration(Polynomial pOne) throws OverflowException{
-        String result = "";
+        return Rendering.render(16, out -> integration(pOne, out));
+    }
 
-        ArrayList<Monomial> monomials = pOne.getMonomials();
+    /** Polynomial integration, written directly into "out" (StringBuilder, Writer...)
+     *   - output is the same as the one of integration(Polynomial)
+     *   - overflow is checked before anything is written, so "out" only receives complete results
+     */
+    public static void integration(Polynomial pOne, Appendable out) throws OverflowException, IOException{
+        //the first exponent is the biggest, if it can be incremented, all of them can be
+        overflowCheckForAddition(pOne.biggestExponent(),1);
+
+        //add just the "C", if there is nothing to integrate
+        if (pOne.size() == 0){
+            out.append('C');
+            return;
+        }
 
         int exponent;
         int coefficient;
@@ -251,15 +522,14 @@ public class Operations {
         int gcd;
         boolean first = true;
 
-        for (Monomial i : monomials){
-            exponent = i.getExponent();
-            coefficient = i.getCoefficient();
+        for (int i = 0; i < pOne.size(); i++){
+            exponent = pOne.getExponent(i);
+            coefficient = (int) pOne.getCoefficient(i);
 
             if (!first && coefficient > 0)    //plus sign needs to be explicitly printed, if needed
-                result = result.concat("+");
+                out.append('+');
 
             //integrate
-            overflowCheckForAddition(exponent,1);
             exponent++;
             denominator = exponent;
 
@@ -272,27 +542,61 @@ public class Operations {
             }
 
             if (denominator > 1)
-                result = result.concat("(");
+                out.append('(');
 
-            result = result.concat(new Monomial(coefficient,exponent).niceForm());
+            Monomial.appendNiceForm(out, coefficient, exponent);
 
             if (denominator > 1){
-                result = result.concat(")/" + denominator);//coefficient 1 handled by niceForm
+                out.append(")/").append(Integer.toString(denominator));//coefficient 1 handled by niceForm
             }
             first = false;
         }
 
         //add the "C" at the end
-        if (result.equals("0") || result.equals(""))
-            return "C";
-        result = result.concat("+C");
-        return result;
+        out.append("+C");
     }
 
     //returns the greatest common denominator of a and b
     public static int greatestCommonDenominator(int a, int b){
-        if (b == 0) return a;
-        return greatestCommonDenominator(b,a%b);
+        return (int) greatestCommonDenominator((long) a, (long) b);
+    }
+
+    /** Greatest common divisor of two longs, with the binary (Stein's) algorithm - used by integration and Rational
+     *   - needs only shifts and subtractions instead of divisions, and no recursion
+     *   - the result is never negative; signs of the inputs do not matter
+     *   - the magnitudes are handled as unsigned numbers, so Long.MIN_VALUE works too (gcd(Long.MIN_VALUE, 0) is
+     *     2^63, which is returned as Long.MIN_VALUE)
+     */
+    public static long greatestCommonDenominator(long a, long b){
+        a = Math.abs(a);
+        b = Math.abs(b);
+        if (a == 0)
+            return b;
+        if (b == 0)
+            return a;
+
+        //common factors of 2, then both numbers are made odd
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>>= Long.numberOfTrailingZeros(a);
+        do{
+            b >>>= Long.numberOfTrailingZeros(b);
+            if (Long.compareUnsigned(a, b) > 0){
+                long aux = a;
+                a = b;
+                b = aux;
+            }
+            b -= a;         //difference of two odd numbers is even, so b gets shifted again
+        } while (b != 0);
+        return a << shift;
+    }
+
+    /** Cooperative cancellation, called regularly from the long-running loops of the operations
+     *   - if the thread doing the operation was interrupted (for example a cancelled SwingWorker), the operation
+     *     stops by throwing a CancellationException; the interrupted status is kept, so the caller sees it as well
+     */
+    static void checkCancelled(){
+        if (Thread.currentThread().isInterrupted())
+            throw new CancellationException("Operation cancelled.");
     }
 
     //custom exception for overflow checking
@@ -302,7 +606,7 @@ public class Operations {
         }
     }
 
-    private static void overflowCheckForAddition(int a, int b) throws OverflowException{
+    static void overflowCheckForAddition(int a, int b) throws OverflowException{
         long overflowTest = (long)a + (long)b;
         if (overflowTest > Integer.MAX_VALUE)
             throw new OverflowException("Addition positive overflow.");
@@ -310,7 +614,7 @@ public class Operations {
             throw new OverflowException("Addition negative overflow");
     }
 
-    private static void overflowCheckForAMultiplication(int a, int b) throws OverflowException{
+    static void overflowCheckForAMultiplication(int a, int b) throws OverflowException{
         long overflowTest = (long)a * (long)b;
         if (overflowTest > Integer.MAX_VALUE)
             throw new OverflowException("Multiplication positive overflow.");
@@ -318,15 +622,30 @@ public class Operations {
             throw new OverflowException("Multiplication negative overflow.");
     }
 
+    //checks a - b the same way subtraction does it: flipping b, then adding it to a
+    static void overflowCheckForSubtraction(long a, long b) throws OverflowException{
+        if (b == Integer.MIN_VALUE || (a != 0 && a - b < Integer.MIN_VALUE))
+            throw new OverflowException("Subtraction negative overflow.");
+        if (a != 0 && a - b > Integer.MAX_VALUE)
+            throw new OverflowException("Subtraction positive overflow");
+    }
+
+    //checks if a sum of products still fits in a coefficient
+    private static void overflowCheckForMultiplicationResult(long value) throws OverflowException{
+        if (value > Integer.MAX_VALUE)
+            throw new OverflowException("Multiplication positive overflow.");
+        if (value < Integer.MIN_VALUE)
+            throw new OverflowException("Multiplication negative overflow.");
+    }
+
     //returns the "reverse" of inputPolynomial - flips each monomial's sign
     private static Polynomial flipPolynomial(Polynomial inputPolynomial) throws OverflowException{
-        Polynomial invertedPolynomial = new Polynomial();
-        ArrayList<Monomial> inputMonomials = inputPolynomial.getMonomials();
-        for(Monomial m : inputMonomials){
+        Polynomial invertedPolynomial = new Polynomial(inputPolynomial.size());
+        for(int i = 0; i < inputPolynomial.size(); i++){
 
-            overflowCheckForAddition(m.getCoefficient(),-1);
+            overflowCheckForAddition((int) inputPolynomial.getCoefficient(i),-1);
 
-            invertedPolynomial.add(new Monomial(m.getCoefficient()*-1,m.getExponent()));
+            invertedPolynomial.add(-inputPolynomial.getCoefficient(i),inputPolynomial.getExponent(i));
         }
         return invertedPolynomial;
     }
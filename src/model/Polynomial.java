@@ -1,90 +1,214 @@
 /** Everything related to Polynomials as objects
  *   - purpose : main element of each operation
  *   - useful helper methods were added during implementation
+ *   - terms are stored in two parallel primitive arrays (exponents and coefficients), in the order they were added
+ *      - Monomial objects are only created when asked for (get, biggestMonomial, getMonomials), so the
+ *        Polynomial acts as a view over the arrays, and operations can work without per-term allocation
+ *   - two Polynomials are equal if they have the same terms in the same order; since inputs and results always
+ *     have their terms in decreasing order of exponents, this means they are the same polynomial
  */
 
 package model;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class Polynomial {
-    private final ArrayList<Monomial> monomials;
+    private static final int INITIAL_CAPACITY = 8;
 
+    //a Polynomial is considered dense if at least this fraction (1/DENSITY_RATIO) of its possible terms are present
+    private static final int DENSITY_RATIO = 4;
 
-    //overridden default constructor, since we need to allocate space for the list of monomials
+    private int[] exponents;
+    private long[] coefficients;    //values always fit in an int, long is used so kernels can accumulate freely
+    private int size;
+    private int hash;               //cached hashCode, 0 if not computed yet (or changed since)
+
+
+    //overridden default constructor, since we need to allocate space for the terms
     public Polynomial(){
-        this.monomials = new ArrayList<>();
+        this(INITIAL_CAPACITY);
+    }
+
+
+    //constructor with a capacity hint, used by operations which know the size of their result in advance
+    public Polynomial(int capacity){
+        capacity = Math.max(capacity, 1);
+        this.exponents = new int[capacity];
+        this.coefficients = new long[capacity];
+        this.size = 0;
     }
 
 
     //copy constructor - for division
     public Polynomial(Polynomial oldPolynomial){
-        monomials = oldPolynomial.getMonomials();
+        exponents = Arrays.copyOf(oldPolynomial.exponents, Math.max(oldPolynomial.size, 1));
+        coefficients = Arrays.copyOf(oldPolynomial.coefficients, Math.max(oldPolynomial.size, 1));
+        size = oldPolynomial.size;
+        hash = oldPolynomial.hash;
     }
 
 
-    //getter
+    //getter - builds a new list of Monomials, avoid in hot code and use getExponent/getCoefficient instead
     public ArrayList<Monomial> getMonomials() {
+        ArrayList<Monomial> monomials = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            monomials.add(new Monomial((int) coefficients[i], exponents[i]));
         return monomials;
     }
 
 
     //adds a monomial to the list of monomials
     public void add(Monomial monomial){
-        if (monomial.isNull())
+        add(monomial.getCoefficient(), monomial.getExponent());
+    }
+
+
+    //adds a term given by its coefficient and exponent, without creating a Monomial
+    public void add(long coefficient, int exponent){
+        if (coefficient == 0)
             return;
-        monomials.add(monomial);
+        if (size == exponents.length){
+            exponents = Arrays.copyOf(exponents, size * 2);
+            coefficients = Arrays.copyOf(coefficients, size * 2);
+        }
+        exponents[size] = exponent;
+        coefficients[size] = coefficient;
+        size++;
+        hash = 0;
+    }
+
+
+    //drops the terms from position "newSize" on, used when parsing is rewound (see IncrementalEvaluator)
+    void truncate(int newSize){
+        if (newSize < size){
+            size = newSize;
+            hash = 0;
+        }
     }
 
 
     //prints the polynomial in an appropriate form - uses Monomial's niceForm
     public String niceForm(){
+        return Rendering.render(size * 8, out -> appendNiceForm(out));
+    }
 
-        //"empty" Polynomials still need to be processed in some cases
-        if (monomials.isEmpty())
-            return "0";
+    //writes the polynomial in the same form as niceForm into "out" (StringBuilder, Writer...), term by term
+    public void appendNiceForm(Appendable out) throws IOException{
 
-        boolean first = true;
-        String output = "";
+        //"empty" Polynomials still need to be processed in some cases
+        if (size == 0){
+            out.append('0');
+            return;
+        }
 
-        for (Monomial monomial : monomials){
-            if (!first && monomial.getCoefficient() > 0)    //plus sign needs to be explicitly printed, if needed
-                output = output.concat("+");
+        for (int i = 0; i < size; i++){
+            if (i > 0 && coefficients[i] > 0)    //plus sign needs to be explicitly printed, if needed
+                out.append('+');
 
-            output = output.concat(monomial.niceForm());
-            first = false;
+            Monomial.appendNiceForm(out, coefficients[i], exponents[i]);
         }
-        return  output;
     }
 
     //return number of Monomials in Polynomial
     public int size(){
-        return this.monomials.size();
+        return this.size;
     }
 
     //get the Monomial on position "index" from a Polynomial
     public Monomial get(int index){
         //"empty" Polynomials still need to be processed in some cases
-        if (monomials.isEmpty())
+        if (size == 0)
             return new Monomial(0,0);
-        return monomials.get(index);
+        if (index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        return new Monomial((int) coefficients[index], exponents[index]);
+    }
+
+    //get the exponent of the term on position "index", without creating a Monomial
+    public int getExponent(int index){
+        Objects.checkIndex(index, size);
+        return exponents[index];
+    }
+
+    //get the coefficient of the term on position "index", without creating a Monomial
+    public long getCoefficient(int index){
+        Objects.checkIndex(index, size);
+        return coefficients[index];
     }
 
     //returns the biggest exponent of a Polynomial, aka the first Monomial's exponential
     public int biggestExponent(){
         //"empty" Polynomials still need to be processed in some cases
-        if (monomials.isEmpty())
+        if (size == 0)
             return 0;
 
-        return monomials.get(0).getExponent();
+        return exponents[0];
     }
 
     //returns the "biggest" Monomial of a Polynomial, aka the first Monomial
     public Monomial biggestMonomial(){
         //"empty" Polynomials still need to be processed in some cases
-        if (monomials.isEmpty())
+        if (size == 0)
             return new Monomial(0,0);
 
-        return monomials.get(0);
+        return get(0);
+    }
+
+    //value based comparison, term by term
+    @Override
+    public boolean equals(Object o){
+        if (this == o)
+            return true;
+        if (!(o instanceof Polynomial))
+            return false;
+        Polynomial other = (Polynomial) o;
+        if (size != other.size || hashCode() != other.hashCode())
+            return false;
+        for (int i = 0; i < size; i++)
+            if (exponents[i] != other.exponents[i] || coefficients[i] != other.coefficients[i])
+                return false;
+        return true;
+    }
+
+    //computed once, and again only after the Polynomial changes
+    @Override
+    public int hashCode(){
+        int h = hash;
+        if (h == 0 && size > 0){
+            h = 1;
+            for (int i = 0; i < size; i++)
+                h = 31 * (31 * h + exponents[i]) + Long.hashCode(coefficients[i]);
+            hash = h;
+        }
+        return h;
+    }
+
+    //checks if enough of the exponents 0..biggestExponent are present to make a dense representation worth it
+    public boolean isDense(){
+        return (long) size * DENSITY_RATIO >= (long) biggestExponent() + 1;
+    }
+
+    //returns the dense form of the Polynomial: coefficient of x^i is on position i
+    public long[] toDense(){
+        long[] dense = new long[biggestExponent() + 1];
+        for (int i = 0; i < size; i++)
+            dense[exponents[i]] += coefficients[i];
+        return dense;
+    }
+
+    //builds a Polynomial (in decreasing order of exponents) from a dense coefficient array, skipping zeros
+    public static Polynomial fromDense(long[] dense){
+        int count = 0;
+        for (long coefficient : dense)
+            if (coefficient != 0)
+                count++;
+
+        Polynomial result = new Polynomial(count);
+        for (int i = dense.length - 1; i >= 0; i--)
+            result.add(dense[i], i);
+        return result;
     }
 }
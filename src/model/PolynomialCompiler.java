@@ -0,0 +1,346 @@
+/** Compiles a Polynomial into an evaluator class, for evaluating one polynomial a huge number of times
+ *   - the bytecode of a small class is generated, with Horner's method written out term by term and the coefficients
+ *     and exponents as constants; it is loaded as a hidden class (MethodHandles.Lookup.defineHiddenClass), which can
+ *     be unloaded once it is not used anymore
+ *   - the JIT then sees a plain, branch-free method, which it can inline into the caller's loop
+ *   - only what is needed of the class file format is written here: a constant pool, a constructor and one method
+ *     without branches (so no stack map frames are needed)
+ *   - long evaluators are exact, like PolynomialEvaluator: they use Math.multiplyExact / addExact, which throw an
+ *     ArithmeticException on overflow (LongUnaryOperator can not throw checked exceptions)
+ *   - polynomials with too many terms for one method are not compiled, a PolynomialEvaluator call is returned instead
+ */
+
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongUnaryOperator;
+
+public class PolynomialCompiler {
+    //a method can have at most 64KB of code, every term needs at most about 20 bytes
+    private static final int MAX_COMPILED_TERMS = 2048;
+
+    //returns an evaluator for the polynomial over longs, see the class comment
+    public static LongUnaryOperator compileLong(Polynomial polynomial){
+        if (polynomial.size() > MAX_COMPILED_TERMS){
+            Polynomial copy = new Polynomial(polynomial);
+            return x -> {
+                try{
+                    return PolynomialEvaluator.evaluate(copy, x);
+                }
+                catch (Operations.OverflowException oe){
+                    throw new ArithmeticException(oe.getMessage());
+                }
+            };
+        }
+        return (LongUnaryOperator) instantiate(new ClassWriter(false).write(polynomial));
+    }
+
+    //returns an evaluator for the polynomial over doubles
+    public static DoubleUnaryOperator compileDouble(Polynomial polynomial){
+        if (polynomial.size() > MAX_COMPILED_TERMS){
+            Polynomial copy = new Polynomial(polynomial);
+            return x -> PolynomialEvaluator.evaluate(copy, x);
+        }
+        return (DoubleUnaryOperator) instantiate(new ClassWriter(true).write(polynomial));
+    }
+
+    //x^exponent, by squaring
+    static long power(long x, int exponent){
+        long result = 1;
+        while (true){
+            if ((exponent & 1) == 1)
+                result = Math.multiplyExact(result, x);
+            exponent >>>= 1;
+            if (exponent == 0)
+                return result;
+            x = Math.multiplyExact(x, x);
+        }
+    }
+
+    //value * x^exponent, called by the generated long code for big gaps; like PolynomialEvaluator, x^exponent is not
+    //worked out for a zero value, so only a product which itself does not fit is an overflow
+    static long timesPower(long value, long x, int exponent){
+        return value == 0 ? 0 : Math.multiplyExact(value, power(x, exponent));
+    }
+
+    static double power(double x, int exponent){
+        double result = 1;
+        while (exponent != 0){
+            if ((exponent & 1) == 1)
+                result *= x;
+            x *= x;
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    //defines the class as a hidden class in this package, and creates an instance of it
+    private static Object instantiate(byte[] bytes){
+        try{
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        }
+        catch (RuntimeException | Error e){
+            throw e;
+        }
+        catch (Throwable t){
+            throw new IllegalStateException("Could not compile polynomial.", t);
+        }
+    }
+
+    /** Writes the class file of the evaluator
+     *   - long version: applyAsLong(x) = addExact(multiplyExact(...), c), double version: applyAsDouble with dmul / dadd
+     */
+    private static class ClassWriter {
+        //constant pool tags
+        private static final int UTF8 = 1;
+        private static final int INTEGER = 3;
+        private static final int LONG = 5;
+        private static final int DOUBLE = 6;
+        private static final int CLASS = 7;
+        private static final int METHOD_REF = 10;
+        private static final int NAME_AND_TYPE = 12;
+
+        //opcodes
+        private static final int ALOAD_0 = 0x2a;
+        private static final int LLOAD_1 = 0x1f;
+        private static final int DLOAD_1 = 0x27;
+        private static final int LCONST_0 = 0x09;
+        private static final int DCONST_0 = 0x0e;
+        private static final int BIPUSH = 0x10;
+        private static final int SIPUSH = 0x11;
+        private static final int LDC_W = 0x13;
+        private static final int LDC2_W = 0x14;
+        private static final int DMUL = 0x6b;
+        private static final int DADD = 0x63;
+        private static final int LRETURN = 0xad;
+        private static final int DRETURN = 0xaf;
+        private static final int RETURN = 0xb1;
+        private static final int INVOKESPECIAL = 0xb7;
+        private static final int INVOKESTATIC = 0xb8;
+
+        private final boolean floating;     //double version
+        private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        private final DataOutputStream pool = new DataOutputStream(poolBytes);
+        private final Map<Object, Integer> entries = new HashMap<>();
+        private int poolCount = 1;          //entry 0 does not exist
+
+        ClassWriter(boolean floating){
+            this.floating = floating;
+        }
+
+        byte[] write(Polynomial polynomial){
+            try{
+                int thisClass = classEntry("model/CompiledPolynomial");
+                int superClass = classEntry("java/lang/Object");
+                int interfaceClass = classEntry(floating ? "java/util/function/DoubleUnaryOperator"
+                        : "java/util/function/LongUnaryOperator");
+                int objectConstructor = methodEntry("java/lang/Object", "<init>", "()V");
+                int code = utf8("Code");
+
+                byte[] constructorCode = {(byte) ALOAD_0, (byte) INVOKESPECIAL,
+                        (byte) (objectConstructor >> 8), (byte) objectConstructor, (byte) RETURN};
+                byte[] applyCode = applyCode(polynomial);
+                int constructorName = utf8("<init>");
+                int constructorType = utf8("()V");
+                int applyName = utf8(floating ? "applyAsDouble" : "applyAsLong");
+                int applyType = utf8(floating ? "(D)D" : "(J)J");
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(61);                 //Java 17
+                out.writeShort(poolCount);
+                pool.flush();
+                poolBytes.writeTo(out);
+                out.writeShort(0x0030);             //ACC_FINAL | ACC_SUPER
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(interfaceClass);
+                out.writeShort(0);                  //no fields
+                out.writeShort(2);
+                writeMethod(out, constructorName, constructorType, code, 1, 1, constructorCode);
+                writeMethod(out, applyName, applyType, code, 6, 3, applyCode);
+                out.writeShort(0);                  //no attributes
+                out.flush();
+                return bytes.toByteArray();
+            }
+            catch (IOException ioe){
+                throw new UncheckedIOException(ioe);      //should never be reached, byte arrays do not throw
+            }
+        }
+
+        //Horner's method: c0, then for each next term: * x^gap + c, at the end * x^(last exponent)
+        private byte[] applyCode(Polynomial polynomial) throws IOException{
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream code = new DataOutputStream(bytes);
+
+            if (polynomial.size() == 0){
+                code.writeByte(floating ? DCONST_0 : LCONST_0);
+                code.writeByte(floating ? DRETURN : LRETURN);
+                return bytes.toByteArray();
+            }
+
+            int multiply = floating ? 0 : methodEntry("java/lang/Math", "multiplyExact", "(JJ)J");
+            int add = floating ? 0 : methodEntry("java/lang/Math", "addExact", "(JJ)J");
+            int power = floating ? methodEntry("model/PolynomialCompiler", "power", "(DI)D")
+                    : methodEntry("model/PolynomialCompiler", "timesPower", "(JJI)J");
+
+            pushCoefficient(code, polynomial.getCoefficient(0));
+            for (int i = 1; i <= polynomial.size(); i++){
+                int gap = i < polynomial.size() ? polynomial.getExponent(i - 1) - polynomial.getExponent(i)
+                        : polynomial.getExponent(i - 1);
+                multiplyByPower(code, gap, multiply, power);
+                if (i < polynomial.size()){
+                    pushCoefficient(code, polynomial.getCoefficient(i));
+                    operation(code, DADD, add);
+                }
+            }
+            code.writeByte(floating ? DRETURN : LRETURN);
+            return bytes.toByteArray();
+        }
+
+        //multiplies the value on the stack by x^gap, calling power / timesPower (like PolynomialEvaluator, so the
+        //results are the same to the last bit) unless the gap is 1
+        private void multiplyByPower(DataOutputStream code, int gap, int multiply, int power) throws IOException{
+            if (gap == 0)
+                return;
+            code.writeByte(floating ? DLOAD_1 : LLOAD_1);
+            if (gap == 1){
+                operation(code, DMUL, multiply);
+                return;
+            }
+            if (gap <= Byte.MAX_VALUE){
+                code.writeByte(BIPUSH);
+                code.writeByte(gap);
+            }
+            else if (gap <= Short.MAX_VALUE){
+                code.writeByte(SIPUSH);
+                code.writeShort(gap);
+            }
+            else{
+                code.writeByte(LDC_W);
+                code.writeShort(integerEntry(gap));
+            }
+            code.writeByte(INVOKESTATIC);
+            code.writeShort(power);
+            if (floating)
+                code.writeByte(DMUL);
+        }
+
+        //a double instruction, or a call to the exact long method
+        private void operation(DataOutputStream code, int doubleOpcode, int longMethod) throws IOException{
+            if (floating)
+                code.writeByte(doubleOpcode);
+            else{
+                code.writeByte(INVOKESTATIC);
+                code.writeShort(longMethod);
+            }
+        }
+
+        private void pushCoefficient(DataOutputStream code, long coefficient) throws IOException{
+            code.writeByte(LDC2_W);
+            code.writeShort(floating ? doubleEntry(coefficient) : longEntry(coefficient));
+        }
+
+        private void writeMethod(DataOutputStream out, int name, int type, int codeName, int maxStack, int maxLocals,
+                                 byte[] code) throws IOException{
+            out.writeShort(0x0001);             //ACC_PUBLIC
+            out.writeShort(name);
+            out.writeShort(type);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0);                  //no exception table
+            out.writeShort(0);                  //no attributes
+        }
+
+        //constant pool entries, each one is written only once
+
+        private int utf8(String value) throws IOException{
+            Integer index = entries.get("utf8:" + value);
+            if (index != null)
+                return index;
+            pool.writeByte(UTF8);
+            pool.writeUTF(value);
+            return add("utf8:" + value, 1);
+        }
+
+        private int classEntry(String name) throws IOException{
+            Integer index = entries.get("class:" + name);
+            if (index != null)
+                return index;
+            int nameIndex = utf8(name);
+            pool.writeByte(CLASS);
+            pool.writeShort(nameIndex);
+            return add("class:" + name, 1);
+        }
+
+        private int methodEntry(String owner, String name, String type) throws IOException{
+            String key = "method:" + owner + "." + name + type;
+            Integer index = entries.get(key);
+            if (index != null)
+                return index;
+            int ownerIndex = classEntry(owner);
+            int nameIndex = utf8(name);
+            int typeIndex = utf8(type);
+            pool.writeByte(NAME_AND_TYPE);
+            pool.writeShort(nameIndex);
+            pool.writeShort(typeIndex);
+            int nameAndType = add("nameAndType:" + name + type, 1);
+            pool.writeByte(METHOD_REF);
+            pool.writeShort(ownerIndex);
+            pool.writeShort(nameAndType);
+            return add(key, 1);
+        }
+
+        private int integerEntry(int value) throws IOException{
+            Integer index = entries.get("int:" + value);
+            if (index != null)
+                return index;
+            pool.writeByte(INTEGER);
+            pool.writeInt(value);
+            return add("int:" + value, 1);
+        }
+
+        //long and double entries take two places in the pool
+        private int longEntry(long value) throws IOException{
+            Integer index = entries.get("long:" + value);
+            if (index != null)
+                return index;
+            pool.writeByte(LONG);
+            pool.writeLong(value);
+            return add("long:" + value, 2);
+        }
+
+        private int doubleEntry(double value) throws IOException{
+            Integer index = entries.get("double:" + value);
+            if (index != null)
+                return index;
+            pool.writeByte(DOUBLE);
+            pool.writeDouble(value);
+            return add("double:" + value, 2);
+        }
+
+        private int add(String key, int size){
+            int index = poolCount;
+            entries.put(key, index);
+            poolCount += size;
+            return index;
+        }
+    }
+}
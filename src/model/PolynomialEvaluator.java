@@ -0,0 +1,151 @@
+/** Evaluation of Polynomials: the value of the polynomial for a given x
+ *   - Horner's method, term by term: result = result * x^(gap between exponents) + coefficient, where the powers
+ *     of x for the gaps are found by exponentiation by squaring, so sparse polynomials (like x^1000000+1) are cheap
+ *   - long evaluation is exact: an OverflowException is thrown if an intermediate value does not fit in a long
+ *   - double evaluation is not checked (it goes to infinity instead)
+ *   - for many points:
+ *      - the double version of dense polynomials goes coefficient by coefficient, updating all the points in a
+ *        simple loop, which the JIT can vectorize
+ *      - with enough points, the polynomial is compiled first (see PolynomialCompiler), so the loop over the points
+ *        runs a method with the coefficients as constants
+ *      - modulo a prime, a subproduct tree is used (see ModularOperations.evaluate); over the integers or doubles it is
+ *        not, since there the coefficients of the tree grow huge or lose all precision
+ */
+
+package model;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongUnaryOperator;
+
+public class PolynomialEvaluator {
+    private static final String OVERFLOW = "Evaluation overflow.";
+
+    //number of points from which compiling the polynomial pays for itself
+    private static final int COMPILE_THRESHOLD = 1 << 14;
+
+    //returns the value of the polynomial in x, exactly
+    public static long evaluate(Polynomial polynomial, long x) throws Operations.OverflowException{
+        if (polynomial.size() == 0)
+            return 0;
+
+        long result = polynomial.getCoefficient(0);
+        for (int i = 1; i < polynomial.size(); i++){
+            int gap = polynomial.getExponent(i - 1) - polynomial.getExponent(i);
+            result = add(timesPower(result, x, gap), polynomial.getCoefficient(i));
+        }
+        return timesPower(result, x, polynomial.getExponent(polynomial.size() - 1));
+    }
+
+    //returns the value of the polynomial in x
+    public static double evaluate(Polynomial polynomial, double x){
+        if (polynomial.size() == 0)
+            return 0;
+
+        double result = polynomial.getCoefficient(0);
+        for (int i = 1; i < polynomial.size(); i++){
+            int gap = polynomial.getExponent(i - 1) - polynomial.getExponent(i);
+            result = result * power(x, gap) + polynomial.getCoefficient(i);
+        }
+        return result * power(x, polynomial.getExponent(polynomial.size() - 1));
+    }
+
+    //returns the value of the polynomial in every point, exactly
+    public static long[] evaluate(Polynomial polynomial, long[] points) throws Operations.OverflowException{
+        long[] values = new long[points.length];
+        if (points.length >= COMPILE_THRESHOLD){
+            LongUnaryOperator compiled = PolynomialCompiler.compileLong(polynomial);
+            try{
+                for (int i = 0; i < points.length; i++){
+                    if ((i & 0xFFF) == 0)
+                        Operations.checkCancelled();
+                    values[i] = compiled.applyAsLong(points[i]);
+                }
+            }
+            catch (ArithmeticException ae){
+                throw new Operations.OverflowException(OVERFLOW);
+            }
+            return values;
+        }
+
+        for (int i = 0; i < points.length; i++){
+            if ((i & 0xFFF) == 0)
+                Operations.checkCancelled();
+            values[i] = evaluate(polynomial, points[i]);
+        }
+        return values;
+    }
+
+    //returns the value of the polynomial in every point
+    public static double[] evaluate(Polynomial polynomial, double[] points){
+        double[] values = new double[points.length];
+        if (!polynomial.isDense()){
+            DoubleUnaryOperator compiled = points.length >= COMPILE_THRESHOLD
+                    ? PolynomialCompiler.compileDouble(polynomial) : x -> evaluate(polynomial, x);
+            for (int i = 0; i < points.length; i++){
+                if ((i & 0xFFF) == 0)
+                    Operations.checkCancelled();
+                values[i] = compiled.applyAsDouble(points[i]);
+            }
+            return values;
+        }
+
+        //Horner's method for all the points at once, one coefficient at a time
+        long[] dense = polynomial.toDense();
+        for (int k = dense.length - 1; k >= 0; k--){
+            if ((k & 0xFF) == 0)
+                Operations.checkCancelled();
+            double coefficient = dense[k];
+            for (int i = 0; i < points.length; i++)
+                values[i] = values[i] * points[i] + coefficient;
+        }
+        return values;
+    }
+
+    //returns the value of the polynomial in every point, modulo the prime of "operations"
+    public static long[] evaluate(Polynomial polynomial, long[] points, ModularOperations operations){
+        return operations.evaluate(operations.reduce(polynomial), points);
+    }
+
+    //x^exponent, by squaring; throws an OverflowException if the result does not fit in a long
+    private static long power(long x, int exponent) throws Operations.OverflowException{
+        long result = 1;
+        while (true){
+            if ((exponent & 1) == 1)
+                result = multiply(result, x);
+            exponent >>>= 1;
+            if (exponent == 0)
+                return result;
+            x = multiply(x, x);
+        }
+    }
+
+    private static double power(double x, int exponent){
+        double result = 1;
+        while (exponent != 0){
+            if ((exponent & 1) == 1)
+                result *= x;
+            x *= x;
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    //value * x^exponent; for a zero value x^exponent is not needed, and may not even fit (like 2^64 in x^64-2x^63)
+    private static long timesPower(long value, long x, int exponent) throws Operations.OverflowException{
+        return value == 0 ? 0 : multiply(value, power(x, exponent));
+    }
+
+    private static long multiply(long a, long b) throws Operations.OverflowException{
+        long low = a * b;
+        if (Math.multiplyHigh(a, b) != (low >> 63))
+            throw new Operations.OverflowException(OVERFLOW);
+        return low;
+    }
+
+    private static long add(long a, long b) throws Operations.OverflowException{
+        long sum = a + b;
+        if (((a ^ sum) & (b ^ sum)) < 0)
+            throw new Operations.OverflowException(OVERFLOW);
+        return sum;
+    }
+}
@@ -0,0 +1,197 @@
+/** Greatest common divisor of polynomials with integer coefficients
+ *   - the result is in Z[x]: its content is the gcd of the contents, its leading coefficient is positive
+ *   - Euclid's algorithm over the integers makes the coefficients grow exponentially, so the modular approach is used:
+ *      - the gcd is computed modulo several big primes (see ModularOperations), where the numbers never grow
+ *      - the results are put together with the Chinese Remainder Theorem, until the candidate stops changing
+ *        and divides both operands (then it is surely the gcd)
+ *      - primes for which the modular gcd has a bigger degree than seen before are "unlucky" and skipped,
+ *        a smaller degree means all the previous primes were unlucky
+ *   - the leading coefficient of the gcd divides g = gcd(lc(a), lc(b)), so the modular results are scaled to have
+ *     leading coefficient g, making them images of the same integer polynomial
+ */
+
+package model;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public class PolynomialGcd {
+    //primes are taken going down from here, all of them are supported by ModularOperations
+    private static final long FIRST_PRIME_LIMIT = ModularOperations.MAX_MODULUS;
+
+    //returns the greatest common divisor of the two polynomials, 0 if both of them are 0
+    public static ExactPolynomial gcd(ExactPolynomial pOne, ExactPolynomial pTwo){
+        if (Math.max(pOne.biggestExponent(), pTwo.biggestExponent()) > ModularOperations.MAX_DEGREE)
+            throw new ArithmeticException("Degree too big for polynomial gcd.");
+
+        BigInteger[] a = dense(pOne);
+        BigInteger[] b = dense(pTwo);
+        if (a.length == 0)
+            return fromDense(normalize(b));
+        if (b.length == 0)
+            return fromDense(normalize(a));
+
+        BigInteger contentOne = content(a);
+        BigInteger contentTwo = content(b);
+        BigInteger content = contentOne.gcd(contentTwo);
+        a = divide(a, contentOne);
+        b = divide(b, contentTwo);
+        if (a.length == 1 || b.length == 1)
+            return fromDense(new BigInteger[]{content});
+
+        BigInteger leading = a[a.length - 1].gcd(b[b.length - 1]);
+        int degree = Math.min(a.length, b.length);      //upper limit of the degree + 1
+        BigInteger[] combined = null;
+        BigInteger product = BigInteger.ONE;
+        BigInteger[] candidate = null;
+
+        long prime = FIRST_PRIME_LIMIT;
+        while (true){
+            Operations.checkCancelled();
+            prime = previousPrime(prime);
+            BigInteger bigPrime = BigInteger.valueOf(prime);
+            if (a[a.length - 1].mod(bigPrime).signum() == 0 || b[b.length - 1].mod(bigPrime).signum() == 0)
+                continue;       //the degrees would drop modulo this prime
+
+            ModularOperations operations = new ModularOperations(prime);
+            long[] modularGcd = operations.greatestCommonDivisor(reduce(a, prime), reduce(b, prime));
+            if (modularGcd.length == 1)
+                return fromDense(new BigInteger[]{content});    //the operands are coprime
+            if (modularGcd.length > degree)
+                continue;       //unlucky prime
+            if (modularGcd.length < degree){
+                degree = modularGcd.length;     //every prime before was unlucky
+                combined = null;
+                candidate = null;
+            }
+
+            //scale to have g as leading coefficient, then put it together with the earlier results
+            long scale = leading.mod(bigPrime).longValue();
+            long[] scaled = operations.multiplication(modularGcd, new long[]{scale});
+            if (combined == null){
+                combined = new BigInteger[degree];
+                for (int i = 0; i < degree; i++)
+                    combined[i] = BigInteger.valueOf(scaled[i]);
+                product = bigPrime;
+            }
+            else{
+                combine(combined, product, scaled, bigPrime);
+                product = product.multiply(bigPrime);
+            }
+
+            //a candidate which did not change with the last prime is checked by trial division
+            BigInteger[] next = primitivePart(symmetric(combined, product));
+            if (Arrays.equals(next, candidate) && divides(next, a) && divides(next, b)){
+                for (int i = 0; i < next.length; i++)
+                    next[i] = next[i].multiply(content);
+                return fromDense(next);
+            }
+            candidate = next;
+        }
+    }
+
+    //Chinese Remainder Theorem: combined (modulo product) and residues (modulo prime) become one value modulo both
+    private static void combine(BigInteger[] combined, BigInteger product, long[] residues, BigInteger prime){
+        BigInteger inverse = product.mod(prime).modInverse(prime);
+        for (int i = 0; i < combined.length; i++){
+            //x = combined + product * ((residue - combined) / product mod prime)
+            BigInteger step = BigInteger.valueOf(residues[i]).subtract(combined[i]).multiply(inverse).mod(prime);
+            combined[i] = combined[i].add(product.multiply(step));
+        }
+    }
+
+    //values in [0, product) become values in (-product/2, product/2]
+    private static BigInteger[] symmetric(BigInteger[] values, BigInteger product){
+        BigInteger half = product.shiftRight(1);
+        BigInteger[] result = new BigInteger[values.length];
+        for (int i = 0; i < values.length; i++)
+            result[i] = values[i].compareTo(half) > 0 ? values[i].subtract(product) : values[i];
+        return result;
+    }
+
+    //checks if divisor (primitive) divides dividend in Z[x], with long division that must never leave a remainder
+    private static boolean divides(BigInteger[] divisor, BigInteger[] dividend){
+        BigInteger[] remainder = dividend.clone();
+        int m = divisor.length - 1;
+        BigInteger leading = divisor[m];
+        for (int i = remainder.length - 1; i >= m; i--){
+            if (remainder[i].signum() == 0)
+                continue;
+            BigInteger[] division = remainder[i].divideAndRemainder(leading);
+            if (division[1].signum() != 0)
+                return false;
+            for (int k = 0; k <= m; k++)
+                remainder[i - m + k] = remainder[i - m + k].subtract(division[0].multiply(divisor[k]));
+        }
+        for (int i = 0; i < m; i++)
+            if (remainder[i].signum() != 0)
+                return false;
+        return true;
+    }
+
+    //the polynomial divided by its content, with a positive leading coefficient
+    private static BigInteger[] primitivePart(BigInteger[] values){
+        return divide(values, content(values));
+    }
+
+    //the content times the primitive part, with a positive leading coefficient
+    private static BigInteger[] normalize(BigInteger[] values){
+        if (values.length == 0 || values[values.length - 1].signum() > 0)
+            return values;
+        return divide(values, BigInteger.ONE.negate());
+    }
+
+    //gcd of the coefficients, with the sign of the leading coefficient (so dividing by it makes that positive)
+    private static BigInteger content(BigInteger[] values){
+        BigInteger content = BigInteger.ZERO;
+        for (BigInteger value : values)
+            content = content.gcd(value);
+        return values[values.length - 1].signum() < 0 ? content.negate() : content;
+    }
+
+    private static BigInteger[] divide(BigInteger[] values, BigInteger divisor){
+        BigInteger[] result = new BigInteger[values.length];
+        for (int i = 0; i < values.length; i++)
+            result[i] = values[i].divide(divisor);
+        return result;
+    }
+
+    private static long[] reduce(BigInteger[] values, long prime){
+        BigInteger bigPrime = BigInteger.valueOf(prime);
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++)
+            result[i] = values[i].mod(bigPrime).longValue();
+        return result;
+    }
+
+    //the biggest prime smaller than "limit"
+    private static long previousPrime(long limit){
+        long candidate = (limit - 1) | 1;
+        if (candidate >= limit)
+            candidate -= 2;
+        while (!BigInteger.valueOf(candidate).isProbablePrime(64))
+            candidate -= 2;
+        return candidate;
+    }
+
+    //dense form (coefficient of x^i on position i), without zeros at the end
+    private static BigInteger[] dense(ExactPolynomial polynomial){
+        if (polynomial.size() == 0)
+            return new BigInteger[0];
+        BigInteger[] result = new BigInteger[polynomial.biggestExponent() + 1];
+        Arrays.fill(result, BigInteger.ZERO);
+        for (int i = 0; i < polynomial.size(); i++)
+            result[polynomial.getExponent(i)] = result[polynomial.getExponent(i)].add(polynomial.getBigCoefficient(i));
+        int length = result.length;
+        while (length > 0 && result[length - 1].signum() == 0)
+            length--;
+        return Arrays.copyOf(result, length);
+    }
+
+    private static ExactPolynomial fromDense(BigInteger[] values){
+        ExactPolynomial result = new ExactPolynomial(values.length);
+        for (int i = values.length - 1; i >= 0; i--)
+            result.add(values[i], i);
+        return result;
+    }
+}
@@ -0,0 +1,262 @@
+/** Incremental parser of polynomials, used by InputEvaluator
+ *   - characters are given one by one (accept), and terms are added to the Polynomial as soon as they are complete
+ *   - needs no memory besides the Polynomial itself, so the input can come from anywhere (String, Reader, channel...)
+ *   - validates, parses and checks the order in the same pass, giving the same results and messages as
+ *     preEvaluate, evaluateInput and postEvaluate would, with the same priority:
+ *     illegal character, then prohibited substring, then bad number, then bad order
+ *   - numbers are read the way evaluateInput reads them with Integer.parseInt, including its corner cases
+ */
+
+package model;
+
+class PolynomialScanner {
+    private static final long INT_LIMIT = 1L << 31;     //biggest magnitude a parsed number may reach (for -2^31)
+
+    private final Polynomial polynomial;
+    private final Message message;
+
+    private boolean empty = true;
+    private boolean illegal;        //an illegal character was found, nothing else matters
+    private boolean prohibited;     //a prohibited substring was found
+    private boolean badNumber;      //a chunk could not be parsed (same cases in which Integer.parseInt fails)
+    private String orderError;      //first problem with the order of monomials, if any
+    private int previousExponent = -1;
+    private char previous;
+    private char beforePrevious;
+
+    //state of the current chunk; chunks start with + or -, each chunk will be digested as a monomial
+    private int chunkLength;        //characters read from the chunk so far
+    private int xCount;             //number of "x" read from the chunk so far (only the first two matter)
+    private int firstX;             //position of the first "x" inside the chunk
+    private int secondX;            //position of the second "x" inside the chunk, the exponent token ends there
+
+    //the number before the first "x" (or the whole chunk if there is none)
+    private char coefficientSign;
+    private int coefficientDigits;
+    private long coefficientValue;
+    private boolean coefficientInvalid;
+
+    //the number after "x^" (evaluateInput skips the character after "x", whatever it is)
+    private int exponentDigits;
+    private long exponentValue;
+    private boolean exponentInvalid;
+
+    PolynomialScanner(Polynomial polynomial, Message message){
+        this.polynomial = polynomial;
+        this.message = message;
+    }
+
+    //returns a scanner in the same state as this one, but adding terms to "polynomial" and reporting into "message"
+    //  - "polynomial" must hold the same terms as this scanner's Polynomial (see IncrementalEvaluator)
+    PolynomialScanner copy(Polynomial polynomial, Message message){
+        PolynomialScanner copy = new PolynomialScanner(polynomial, message);
+        copy.empty = empty;
+        copy.illegal = illegal;
+        copy.prohibited = prohibited;
+        copy.badNumber = badNumber;
+        copy.orderError = orderError;
+        copy.previousExponent = previousExponent;
+        copy.previous = previous;
+        copy.beforePrevious = beforePrevious;
+        copy.chunkLength = chunkLength;
+        copy.xCount = xCount;
+        copy.firstX = firstX;
+        copy.secondX = secondX;
+        copy.coefficientSign = coefficientSign;
+        copy.coefficientDigits = coefficientDigits;
+        copy.coefficientValue = coefficientValue;
+        copy.coefficientInvalid = coefficientInvalid;
+        copy.exponentDigits = exponentDigits;
+        copy.exponentValue = exponentValue;
+        copy.exponentInvalid = exponentInvalid;
+        return copy;
+    }
+
+    /** Processes the next character of the input
+     *   - returns false if the input is already known to be illegal, so the caller may stop reading
+     */
+    boolean accept(char c){
+        boolean first = empty;
+        empty = false;
+
+        if (illegal)
+            return false;
+        if (!isLegalCharacter(c)){
+            illegal = true;
+            return false;
+        }
+
+        if (!prohibited && isProhibited(beforePrevious, previous, c))
+            prohibited = true;
+
+        //start of a new chunk: digest the previous one
+        if (!first && (c == '+' || c == '-'))
+            endChunk();
+
+        readIntoChunk(c);
+        beforePrevious = previous;
+        previous = c;
+        return true;
+    }
+
+    /** Finishes parsing, after the last character
+     *   - sets the message and returns false if evaluation failed, returns true if evaluation passed
+     *   - throws a NumberFormatException if a number could not be parsed, like evaluateInput would
+     */
+    boolean finish() throws NumberFormatException{
+        if (empty){
+            message.setText("Empty input");
+            return false;
+        }
+        if (illegal){
+            message.setText("Illegal character in input.");
+            return false;
+        }
+        endChunk();
+
+        if (prohibited){
+            message.setText("Prohibited substring in input.");
+            return false;
+        }
+        if (badNumber){
+            message.setText("Bad input: overflow / not polynomial");
+            throw new NumberFormatException();
+        }
+        if (orderError != null){
+            message.setText(orderError);
+            return false;
+        }
+        return true;
+    }
+
+    private void readIntoChunk(char c){
+        int position = chunkLength++;
+
+        if (c == 'x'){
+            if (xCount == 0)
+                firstX = position;
+            else if (xCount == 1)
+                secondX = position;
+            xCount++;
+            return;
+        }
+
+        if (xCount == 0){
+            //part of the coefficient, which may start with a sign
+            if (position == 0 && (c == '+' || c == '-'))
+                coefficientSign = c;
+            else if (c >= '0' && c <= '9'){
+                coefficientValue = appendDigit(c, coefficientValue);
+                coefficientDigits++;
+            }
+            else
+                coefficientInvalid = true;
+        }
+        else if (xCount == 1 && position >= firstX + 2){
+            //part of the exponent; everything after a second "x" is ignored
+            if (c >= '0' && c <= '9'){
+                exponentValue = appendDigit(c, exponentValue);
+                exponentDigits++;
+            }
+            else
+                exponentInvalid = true;
+        }
+    }
+
+    //builds the term of the chunk which just ended, and resets the chunk's state
+    private void endChunk(){
+        if (!prohibited && !badNumber){
+            try{
+                addTerm(parseCoefficient(), parseExponent());
+            }
+            catch (NumberFormatException nfe){
+                badNumber = true;
+            }
+        }
+
+        chunkLength = 0;
+        xCount = 0;
+        firstX = 0;
+        secondX = 0;
+        coefficientSign = 0;
+        coefficientDigits = 0;
+        coefficientValue = 0;
+        coefficientInvalid = false;
+        exponentDigits = 0;
+        exponentValue = 0;
+        exponentInvalid = false;
+    }
+
+    private void addTerm(int coefficient, int exponent){
+        if (coefficient == 0)
+            return;
+        if (polynomial.size() > 0 && orderError == null){
+            if (exponent > previousExponent)
+                orderError = "Invalid order of monomials: " + exponent + " > " + previousExponent + ".";
+            else if (exponent == previousExponent)
+                orderError = "Multiple monomials with power " + exponent + ".";
+        }
+        polynomial.add(coefficient, exponent);
+        previousExponent = exponent;
+    }
+
+    private int parseCoefficient() throws NumberFormatException{
+        if (xCount == 0)                        //input : "(number)"
+            return signedValue();
+        if (firstX == 0){
+            if (xCount > 1)                     //first token starts with x, it is not a number
+                throw new NumberFormatException();
+            return 1;                           //input : "x" or "x^(number)"
+        }
+        if (firstX == 1 && coefficientSign != 0)
+            return coefficientSign == '-' ? -1 : 1;     //coefficient is just a "-" or a "+"
+        return signedValue();
+    }
+
+    private int parseExponent() throws NumberFormatException{
+        if (xCount == 0)                        //input : "(number)"
+            return 0;
+        if (firstX == 0 && xCount > 1)          //first token starts with x, it is not a number
+            throw new NumberFormatException();
+
+        int tokenEnd = xCount > 1 ? secondX : chunkLength;
+        if (tokenEnd - firstX == 1)             //input : "x" or "(number)x"
+            return 1;
+        if (exponentDigits == 0 || exponentInvalid || exponentValue > Integer.MAX_VALUE)
+            throw new NumberFormatException();
+        return (int) exponentValue;             //input : "x^(number)"
+    }
+
+    private int signedValue() throws NumberFormatException{
+        if (coefficientDigits == 0 || coefficientInvalid)
+            throw new NumberFormatException();
+        long value = coefficientSign == '-' ? -coefficientValue : coefficientValue;
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE)
+            throw new NumberFormatException();
+        return (int) value;
+    }
+
+    //adds a decimal digit to a number being read, saturating above the int range so it can never overflow
+    private static long appendDigit(char c, long value){
+        return Math.min(value * 10 + (c - '0'), INT_LIMIT + 1);
+    }
+
+    //characters needed to describe a polynomial
+    private static boolean isLegalCharacter(char c){
+        return (c >= '0' && c <= '9') || c == 'x' || c == '^' || c == '+' || c == '-';
+    }
+
+    //checks if the last (up to) three characters end in one of the substrings prohibited by preEvaluate
+    private static boolean isProhibited(char beforePrevious, char previous, char c){
+        boolean previousSign = previous == '+' || previous == '-';
+        boolean sign = c == '+' || c == '-';
+
+        if (previousSign && (sign || c == '^' || c == '0'))    //"++", "--", "+-", "-+", "-^", "+^", "+0", "-0"
+            return true;
+        if (previous == '^' && (c == '^' || c == 'x' || c == '0'))      //"^^", "^x", "^0"
+            return true;
+        if (previous == 'x' && c == 'x')                                //"xx"
+            return true;
+        return beforePrevious == '^' && previous == '1' && sign;      //"^1+", "^1-"
+    }
+}
@@ -0,0 +1,112 @@
+/** Johnson's heap-based merge of the products of two polynomials, shared by the sparse multiplications
+ *   - each term i of the first operand "walks" along the terms of the second one, the heap holds one product per term
+ *   - a max-heap (on the exponent of the current product) gives the products in decreasing order of exponents, so
+ *     the ones with the same exponent come one after another and the caller sums them up on the fly
+ *   - only exponents are read here, through "exponentOne" and "exponentTwo" (index -> exponent, both operands in
+ *     decreasing order); the coefficients, and what kind they are, stay with the caller
+ *      - they are read once into arrays, the sift reads them n*m*log(n) times
+ *   - usage: while (heap.hasNext()) { use first(), second(), exponent(); heap.advance(); }
+ *   - isDenseEnough decides, for every kind of coefficient, when the heap is not worth it: if the product has few
+ *     possible exponents compared with its number of term pairs, summing into an array indexed by the exponent does
+ *     the same work without the log(n) of the heap
+ */
+
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+final class ProductHeap {
+    //products with at most this many possible exponents per pair of terms are summed up in a dense array
+    private static final int DENSE_RATIO = 8;
+    //results with more possible exponents than this are never kept in an array indexed by the exponent
+    private static final int MAX_DENSE_TERMS = 1 << 24;
+
+    private final int[] exponentsOne;
+    private final int[] exponentsTwo;
+    private final int m;
+    private final int[] position;   //position[i] - which term of the second operand is multiplied next with term i
+    private final int[] heap;       //indexes of the first operand, ordered by the exponent of their current product
+    private int heapSize;
+
+    //true if a product of "pairs" pairs of terms, with exponents 0..degree, should be summed up in a dense array
+    static boolean isDenseEnough(long pairs, long degree){
+        return degree + 1 <= MAX_DENSE_TERMS && degree + 1 <= Math.max(64, pairs * DENSE_RATIO);
+    }
+
+    ProductHeap(int n, int m, IntUnaryOperator exponentOne, IntUnaryOperator exponentTwo){
+        this.exponentsOne = exponents(n, exponentOne);
+        this.exponentsTwo = exponents(m, exponentTwo);
+        this.m = m;
+        this.position = new int[n];
+        this.heap = new int[n];
+        //the first operand is in decreasing order, so the indexes in increasing order already form a valid max-heap
+        for (int i = 0; i < n; i++)
+            heap[i] = i;
+        this.heapSize = n;
+    }
+
+    boolean hasNext(){
+        return heapSize > 0;
+    }
+
+    //index in the first operand of the current product
+    int first(){
+        return heap[0];
+    }
+
+    //index in the second operand of the current product
+    int second(){
+        return position[heap[0]];
+    }
+
+    //exponent of the current product
+    int exponent(){
+        return exponentOf(heap[0]);
+    }
+
+    //advances term first() to its next product, or drops it from the heap if it went through all of the second operand
+    void advance(){
+        int i = heap[0];
+        position[i]++;
+        if (position[i] == m)
+            heap[0] = heap[--heapSize];
+        siftDown();
+    }
+
+    private static int[] exponents(int size, IntUnaryOperator exponent){
+        int[] exponents = new int[size];
+        for (int i = 0; i < size; i++)
+            exponents[i] = exponent.applyAsInt(i);
+        return exponents;
+    }
+
+    private int exponentOf(int i){
+        return exponentsOne[i] + exponentsTwo[position[i]];
+    }
+
+    //restores the max-heap property from the top of the heap
+    private void siftDown(){
+        if (heapSize == 0)
+            return;
+        int k = 0;
+        int top = heap[0];
+        int topExponent = exponentOf(top);
+
+        while (2 * k + 1 < heapSize){
+            int child = 2 * k + 1;
+            int childExponent = exponentOf(heap[child]);
+            if (child + 1 < heapSize){
+                int rightExponent = exponentOf(heap[child + 1]);
+                if (rightExponent > childExponent){
+                    child++;
+                    childExponent = rightExponent;
+                }
+            }
+            if (childExponent <= topExponent)
+                break;
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = top;
+    }
+}
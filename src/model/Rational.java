@@ -0,0 +1,138 @@
+/** Exact fraction, the coefficient of RationalPolynomial
+ *   - always kept in lowest terms, with a positive denominator, so equal values have equal fields
+ *   - integers (denominator 1) take a fast path, without any greatest common divisor
+ *   - numerator and denominator are longs; if a result does not fit, an ArithmeticException is thrown
+ */
+
+package model;
+
+public final class Rational {
+    public static final Rational ZERO = new Rational(0, 1);
+    public static final Rational ONE = new Rational(1, 1);
+
+    private static final String OVERFLOW = "Rational coefficient overflow.";
+
+    private final long numerator;
+    private final long denominator;
+
+    private Rational(long numerator, long denominator){
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    //the integer "value"
+    public static Rational of(long value){
+        return new Rational(value, 1);
+    }
+
+    //the fraction numerator/denominator, brought to lowest terms
+    public static Rational of(long numerator, long denominator){
+        if (denominator == 0)
+            throw new ArithmeticException(Operations.DIVISION_BY_ZERO);
+        if (denominator == 1)
+            return new Rational(numerator, 1);
+        if (denominator < 0){
+            numerator = negate(numerator);
+            denominator = negate(denominator);
+        }
+        long gcd = Operations.greatestCommonDenominator(numerator, denominator);
+        if (gcd > 1){
+            numerator /= gcd;
+            denominator /= gcd;
+        }
+        return new Rational(numerator, denominator);
+    }
+
+    public Rational add(Rational other){
+        if (denominator == 1 && other.denominator == 1)
+            return new Rational(add(numerator, other.numerator), 1);
+        //a/b + c/d = (a*(d/g) + c*(b/g)) / (b*(d/g)), with g = gcd(b,d), which keeps the numbers small
+        long gcd = Operations.greatestCommonDenominator(denominator, other.denominator);
+        long numeratorSum = add(multiply(numerator, other.denominator / gcd), multiply(other.numerator, denominator / gcd));
+        return of(numeratorSum, multiply(denominator, other.denominator / gcd));
+    }
+
+    public Rational subtract(Rational other){
+        return add(other.negate());
+    }
+
+    public Rational multiply(Rational other){
+        if (denominator == 1 && other.denominator == 1)
+            return new Rational(multiply(numerator, other.numerator), 1);
+        //cross-cancel first, so the products are as small as possible
+        long gcdOne = Operations.greatestCommonDenominator(numerator, other.denominator);
+        long gcdTwo = Operations.greatestCommonDenominator(other.numerator, denominator);
+        return of(multiply(numerator / gcdOne, other.numerator / gcdTwo),
+                multiply(denominator / gcdTwo, other.denominator / gcdOne));
+    }
+
+    public Rational divide(Rational other){
+        if (other.numerator == 0)
+            throw new ArithmeticException(Operations.DIVISION_BY_ZERO);
+        return multiply(of(other.denominator, other.numerator));
+    }
+
+    public Rational negate(){
+        return new Rational(negate(numerator), denominator);
+    }
+
+    public boolean isZero(){
+        return numerator == 0;
+    }
+
+    public boolean isInteger(){
+        return denominator == 1;
+    }
+
+    public int signum(){
+        return Long.signum(numerator);
+    }
+
+    public long getNumerator() {
+        return numerator;
+    }
+
+    public long getDenominator() {
+        return denominator;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Rational))
+            return false;
+        Rational rational = (Rational) o;
+        return numerator == rational.numerator && denominator == rational.denominator;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(numerator) + Long.hashCode(denominator);
+    }
+
+    @Override
+    public String toString() {
+        return denominator == 1 ? Long.toString(numerator) : numerator + "/" + denominator;
+    }
+
+    private static long add(long a, long b){
+        long sum = a + b;
+        if (((a ^ sum) & (b ^ sum)) < 0)
+            throw new ArithmeticException(OVERFLOW);
+        return sum;
+    }
+
+    private static long multiply(long a, long b){
+        long low = a * b;
+        if (Math.multiplyHigh(a, b) != (low >> 63))
+            throw new ArithmeticException(OVERFLOW);
+        return low;
+    }
+
+    private static long negate(long a){
+        if (a == Long.MIN_VALUE)
+            throw new ArithmeticException(OVERFLOW);
+        return -a;
+    }
+}
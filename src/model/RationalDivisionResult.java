@@ -0,0 +1,39 @@
+/** Result of an exact Polynomial division (see RationalOperations.division)
+ *   - pOne = quotient * pTwo + remainder, where the remainder has a smaller degree than pTwo
+ *   - unlike DivisionResult, both parts can be used in further operations without losing anything
+ */
+
+package model;
+
+import java.io.IOException;
+
+public class RationalDivisionResult {
+    private final RationalPolynomial quotient;
+    private final RationalPolynomial remainder;
+
+    public RationalDivisionResult(RationalPolynomial quotient, RationalPolynomial remainder) {
+        this.quotient = quotient;
+        this.remainder = remainder;
+    }
+
+    public RationalPolynomial getQuotient() {
+        return quotient;
+    }
+
+    public RationalPolynomial getRemainder() {
+        return remainder;
+    }
+
+    //prints the result in the format Q: ___  R: ___, like DivisionResult
+    public String niceForm(){
+        return Rendering.render(16, out -> appendNiceForm(out));
+    }
+
+    //writes the result in the same format as niceForm into "out"
+    public void appendNiceForm(Appendable out) throws IOException{
+        out.append("Q: ");
+        quotient.appendNiceForm(out);
+        out.append("  R: ");
+        remainder.appendNiceForm(out);
+    }
+}
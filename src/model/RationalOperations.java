@@ -0,0 +1,197 @@
+/** Operations on RationalPolynomials, giving exact results
+ *   - division never truncates: the quotient gets fractions where needed, so (quotient, remainder) are real polynomials
+ *   - integration returns a polynomial (the constant "C" is left to the caller), which can be used further
+ *   - when every coefficient is an integer, Rational takes its integer fast path, so no fractions are normalized
+ *   - coefficients which do not fit in a long throw an ArithmeticException, exponents which do not fit in an int
+ *     an OverflowException, like in Operations
+ */
+
+package model;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class RationalOperations {
+    //the heap-based multiplication checks for cancellation once in this many (+1) steps
+    private static final int CANCELLATION_CHECK_MASK = (1 << 12) - 1;
+
+    //returns pOne + pTwo
+    public static RationalPolynomial addition(RationalPolynomial pOne, RationalPolynomial pTwo){
+        return merge(pOne, pTwo, false);
+    }
+
+    //returns pOne - pTwo
+    public static RationalPolynomial subtraction(RationalPolynomial pOne, RationalPolynomial pTwo){
+        return merge(pOne, pTwo, true);
+    }
+
+    /** Polynomial multiplication
+     *   - products are added up by exponent as they are made, nothing is kept per product
+     *      - if the result is dense (see ProductHeap.isDenseEnough), in an array indexed by the exponent
+     *      - otherwise with a heap-based merge (like Operations), which gives the products in decreasing order of
+     *        exponents, so the ones with the same exponent come one after another
+     */
+    public static RationalPolynomial multiplication(RationalPolynomial pOne, RationalPolynomial pTwo) throws Operations.OverflowException{
+        if (pOne.size() == 0 || pTwo.size() == 0)
+            return new RationalPolynomial();
+        Operations.overflowCheckForAddition(pOne.biggestExponent(), pTwo.biggestExponent());
+
+        long pairs = (long) pOne.size() * pTwo.size();
+        long degree = (long) pOne.biggestExponent() + pTwo.biggestExponent();
+        if (ProductHeap.isDenseEnough(pairs, degree))
+            return denseMultiplication(pOne, pTwo, (int) (degree + 1));
+        return sparseMultiplication(pOne, pTwo);
+    }
+
+    //sums the products in an array with "terms" places, null meaning zero
+    private static RationalPolynomial denseMultiplication(RationalPolynomial pOne, RationalPolynomial pTwo, int terms){
+        Rational[] sums = new Rational[terms];
+        for (int i = 0; i < pOne.size(); i++){
+            Operations.checkCancelled();
+            Rational coefficient = pOne.getCoefficient(i);
+            int exponent = pOne.getExponent(i);
+            for (int j = 0; j < pTwo.size(); j++){
+                int k = exponent + pTwo.getExponent(j);
+                Rational product = coefficient.multiply(pTwo.getCoefficient(j));
+                sums[k] = sums[k] == null ? product : sums[k].add(product);
+            }
+        }
+
+        RationalPolynomial result = new RationalPolynomial();
+        for (int k = terms - 1; k >= 0; k--)
+            if (sums[k] != null)
+                result.add(sums[k], k);
+        return result;
+    }
+
+    /** Johnson's heap-based merge (see ProductHeap), as in Operations.sparseMultiplication
+     *   - the products are summed up as Rationals, with the same order of exponents
+     *   - memory use depends on the size of the operands and of the result, not on the number of products
+     */
+    private static RationalPolynomial sparseMultiplication(RationalPolynomial pOne, RationalPolynomial pTwo){
+        if (pOne.size() > pTwo.size()){
+            RationalPolynomial aux = pOne;
+            pOne = pTwo;
+            pTwo = aux;
+        }
+
+        int n = pOne.size();
+        int m = pTwo.size();
+        ProductHeap heap = new ProductHeap(n, m, pOne::getExponent, pTwo::getExponent);
+
+        RationalPolynomial result = new RationalPolynomial(n + m);
+        int currentExponent = -1;
+        Rational currentSum = null;
+
+        long steps = 0;
+        while (heap.hasNext()){
+            if ((++steps & CANCELLATION_CHECK_MASK) == 0)
+                Operations.checkCancelled();
+            int i = heap.first();
+            int j = heap.second();
+            int exponent = heap.exponent();
+            Rational product = pOne.getCoefficient(i).multiply(pTwo.getCoefficient(j));
+
+            if (exponent != currentExponent){
+                if (currentSum != null)
+                    result.add(currentSum, currentExponent);
+                currentExponent = exponent;
+                currentSum = product;
+            }
+            else
+                currentSum = currentSum.add(product);
+
+            heap.advance();
+        }
+        result.add(currentSum, currentExponent);
+        return result;
+    }
+
+    /** Polynomial long division, without truncation
+     *   - every step divides the leading term of the remainder by the leading term of pTwo exactly
+     *   - throws an ArithmeticException if pTwo is zero
+     */
+    public static RationalDivisionResult division(RationalPolynomial pOne, RationalPolynomial pTwo){
+        if (pTwo.size() == 0)
+            throw new ArithmeticException(Operations.DIVISION_BY_ZERO);
+
+        //remainder, by exponent in decreasing order
+        TreeMap<Integer, Rational> remainder = new TreeMap<>((a, b) -> Integer.compare(b, a));
+        for (int i = 0; i < pOne.size(); i++)
+            remainder.merge(pOne.getExponent(i), pOne.getCoefficient(i), Rational::add);
+
+        int divisorExponent = pTwo.biggestExponent();
+        Rational divisorCoefficient = pTwo.getCoefficient(0);
+        RationalPolynomial quotient = new RationalPolynomial();
+
+        while (!remainder.isEmpty() && remainder.firstKey() >= divisorExponent){
+            Operations.checkCancelled();
+            Map.Entry<Integer, Rational> leading = remainder.firstEntry();
+            int exponent = leading.getKey() - divisorExponent;
+            Rational coefficient = leading.getValue().divide(divisorCoefficient);
+            quotient.add(coefficient, exponent);
+
+            //remainder -= coefficient * x^exponent * pTwo, the leading term disappears
+            remainder.pollFirstEntry();
+            for (int j = 1; j < pTwo.size(); j++){
+                Rational product = coefficient.multiply(pTwo.getCoefficient(j));
+                Rational value = remainder.merge(exponent + pTwo.getExponent(j), product.negate(), Rational::add);
+                if (value.isZero())
+                    remainder.remove(exponent + pTwo.getExponent(j));
+            }
+        }
+
+        RationalPolynomial rest = new RationalPolynomial(remainder.size());
+        for (Map.Entry<Integer, Rational> entry : remainder.entrySet())
+            rest.add(entry.getValue(), entry.getKey());
+        return new RationalDivisionResult(quotient, rest);
+    }
+
+    //the derivative of c*x^e is c*e*x^(e-1), constants disappear
+    public static RationalPolynomial differentiation(RationalPolynomial pOne){
+        RationalPolynomial result = new RationalPolynomial(pOne.size());
+        for (int i = 0; i < pOne.size(); i++){
+            int exponent = pOne.getExponent(i);
+            if (exponent != 0)
+                result.add(pOne.getCoefficient(i).multiply(Rational.of(exponent)), exponent - 1);
+        }
+        return result;
+    }
+
+    //the integral of c*x^e is c/(e+1)*x^(e+1); the constant of integration is not part of the result
+    public static RationalPolynomial integration(RationalPolynomial pOne) throws Operations.OverflowException{
+        Operations.overflowCheckForAddition(pOne.biggestExponent(), 1);
+        RationalPolynomial result = new RationalPolynomial(pOne.size());
+        for (int i = 0; i < pOne.size(); i++){
+            int exponent = pOne.getExponent(i) + 1;
+            result.add(pOne.getCoefficient(i).divide(Rational.of(exponent)), exponent);
+        }
+        return result;
+    }
+
+    //merges the terms of the two polynomials in decreasing order of exponents, adding or subtracting pTwo
+    private static RationalPolynomial merge(RationalPolynomial pOne, RationalPolynomial pTwo, boolean subtract){
+        RationalPolynomial result = new RationalPolynomial(pOne.size() + pTwo.size());
+        int n = 0;
+        int m = 0;
+        while (n < pOne.size() || m < pTwo.size()){
+            if (m == pTwo.size() || (n < pOne.size() && pOne.getExponent(n) > pTwo.getExponent(m))){
+                result.add(pOne.getCoefficient(n), pOne.getExponent(n));
+                n++;
+            }
+            else if (n == pOne.size() || pTwo.getExponent(m) > pOne.getExponent(n)){
+                Rational coefficient = pTwo.getCoefficient(m);
+                result.add(subtract ? coefficient.negate() : coefficient, pTwo.getExponent(m));
+                m++;
+            }
+            else{
+                Rational a = pOne.getCoefficient(n);
+                Rational b = pTwo.getCoefficient(m);
+                result.add(subtract ? a.subtract(b) : a.add(b), pOne.getExponent(n));
+                n++;
+                m++;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,154 @@
+/** Polynomial with rational coefficients, the result of exact division and integration (see RationalOperations)
+ *   - terms are stored like in Polynomial (parallel arrays, in the order they were added, zeros skipped)
+ *   - the denominators array is only created when the first fraction is added, so polynomials with integer
+ *     coefficients (the usual case) cost the same as a Polynomial, and their operations skip the fraction arithmetic
+ */
+
+package model;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class RationalPolynomial {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] exponents;
+    private long[] numerators;
+    private long[] denominators;    //null while every coefficient is an integer
+    private int size;
+
+    public RationalPolynomial(){
+        this(INITIAL_CAPACITY);
+    }
+
+    public RationalPolynomial(int capacity){
+        capacity = Math.max(capacity, 1);
+        exponents = new int[capacity];
+        numerators = new long[capacity];
+        size = 0;
+    }
+
+    //builds the rational form of a Polynomial, all coefficients are integers
+    public static RationalPolynomial of(Polynomial polynomial){
+        RationalPolynomial result = new RationalPolynomial(polynomial.size());
+        for (int i = 0; i < polynomial.size(); i++)
+            result.add(polynomial.getCoefficient(i), polynomial.getExponent(i));
+        return result;
+    }
+
+    //adds an integer term, zeros are skipped
+    public void add(long coefficient, int exponent){
+        if (coefficient == 0)
+            return;
+        ensureCapacity();
+        exponents[size] = exponent;
+        numerators[size] = coefficient;
+        if (denominators != null)
+            denominators[size] = 1;
+        size++;
+    }
+
+    //adds a term, zeros are skipped
+    public void add(Rational coefficient, int exponent){
+        if (coefficient.isZero())
+            return;
+        if (coefficient.isInteger()){
+            add(coefficient.getNumerator(), exponent);
+            return;
+        }
+        ensureCapacity();
+        if (denominators == null){
+            denominators = new long[numerators.length];
+            Arrays.fill(denominators, 0, size, 1);
+        }
+        exponents[size] = exponent;
+        numerators[size] = coefficient.getNumerator();
+        denominators[size] = coefficient.getDenominator();
+        size++;
+    }
+
+    private void ensureCapacity(){
+        if (size < exponents.length)
+            return;
+        exponents = Arrays.copyOf(exponents, size * 2);
+        numerators = Arrays.copyOf(numerators, size * 2);
+        if (denominators != null)
+            denominators = Arrays.copyOf(denominators, size * 2);
+    }
+
+    //return number of terms
+    public int size(){
+        return size;
+    }
+
+    public int getExponent(int index){
+        return exponents[index];
+    }
+
+    public Rational getCoefficient(int index){
+        return denominators == null ? Rational.of(numerators[index]) : Rational.of(numerators[index], denominators[index]);
+    }
+
+    //numerator of the coefficient on position "index", the coefficient itself if isInteger
+    public long getNumerator(int index){
+        return numerators[index];
+    }
+
+    public long getDenominator(int index){
+        return denominators == null ? 1 : denominators[index];
+    }
+
+    //checks if every coefficient is an integer
+    public boolean isInteger(){
+        if (denominators == null)
+            return true;
+        for (int i = 0; i < size; i++)
+            if (denominators[i] != 1)
+                return false;
+        return true;
+    }
+
+    //returns the biggest exponent, aka the first term's exponent
+    public int biggestExponent(){
+        if (size == 0)
+            return 0;
+        return exponents[0];
+    }
+
+    //returns the Polynomial form; throws an ArithmeticException if a coefficient is a fraction or does not fit in an int
+    public Polynomial toPolynomial(){
+        Polynomial result = new Polynomial(size);
+        for (int i = 0; i < size; i++){
+            if (getDenominator(i) != 1 || numerators[i] > Integer.MAX_VALUE || numerators[i] < Integer.MIN_VALUE)
+                throw new ArithmeticException("Coefficient is not an int.");
+            result.add(numerators[i], exponents[i]);
+        }
+        return result;
+    }
+
+    //prints the polynomial in the form used by Operations.integration: fractions are written as (numerator x^e)/denominator
+    public String niceForm(){
+        return Rendering.render(size * 8, out -> appendNiceForm(out));
+    }
+
+    public void appendNiceForm(Appendable out) throws IOException{
+        if (size == 0){
+            out.append('0');
+            return;
+        }
+
+        for (int i = 0; i < size; i++){
+            if (i > 0 && numerators[i] > 0)
+                out.append('+');
+
+            long denominator = getDenominator(i);
+            if (denominator == 1){
+                Monomial.appendNiceForm(out, numerators[i], exponents[i]);
+                continue;
+            }
+            out.append('(');
+            Monomial.appendNiceForm(out, numerators[i], exponents[i]);
+            out.append(")/").append(Long.toString(denominator));
+        }
+    }
+}
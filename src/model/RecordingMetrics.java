@@ -0,0 +1,119 @@
+/** Metrics which keep everything they are told, for the batch mode's --metrics option and for JMX
+ *   - per operation: a latency histogram, a histogram of the operands' term counts and the number of overflows
+ *   - parse failures, by reason, and the named counters
+ *   - toString gives a text report, register makes the numbers available as an MBean
+ *   - thread safe, recording takes no lock (see Histogram)
+ */
+
+package model;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RecordingMetrics implements Metrics, RecordingMetricsMBean {
+    public static final String OBJECT_NAME = "model:type=RecordingMetrics";
+
+    private final Map<String, OperationStatistics> operations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> parseFailures = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    //what is known about one operation
+    private static class OperationStatistics {
+        private final Histogram latency = new Histogram();
+        private final Histogram terms = new Histogram();
+        private final LongAdder overflows = new LongAdder();
+    }
+
+    @Override
+    public void operationCompleted(String operation, long nanos, int terms){
+        OperationStatistics statistics = statistics(operation);
+        statistics.latency.record(nanos);
+        statistics.terms.record(terms);
+    }
+
+    @Override
+    public void overflow(String operation){
+        statistics(operation).overflows.increment();
+    }
+
+    @Override
+    public void parseFailed(String reason){
+        parseFailures.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void count(String counter, long delta){
+        counters.computeIfAbsent(counter, c -> new LongAdder()).add(delta);
+    }
+
+    private OperationStatistics statistics(String operation){
+        return operations.computeIfAbsent(operation, o -> new OperationStatistics());
+    }
+
+    //makes this object available to JMX clients, under OBJECT_NAME
+    public void register() throws JMException{
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    @Override
+    public long getOperationCount(){
+        long total = 0;
+        for (OperationStatistics statistics : operations.values())
+            total += statistics.latency.getCount();
+        return total;
+    }
+
+    @Override
+    public long getOverflowCount(){
+        long total = 0;
+        for (OperationStatistics statistics : operations.values())
+            total += statistics.overflows.sum();
+        return total;
+    }
+
+    @Override
+    public long getParseFailureCount(){
+        long total = 0;
+        for (LongAdder failures : parseFailures.values())
+            total += failures.sum();
+        return total;
+    }
+
+    @Override
+    public String getReport(){
+        return toString();
+    }
+
+    @Override
+    public double latencyPercentile(String operation, double percentile){
+        OperationStatistics statistics = operations.get(operation);
+        return statistics == null ? 0 : statistics.latency.getPercentile(percentile) / 1e3;
+    }
+
+    //one line per operation (latencies in microseconds), then the parse failures and the counters, sorted by name
+    @Override
+    public String toString(){
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-14s %9s %10s %10s %10s %10s %10s %9s %9s%n", "operation", "count", "mean us",
+                "p50 us", "p90 us", "p99 us", "max us", "p50 terms", "overflows"));
+        for (Map.Entry<String, OperationStatistics> entry : new TreeMap<>(operations).entrySet()){
+            Histogram latency = entry.getValue().latency;
+            report.append(String.format("%-14s %9d %10.1f %10.1f %10.1f %10.1f %10.1f %9d %9d%n", entry.getKey(),
+                    latency.getCount(), latency.getMean() / 1e3, latency.getPercentile(50) / 1e3,
+                    latency.getPercentile(90) / 1e3, latency.getPercentile(99) / 1e3, latency.getMax() / 1e3,
+                    entry.getValue().terms.getPercentile(50), entry.getValue().overflows.sum()));
+        }
+        report.append("parse failures: ").append(getParseFailureCount()).append(System.lineSeparator());
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(parseFailures).entrySet())
+            report.append("  ").append(entry.getKey()).append(' ').append(entry.getValue().sum())
+                    .append(System.lineSeparator());
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet())
+            report.append(entry.getKey()).append(": ").append(entry.getValue().sum()).append(System.lineSeparator());
+        return report.toString();
+    }
+}
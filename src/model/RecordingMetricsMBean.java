@@ -0,0 +1,18 @@
+/** Management interface of RecordingMetrics, so the numbers can be watched with JConsole / VisualVM
+ */
+
+package model;
+
+public interface RecordingMetricsMBean {
+    long getOperationCount();
+
+    long getOverflowCount();
+
+    long getParseFailureCount();
+
+    //the same text as RecordingMetrics.toString
+    String getReport();
+
+    //latency of an operation (e.g. "Multiply") at a percentile, in microseconds
+    double latencyPercentile(String operation, double percentile);
+}
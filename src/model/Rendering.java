@@ -0,0 +1,32 @@
+/** Turns the appendNiceForm(...) methods into niceForm() Strings, shared by every kind of polynomial
+ *   - the appender writes into a StringBuilder, which never throws an IOException, so none is declared here
+ *   - other checked exceptions of the appender (E, like the OverflowException of a lazy pipeline) are passed on
+ */
+
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+final class Rendering {
+    private Rendering(){
+    }
+
+    //something that writes its text into an Appendable
+    @FunctionalInterface
+    interface Appender<E extends Exception> {
+        void appendTo(Appendable out) throws IOException, E;
+    }
+
+    //runs "appender" on a StringBuilder of the given initial capacity and returns the text
+    static <E extends Exception> String render(int capacity, Appender<E> appender) throws E{
+        StringBuilder output = new StringBuilder(capacity);
+        try{
+            appender.appendTo(output);
+        }
+        catch (IOException ioe){
+            throw new UncheckedIOException(ioe);      //should never be reached, StringBuilder does not throw
+        }
+        return output.toString();
+    }
+}
@@ -17,13 +17,16 @@ import java.awt.event.ActionListener;
 import java.net.URI;
 
 public class View extends JFrame {
-    final String[] OPERATIONS_TEXT_LEFT = {"Add","Multiply","Integrate"};
-    final String[] OPERATIONS_TEXT_RIGHT = {"Subtract","Divide","Differentiate"};
+    final String[] OPERATIONS_TEXT_LEFT = {"Add","Multiply","Integrate","Power"};
+    final String[] OPERATIONS_TEXT_RIGHT = {"Subtract","Divide","Differentiate","Expression"};
+    final int OPERATION_ROWS = Math.max(OPERATIONS_TEXT_LEFT.length, OPERATIONS_TEXT_RIGHT.length);
     final String[] BUTTONS_TEXT_LEFT = {"1","2","3","4","5","6","7","8","9"};
     final String[] BUTTONS_TEXT_RIGHT = {"0","+","-","^","x","del","sw","rst","help"};
     final String HELP = "Write polynomials as text in minimized form,\nwith exponents in decreasing order, " +
             "without\nusing spaces or any illegal characters.\n\nFor example: x^2-3x+8.\n\nIntegration and differentiation"+
-            " works on the\nfirst input. For more details, see documentation.\n\n\nA project realised by broland29.\n\n";
+            " works on the\nfirst input. Power raises the first input to the\nsecond one, which must be a number." +
+            " Expression\nevaluates the first input as a whole expression,\nlike ((x+1)^2*(x-1))' or (x^3-1)/(x-1)." +
+            " For more\ndetails, see documentation.\n\n\nA project realised by broland29.\n\n";
 
     private String inputTextFirst;
     private String inputTextSecond;
@@ -51,8 +54,12 @@ public class View extends JFrame {
     JTextField inputTextFieldFirst;
     JTextField inputTextFieldSecond;
 
+    JLabel previewLabel;
+
     JPanel resultPanel;
     JLabel resultLabel;
+    JProgressBar progressBar;
+    JButton cancelButton;
 
     JPanel inputAndResultPanel;
 
@@ -67,7 +74,7 @@ public class View extends JFrame {
 
         mainFrame = new JFrame("Polynomial Calculator");
         mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        mainFrame.setSize(400,500);
+        mainFrame.setSize(400,540);
         mainFrame.setResizable(false);
 
         contentPane = new JPanel();
@@ -113,6 +120,11 @@ public class View extends JFrame {
         inputPanel.add(inputPanelLeft);
         inputPanel.add(inputPanelRight);
 
+        //shows how the inputs are read, while typing
+        previewLabel = new JLabel(" ");
+        previewLabel.setFont(new Font(Font.SANS_SERIF,Font.PLAIN,12));
+        previewLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
         //resultPanel related
         resultPanel = new JPanel();
         resultPanel.setLayout(new GridBagLayout());
@@ -121,11 +133,24 @@ public class View extends JFrame {
         resultLabel.setFont(new Font(Font.SANS_SERIF,Font.PLAIN,16));
         resultPanel.add(resultLabel);
 
+        //shown only while an operation is running in the background
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setPreferredSize(new Dimension(120,16));
+        progressBar.setVisible(false);
+        cancelButton = new JButton("cancel");
+        cancelButton.setBackground(new Color(248,248,193));
+        cancelButton.setFocusable(false);
+        cancelButton.setVisible(false);
+        resultPanel.add(progressBar);
+        resultPanel.add(cancelButton);
+
         //inputAndResultLabel related
         inputAndResultPanel = new JPanel();
         inputAndResultPanel.setLayout(new BoxLayout(inputAndResultPanel,BoxLayout.Y_AXIS));
         inputAndResultPanel.setOpaque(false);
         inputAndResultPanel.add(inputPanel);
+        inputAndResultPanel.add(previewLabel);
         inputAndResultPanel.add(resultPanel);
 
         //operationPanel related
@@ -133,18 +158,18 @@ public class View extends JFrame {
         operationPanel.setLayout(new GridLayout(1,2));
 
         operationPanelLeft = new JPanel();
-        operationPanelLeft.setLayout(new GridLayout(3,1));
-        operationButtonsLeft = new JButton[3];
-        for (int i=0; i<3; i++){
+        operationPanelLeft.setLayout(new GridLayout(OPERATION_ROWS,1));
+        operationButtonsLeft = new JButton[OPERATIONS_TEXT_LEFT.length];
+        for (int i=0; i<OPERATIONS_TEXT_LEFT.length; i++){
             operationButtonsLeft[i] = new JButton(OPERATIONS_TEXT_LEFT[i]);
             operationButtonsLeft[i].setBackground(new Color(224,239,236));
             operationPanelLeft.add(operationButtonsLeft[i]);
         }
 
         operationPanelRight = new JPanel();
-        operationPanelRight.setLayout(new GridLayout(3,1));
-        operationButtonsRight = new JButton[3];
-        for (int i=0; i<3; i++){
+        operationPanelRight.setLayout(new GridLayout(OPERATION_ROWS,1));
+        operationButtonsRight = new JButton[OPERATIONS_TEXT_RIGHT.length];
+        for (int i=0; i<OPERATIONS_TEXT_RIGHT.length; i++){
             operationButtonsRight[i] = new JButton(OPERATIONS_TEXT_RIGHT[i]);
             operationButtonsRight[i].setBackground(new Color(224,239,236));
             operationPanelRight.add(operationButtonsRight[i]);
@@ -202,10 +227,14 @@ public class View extends JFrame {
     }
 
     public void addOperationButtonsListener(ActionListener obl){
-        for (int i=0; i<3; i++)
-            operationButtonsLeft[i].addActionListener(obl);
-        for (int i=0; i<3; i++)
-            operationButtonsRight[i].addActionListener(obl);
+        for (JButton button : operationButtonsLeft)
+            button.addActionListener(obl);
+        for (JButton button : operationButtonsRight)
+            button.addActionListener(obl);
+    }
+
+    public void addCancelButtonListener(ActionListener cbl){
+        cancelButton.addActionListener(cbl);
     }
 
     public void addInputDocumentListener(DocumentListener idl){
@@ -303,6 +332,31 @@ public class View extends JFrame {
         return op;
     }
 
+    //show or hide the progress indicator and the cancel button, while an operation runs in the background
+    public void setBusy(boolean busy){
+        progressBar.setVisible(busy);
+        cancelButton.setVisible(busy);
+        if (busy){
+            resultLabel.setForeground(Color.BLACK);
+            resultLabel.setText("Working... ");
+        }
+    }
+
+    //set the preview of the inputs (normalized polynomial, or the error in red), empty texts are not shown
+    public void setPreview(Message first, Message second){
+        String text = previewText(1, first) + previewText(2, second);
+        boolean incorrect = first.getMessageType() == MessageType.INCORRECT ||
+                second.getMessageType() == MessageType.INCORRECT;
+        previewLabel.setForeground(incorrect ? Color.RED : Color.DARK_GRAY);
+        previewLabel.setText(text.isEmpty() ? " " : text);
+    }
+
+    private String previewText(int id, Message message){
+        if (message.getText() == null || message.getText().isEmpty())
+            return "";
+        return "(" + id + ") " + message.getText() + "   ";
+    }
+
     //set the text of result panel, depending on the content of "message"
     public void setResultPanel(Message message, int errorSource){
         MessageType messageType = message.getMessageType();
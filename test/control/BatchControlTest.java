@@ -0,0 +1,140 @@
+/** Checks of the headless batch mode (BatchControl, what Main --batch runs)
+ *   - lines are read from a Reader and one line per operation is written into a Writer, in the order of the input
+ *   - empty lines and "#" comments are skipped, command words are case-insensitive and have short forms
+ *   - unknown operations, wrong operand counts and failing operations give "error: [text] ([source])" lines
+ *   - the same output and statistics with more than one thread
+ *   - an IOException of the Writer is passed on to the caller
+ */
+
+package control;
+
+import model.Message;
+import model.MessageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchControlTest {
+    private static final String[] COMMANDS = {"add", "sub", "mul", "div", "int", "diff", "ADD", "Multiply", "pow"};
+
+    private boolean exact;
+    private ResultCache cache;
+
+    @BeforeEach
+    void save(){
+        exact = Calculation.isExact();
+        cache = Calculation.getCache();
+        Calculation.setExact(false);
+    }
+
+    @AfterEach
+    void restore(){
+        Calculation.setExact(exact);
+        Calculation.setCache(cache);
+    }
+
+    private static String run(String input, int threads) throws IOException{
+        StringWriter output = new StringWriter();
+        BatchControl.run(new StringReader(input), output, threads);
+        return output.toString();
+    }
+
+    @Test
+    void linesAndErrors() throws IOException{
+        String input = String.join("\n",
+                "add x^2+1 x-1",
+                "",
+                "# a comment",
+                "   mul   x+1   x-1   ",
+                "INTEGRATE 3x^2",
+                "diff x^3",
+                "div x^2 0",
+                "add x^^2 1",
+                "add 1 x^^2",
+                "root x^2",
+                "add x^2",
+                "int x^2 x",
+                "expr",
+                "expr (x+1) * (x-1)");
+        String expected = String.join("\n",
+                "x^2+x",
+                "x^2-1",
+                "x^3+C",
+                "3x^2",
+                "error: / by zero (0)",
+                "error: " + Calculation.calculate("Add", "x^^2", "1").getText() + " (1)",
+                "error: " + Calculation.calculate("Add", "1", "x^^2").getText() + " (2)",
+                "error: Unknown operation: root. (0)",
+                "error: Expected 2 operand(s) for add. (0)",
+                "error: Expected 1 operand(s) for int. (0)",
+                "error: Expected an expression for expr. (0)",
+                "x^2-1") + "\n";
+        assertEquals(expected, run(input, 1));
+        assertEquals(expected, run(input, 3));
+    }
+
+    //every line gives what Calculation gives for the same operation, on one thread and on several
+    @Test
+    void matchesCalculation() throws IOException{
+        Random random = new Random(9);
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        long errors = 0;
+        for (int i = 0; i < 2000; i++){
+            String command = COMMANDS[random.nextInt(COMMANDS.length)];
+            String first = (random.nextInt(9) + 1) + "x^" + random.nextInt(20) + "-" + random.nextInt(9);
+            String second = random.nextInt(10) == 0 ? "0" : random.nextInt(10) == 0 ? "x^^2" : "x^" + random.nextInt(4) + "+1";
+            OperationRequest request = OperationRequest.fromLine(command + " " + first + " " + second);
+            input.append(command).append(' ').append(first).append(' ').append(second).append('\n');
+
+            Message message = request.calculate();
+            if (message.getMessageType() == MessageType.INCORRECT){
+                expected.append("error: ").append(message.getText()).append(" (").append(message.getErrorSource()).append(')');
+                errors++;
+            }
+            else
+                expected.append(message.getText());
+            expected.append('\n');
+        }
+
+        for (int threads : new int[]{1, 4}){
+            StringWriter output = new StringWriter();
+            BatchStatistics statistics = BatchControl.run(new StringReader(input.toString()), output, threads);
+            assertEquals(expected.toString(), output.toString());
+            assertEquals(2000, statistics.getOperations());
+            assertEquals(errors, statistics.getErrors());
+        }
+    }
+
+    @Test
+    void writerFailureIsPassedOn(){
+        IOException failure = new IOException("disk full");
+        Writer failing = new Writer(){
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException{
+                throw failure;
+            }
+
+            @Override
+            public void flush(){
+            }
+
+            @Override
+            public void close(){
+            }
+        };
+        for (int threads : new int[]{1, 2})
+            assertSame(failure, assertThrows(IOException.class,
+                    () -> BatchControl.run(new StringReader("add x 1\n"), failing, threads)));
+    }
+}
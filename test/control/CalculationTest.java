@@ -0,0 +1,113 @@
+/** Checks of the exact mode of Calculation
+ *   - "Divide" and "Integrate" go through RationalOperations and give fractions instead of truncating
+ *   - the cache keeps exact and integer results apart
+ *   - a division by zero gives the same message in every mode
+ *   - the mode and the cache are static, so they are put back after every test
+ */
+
+package control;
+
+import model.Generators;
+import model.Message;
+import model.ModularOperations;
+import model.Operations;
+import model.Polynomial;
+import model.RationalOperations;
+import model.RationalPolynomial;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CalculationTest {
+    private boolean exact;
+    private ResultCache cache;
+    private ModularOperations modular;
+
+    @BeforeEach
+    void save(){
+        exact = Calculation.isExact();
+        cache = Calculation.getCache();
+        modular = Calculation.getModular();
+    }
+
+    @AfterEach
+    void restore(){
+        Calculation.setExact(exact);
+        Calculation.setCache(cache);
+        Calculation.setModular(modular);
+    }
+
+    private static String text(Message message){
+        return message.getMessageType() + " " + message.getText() + " " + message.getErrorSource();
+    }
+
+    private static String calculate(boolean exact, String operation, String first, String second){
+        Calculation.setExact(exact);
+        return text(Calculation.calculate(operation, first, second));
+    }
+
+    @Test
+    void exactDivisionAndIntegration(){
+        Calculation.setCache(null);
+        assertEquals("CORRECT Q: 0  R: x^2 0", calculate(false, "Divide", "x^2", "2x"));
+        assertEquals("CORRECT Q: (x)/2  R: 0 0", calculate(true, "Divide", "x^2", "2x"));
+        assertEquals("CORRECT Q: (x)/2  R: x 0", calculate(true, "Divide", "x^3+x", "2x^2"));
+        assertEquals("CORRECT Q: x+1  R: 0 0", calculate(true, "Divide", "x^2-1", "x-1"));
+        assertEquals("INCORRECT / by zero 0", calculate(true, "Divide", "x^2", "0"));
+
+        assertEquals("CORRECT (x^3)/3+x+C 0", calculate(true, "Integrate", "x^2+1", ""));
+        assertEquals("CORRECT C 0", calculate(true, "Integrate", "0", ""));
+        assertEquals("CORRECT (-x^6)/2+C 0", calculate(true, "Integrate", "-3x^5", ""));
+    }
+
+    @Test
+    void divisionByZeroHasOneMessage(){
+        Calculation.setCache(null);
+        assertEquals("INCORRECT / by zero 0", calculate(false, "Divide", "x^2", "0"));
+        assertEquals("INCORRECT / by zero 0", calculate(true, "Divide", "x^2", "0"));
+        Calculation.setModular(new ModularOperations(7));
+        assertEquals("INCORRECT / by zero 0", calculate(false, "Divide", "x^2", "0"));
+    }
+
+    @Test
+    void exactResultsMatchRationalOperations() throws Operations.OverflowException{
+        Calculation.setCache(null);
+        Random random = new Random(59);
+        for (int i = 0; i < 2000; i++){
+            Polynomial a = Generators.gapped(random, random.nextInt(30), 3, 1 + random.nextInt(10), 20);
+            Polynomial b = Generators.gapped(random, random.nextInt(10), 3, 1 + random.nextInt(4), 20);
+            if (a.size() == 0 || b.size() == 0)
+                continue;
+            String first = a.niceForm();
+            String second = b.niceForm();
+
+            String quotient;
+            try{
+                quotient = "CORRECT " + RationalOperations.division(RationalPolynomial.of(a), RationalPolynomial.of(b))
+                        .niceForm() + " 0";
+            }
+            catch (ArithmeticException e){
+                quotient = "INCORRECT " + e.getMessage() + " 0";
+            }
+            assertEquals(quotient, calculate(true, "Divide", first, second), first + " / " + second);
+            //integer integration writes its fractions the same way
+            String integral = calculate(false, "Integrate", first, "");
+            assertEquals("CORRECT " + RationalOperations.integration(RationalPolynomial.of(a)).niceForm() + "+C 0",
+                    integral, first);
+            assertEquals(integral, calculate(true, "Integrate", first, ""));
+        }
+    }
+
+    @Test
+    void cacheKeepsTheModesApart(){
+        Calculation.setCache(new ResultCache(16));
+        for (int i = 0; i < 2; i++){
+            assertEquals("CORRECT Q: 0  R: x^2 0", calculate(false, "Divide", "x^2", "2x"));
+            assertEquals("CORRECT Q: (x)/2  R: 0 0", calculate(true, "Divide", "x^2", "2x"));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/** Checks of ParallelBatch
+ *   - results come in the order of the requests and match the ones of Calculation on one thread
+ *   - a failing consumer stops the evaluation, and the pool can be used again afterwards (no interrupt is left behind
+ *     on its threads)
+ */
+
+package control;
+
+import model.Message;
+import model.MessageType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelBatchTest {
+    private static final String[] OPERATIONS = {"Add", "Subtract", "Multiply", "Divide", "Integrate", "Differentiate"};
+
+    private static List<OperationRequest> requests(long seed, int count){
+        Random random = new Random(seed);
+        List<OperationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++){
+            String first = (random.nextInt(9) + 1) + "x^" + random.nextInt(50) + "+" + random.nextInt(9);
+            String second = random.nextInt(20) == 0 ? "x^^2" : random.nextInt(20) == 0 ? "0" : "x^" + random.nextInt(5) + "-1";
+            requests.add(new OperationRequest(OPERATIONS[random.nextInt(OPERATIONS.length)], first, second));
+        }
+        return requests;
+    }
+
+    private static String text(Message message){
+        return message.getMessageType() + " " + message.getText() + " " + message.getErrorSource();
+    }
+
+    @Test
+    void resultsKeepTheOrder() throws InterruptedException{
+        List<OperationRequest> requests = requests(29, 5000);
+        List<String> expected = new ArrayList<>();
+        long errors = 0;
+        for (OperationRequest request : requests){
+            Message message = request.calculate();
+            expected.add(text(message));
+            if (message.getMessageType() == MessageType.INCORRECT)
+                errors++;
+        }
+
+        List<String> results = new ArrayList<>();
+        try (ParallelBatch batch = new ParallelBatch(4)){
+            BatchStatistics statistics = batch.evaluate(requests.iterator(), message -> results.add(text(message)));
+            assertEquals(requests.size(), statistics.getOperations());
+            assertEquals(errors, statistics.getErrors());
+        }
+        assertEquals(expected, results);
+    }
+
+    @Test
+    void failingConsumerStopsTheBatch() throws InterruptedException{
+        List<OperationRequest> requests = requests(30, 3000);
+        try (ParallelBatch batch = new ParallelBatch(2)){
+            List<String> results = new ArrayList<>();
+            IllegalStateException failure = assertThrows(IllegalStateException.class, () ->
+                    batch.evaluate(requests.iterator(), message -> {
+                        if (results.size() == 10)
+                            throw new IllegalStateException("consumer failed");
+                        results.add(text(message));
+                    }));
+            assertEquals("consumer failed", failure.getMessage());
+            assertEquals(10, results.size());
+
+            //the same pool again, every result must be there
+            List<String> again = new ArrayList<>();
+            batch.evaluate(requests.iterator(), message -> again.add(text(message)));
+            assertEquals(requests.size(), again.size());
+            for (int i = 0; i < again.size(); i++)
+                assertEquals(text(requests.get(i).calculate()), again.get(i));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/** Checks of ResultCache
+ *   - operands written differently but evaluating to the same polynomial find the same result
+ *   - both limits (entries and bytes) hold, dropping the least recently used results
+ */
+
+package control;
+
+import model.InputEvaluator;
+import model.Message;
+import model.MessageType;
+import model.Polynomial;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTest {
+    private static Polynomial parse(String text){
+        Polynomial polynomial = new Polynomial();
+        assertTrue(InputEvaluator.evaluationRoutine(text, polynomial, new Message()));
+        return polynomial;
+    }
+
+    private static Message message(String text){
+        Message message = new Message();
+        message.setMessageType(MessageType.CORRECT);
+        message.setText(text);
+        return message;
+    }
+
+    @Test
+    void equalOperandsShareResults(){
+        ResultCache cache = new ResultCache(16);
+        cache.put("Add", parse("x^2+1x^1"), parse("-1"), message("x^2+x-1"));
+
+        Message cached = cache.get("Add", parse("+1x^2+x"), parse("-1"));
+        assertNotNull(cached);
+        assertEquals("x^2+x-1", cached.getText());
+        assertEquals(MessageType.CORRECT, cached.getMessageType());
+        assertNull(cache.get("Subtract", parse("+1x^2+x"), parse("-1")));
+        assertNull(cache.get("Add", parse("-1"), parse("+1x^2+x")));
+        assertNull(cache.get("Differentiate", parse("+1x^2+x"), null));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    void leastRecentlyUsedIsDropped(){
+        ResultCache cache = new ResultCache(2);
+        cache.put("Differentiate", parse("x"), null, message("1"));
+        cache.put("Differentiate", parse("x^2"), null, message("2x"));
+        assertNotNull(cache.get("Differentiate", parse("x"), null));
+        cache.put("Differentiate", parse("x^3"), null, message("3x^2"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(cache.get("Differentiate", parse("x"), null));
+        assertNull(cache.get("Differentiate", parse("x^2"), null));
+    }
+
+    @Test
+    void bytesLimitHolds(){
+        ResultCache cache = new ResultCache(1000, 4096);
+        for (int exponent = 0; exponent < 200; exponent++)
+            cache.put("Differentiate", parse("x^" + (exponent + 2) + "+x"), null, message("d" + exponent));
+        assertTrue(cache.getBytes() <= cache.getMaxBytes());
+        assertTrue(cache.size() < 200);
+        assertNotNull(cache.get("Differentiate", parse("x^201+x"), null));
+    }
+}
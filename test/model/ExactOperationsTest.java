@@ -0,0 +1,193 @@
+/** Differential checks of ExactOperations against plain BigInteger arithmetic on maps of exponents
+ *   - coefficients around the limits of a long (Long.MAX_VALUE, -Long.MAX_VALUE, Long.MIN_VALUE, sqrt of the limit),
+ *     small ones, and ones which are already BigIntegers, so terms are moved from long to BigInteger and back
+ *   - products summed up in the dense array and in the hash table (see ProductHeap.isDenseEnough), both checked
+ *   - power against repeated multiplication, for single terms, binomials and longer polynomials
+ *   - a term is big exactly when its coefficient does not fit in a long
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExactOperationsTest {
+    private static final long[] EXTREMES = {Long.MAX_VALUE, -Long.MAX_VALUE, Long.MIN_VALUE, 3037000499L, -3037000500L,
+            1L << 62, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+    private static BigInteger coefficient(Random random){
+        switch (random.nextInt(4)){
+            case 0:
+                return BigInteger.valueOf(EXTREMES[random.nextInt(EXTREMES.length)] + random.nextInt(3) - 1);
+            case 1:
+                BigInteger big = new BigInteger(64 + random.nextInt(64), random);
+                return random.nextBoolean() ? big : big.negate();
+            default:
+                return BigInteger.valueOf(random.nextInt(19) - 9);
+        }
+    }
+
+    //"terms" distinct exponents below "span", in decreasing order
+    private static ExactPolynomial random(Random random, int terms, int span){
+        TreeSet<Integer> exponents = new TreeSet<>();
+        while (exponents.size() < Math.min(terms, span))
+            exponents.add(random.nextInt(span));
+        ExactPolynomial polynomial = new ExactPolynomial();
+        for (int exponent : exponents.descendingSet())
+            polynomial.add(coefficient(random), exponent);
+        return polynomial;
+    }
+
+    //the terms as a map from exponent to coefficient, checking that only the coefficients outside a long are big
+    private static TreeMap<Integer, BigInteger> terms(ExactPolynomial polynomial){
+        TreeMap<Integer, BigInteger> terms = new TreeMap<>();
+        for (int i = 0; i < polynomial.size(); i++){
+            BigInteger coefficient = polynomial.getBigCoefficient(i);
+            assertTrue(coefficient.signum() != 0);
+            assertEquals(coefficient.bitLength() >= Long.SIZE, polynomial.isBig(i), coefficient.toString());
+            if (i > 0)
+                assertTrue(polynomial.getExponent(i) < polynomial.getExponent(i - 1));
+            terms.put(polynomial.getExponent(i), coefficient);
+        }
+        return terms;
+    }
+
+    private static TreeMap<Integer, BigInteger> product(Map<Integer, BigInteger> a, Map<Integer, BigInteger> b){
+        TreeMap<Integer, BigInteger> sums = new TreeMap<>();
+        for (Map.Entry<Integer, BigInteger> one : a.entrySet())
+            for (Map.Entry<Integer, BigInteger> two : b.entrySet())
+                sums.merge(one.getKey() + two.getKey(), one.getValue().multiply(two.getValue()), BigInteger::add);
+        sums.values().removeIf(value -> value.signum() == 0);
+        return sums;
+    }
+
+    private static TreeMap<Integer, BigInteger> sum(Map<Integer, BigInteger> a, Map<Integer, BigInteger> b,
+                                                    boolean subtract){
+        TreeMap<Integer, BigInteger> sums = new TreeMap<>(a);
+        for (Map.Entry<Integer, BigInteger> two : b.entrySet())
+            sums.merge(two.getKey(), subtract ? two.getValue().negate() : two.getValue(), BigInteger::add);
+        sums.values().removeIf(value -> value.signum() == 0);
+        return sums;
+    }
+
+    private static ExactPolynomial of(long... coefficientsAndExponents){
+        ExactPolynomial polynomial = new ExactPolynomial();
+        for (int i = 0; i < coefficientsAndExponents.length; i += 2)
+            polynomial.add(coefficientsAndExponents[i], (int) coefficientsAndExponents[i + 1]);
+        return polynomial;
+    }
+
+    //dense operands (every exponent up to a small degree) and sparse ones (a few exponents up to a million)
+    @Test
+    void multiplicationMatchesBigIntegers() throws Operations.OverflowException{
+        Random random = new Random(15);
+        int dense = 0;
+        int sparse = 0;
+        for (int i = 0; i < 3000; i++){
+            boolean spread = random.nextBoolean();
+            int span = spread ? 1_000_000 : 1 + random.nextInt(40);
+            ExactPolynomial a = random(random, 1 + random.nextInt(spread ? 12 : 40), span);
+            ExactPolynomial b = random(random, 1 + random.nextInt(spread ? 12 : 40), span);
+
+            long pairs = (long) a.size() * b.size();
+            if (ProductHeap.isDenseEnough(pairs, (long) a.biggestExponent() + b.biggestExponent()))
+                dense++;
+            else
+                sparse++;
+
+            assertEquals(product(terms(a), terms(b)), terms(ExactOperations.multiplication(a, b)));
+            assertEquals(sum(terms(a), terms(b), false), terms(ExactOperations.addition(a, b)));
+            assertEquals(sum(terms(a), terms(b), true), terms(ExactOperations.subtraction(a, b)));
+        }
+        assertTrue(dense > 500 && sparse > 500, dense + " dense, " + sparse + " sparse");
+    }
+
+    @Test
+    void limitsOfLong() throws Operations.OverflowException{
+        long max = Long.MAX_VALUE;
+        long min = Long.MIN_VALUE;
+        BigInteger bigMax = BigInteger.valueOf(max);
+        BigInteger bigMin = BigInteger.valueOf(min);
+
+        //(MAX x + 1)(MAX x - 1) = MAX^2 x^2 - 1: the middle products cancel
+        ExactPolynomial square = ExactOperations.multiplication(of(max, 1, 1, 0), of(max, 1, -1, 0));
+        assertEquals(Map.of(2, bigMax.pow(2), 0, BigInteger.ONE.negate()), terms(square));
+
+        //MIN^2 = 2^126, and MIN * -1 does not fit in a long either
+        assertEquals(Map.of(0, bigMin.pow(2)), terms(ExactOperations.multiplication(of(min, 0), of(min, 0))));
+        assertEquals(Map.of(3, bigMin.negate()), terms(ExactOperations.multiplication(of(min, 3), of(-1, 0))));
+
+        //(MAX x^2 + MAX x - MAX)(x^2 + x + 1): the sum for x^2 leaves a long on the way (MAX + MAX) and comes back
+        //(- MAX), the one for x^3 stays out; once in the dense array, once in the hash table (exponents far apart)
+        for (int scale : new int[]{1, 100_000}){
+            ExactPolynomial product = ExactOperations.multiplication(of(max, 2L * scale, max, scale, -max, 0),
+                    of(1, 2L * scale, 1, scale, 1, 0));
+            assertEquals(Map.of(4 * scale, bigMax, 3 * scale, bigMax.shiftLeft(1), 2 * scale, bigMax,
+                    0, bigMax.negate()), terms(product));
+        }
+
+        //sums and differences which leave the range of a long, and come back
+        assertEquals(Map.of(0, bigMax.add(BigInteger.ONE)), terms(ExactOperations.addition(of(max, 0), of(1, 0))));
+        assertEquals(Map.of(0, bigMin.negate()), terms(ExactOperations.subtraction(new ExactPolynomial(), of(min, 0))));
+        ExactPolynomial big = ExactOperations.subtraction(of(min, 0), of(1, 0));
+        assertEquals(Map.of(0, bigMin), terms(ExactOperations.addition(big, of(1, 0))));
+        assertEquals(Map.of(), terms(ExactOperations.subtraction(big, big)));
+
+        //the derivative of MAX x^2 is 2 MAX x
+        assertEquals(Map.of(1, bigMax.shiftLeft(1)), terms(ExactOperations.differentiation(of(max, 2, 7, 0))));
+    }
+
+    //pOne^exponent by multiplying pOne again and again
+    private static TreeMap<Integer, BigInteger> power(TreeMap<Integer, BigInteger> base, int exponent){
+        TreeMap<Integer, BigInteger> result = new TreeMap<>(Map.of(0, BigInteger.ONE));
+        for (int i = 0; i < exponent; i++)
+            result = product(result, base);
+        return result;
+    }
+
+    @Test
+    void powerMatchesRepeatedMultiplication() throws Operations.OverflowException{
+        Random random = new Random(16);
+        for (int i = 0; i < 600; i++){
+            ExactPolynomial base = random(random, 1 + random.nextInt(i % 3 == 2 ? 5 : 2), 1 + random.nextInt(20));
+            int exponent = random.nextInt(10);
+            assertEquals(power(terms(base), exponent), terms(ExactOperations.power(base, exponent)), base.niceForm());
+        }
+
+        assertEquals(Map.of(0, BigInteger.ONE), terms(ExactOperations.power(new ExactPolynomial(), 0)));
+        assertEquals(Map.of(), terms(ExactOperations.power(new ExactPolynomial(), 3)));
+        assertEquals(Map.of(128, BigInteger.TWO.pow(63 * 64)), terms(ExactOperations.power(of(Long.MIN_VALUE, 2), 64)));
+        assertThrows(ArithmeticException.class, () -> ExactOperations.power(of(1, 1), -1));
+        assertThrows(Operations.OverflowException.class, () -> ExactOperations.power(of(1, 1 << 16, 1, 0), 1 << 16));
+    }
+
+    //where Operations does not overflow, both give the same result
+    @Test
+    void sameAsOperations() throws Operations.OverflowException{
+        Random random = new Random(17);
+        for (int i = 0; i < 1000; i++){
+            Polynomial a = Generators.gapped(random, random.nextInt(60), 1 + random.nextInt(4), Integer.MAX_VALUE,
+                    random.nextBoolean() ? 9 : 40000);
+            Polynomial b = Generators.gapped(random, random.nextInt(60), 1 + random.nextInt(4), Integer.MAX_VALUE,
+                    random.nextBoolean() ? 9 : 40000);
+            String expected;
+            try{
+                expected = Operations.multiplication(a, b).niceForm();
+            }
+            catch (Operations.OverflowException oe){
+                continue;
+            }
+            ExactPolynomial product = ExactOperations.multiplication(ExactPolynomial.of(a), ExactPolynomial.of(b));
+            assertEquals(expected, product.niceForm());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/** Checks of ExpressionParser and of the evaluation of Expressions
+ *   - the parser: precedence, multiplication without a sign, the derivative and integral operators, and the messages
+ *     (with positions) of bad expressions
+ *   - common subexpressions: equal subexpressions are one node, also when the operands of + and * are swapped
+ *   - evaluation against a plain recursive evaluation over RationalPolynomials, on random expressions; Evaluation
+ *     works on Polynomials while the values are integers fitting in an int, and falls back to the rationals for
+ *     fractions and big coefficients, which must not change any result (or error message)
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpressionTest {
+    private static String evaluate(String text){
+        try{
+            return ExpressionParser.parse(text).evaluateNiceForm();
+        }
+        catch (ExpressionParser.ParseException | Operations.OverflowException | ArithmeticException e){
+            return e.getMessage();
+        }
+    }
+
+    private static String parseError(String text){
+        return assertThrows(ExpressionParser.ParseException.class, () -> ExpressionParser.parse(text)).getMessage();
+    }
+
+    @Test
+    void precedence(){
+        assertEquals("6x+1", evaluate("1+2x*3"));
+        assertEquals("-x^2", evaluate("-x^2"));
+        assertEquals("x^6", evaluate("(x^2)^3"));
+        assertEquals("8x", evaluate("2^3x"));
+        assertEquals("-x+1", evaluate("-(x-1)"));
+        assertEquals("x^2-x", evaluate("x*x-x"));
+        assertEquals("x-2", evaluate("x-1-1"));
+        assertEquals("x+1", evaluate("(x^2-1)/(x-1)"));
+        assertEquals("2", evaluate("(x^2+1)%(x-1)"));
+        assertEquals("0", evaluate("x^3/x*x%x^3"));
+    }
+
+    @Test
+    void implicitMultiplication(){
+        assertEquals("2x+2", evaluate("2(x+1)"));
+        assertEquals("x^2-1", evaluate("(x+1)(x-1)"));
+        assertEquals("6", evaluate("2 3"));
+        assertEquals("2x^2+2x", evaluate("2x(x+1)"));
+    }
+
+    @Test
+    void derivativesAndIntegrals(){
+        assertEquals("2x", evaluate("x^2'"));
+        assertEquals("2x+2", evaluate("(x+1)^2'"));
+        assertEquals("0", evaluate("(x)''"));
+        assertEquals("3x^2", evaluate("d/dx x^3"));
+        assertEquals("x^3", evaluate("∫ 3x^2 dx"));
+        assertEquals("x^3", evaluate("∫3x^2"));
+        assertEquals("(x^2)/2", evaluate("∫x"));
+        assertEquals("3x^2+1", evaluate("d/dx ∫(3x^2+1)"));
+    }
+
+    @Test
+    void errorsTellWhere(){
+        assertEquals("Empty expression.", parseError(""));
+        assertEquals("Unexpected end of expression.", parseError("x+"));
+        assertEquals("Missing closing parenthesis.", parseError("(x+1"));
+        assertEquals("Unexpected ')' at position 5.", parseError("x + )"));
+        assertEquals("Unexpected 'y' at position 3.", parseError("x y"));
+        assertEquals("Exponent must be a non-negative integer, at position 3.", parseError("x^-1"));
+        assertEquals("Exponent too big at position 3.", parseError("x^99999999999"));
+        assertEquals("Number too big at position 1.", parseError("99999999999999999999"));
+        assertEquals("Expression nested too deeply.", parseError("(".repeat(2000) + "x" + ")".repeat(2000)));
+        assertEquals("/ by zero", evaluate("x/0"));
+    }
+
+    @Test
+    void commonSubexpressionsAreOneNode() throws ExpressionParser.ParseException{
+        assertEquals(4, ExpressionParser.parse("(x+1)*(x+1)").countNodes());
+        assertEquals(6, ExpressionParser.parse("(x+1)*(x-1)+(x-1)*(x+1)").countNodes());
+        assertEquals(5, ExpressionParser.parse("(1+x)*(x+1)+(x+1)").countNodes());
+        assertEquals(2, ExpressionParser.parse("2147483647x+2147483647x").countNodes());
+
+        Expression product = ExpressionParser.parse("(x+1)*(x-1)-(x-1)*(x+1)");
+        assertSame(product.getLeft(), product.getRight());
+        assertEquals("0", evaluate("(x+1)*(x-1)-(x-1)*(x+1)"));
+    }
+
+    //values which do not fit in an int, or are not integers, are worked out over the rationals
+    @Test
+    void integerAndRationalValues(){
+        assertEquals("4294967294x", evaluate("2147483647x+2147483647x"));
+        assertEquals("(x)/2", evaluate("x/2"));
+        assertEquals("x", evaluate("x/2*2"));
+        assertEquals("(x^2)/4+x", evaluate("∫x/2+x"));
+        assertEquals("x^3+4294967294", evaluate("(x^3+2147483647)+2147483647"));
+        assertEquals("-2147483648x-2147483648", evaluate("-2147483648(x+1)"));
+        assertEquals("2147483648x", evaluate("-(-2147483648x)"));
+        assertEquals("x^40+40x^39", evaluate("(x+1)^40").substring(0, 11));
+    }
+
+    //a random expression over a few operands and operators, "depth" levels deep at most
+    private static String randomExpression(Random random, int depth){
+        if (depth == 0 || random.nextInt(4) == 0){
+            long coefficient = random.nextInt(10) == 0 ? (random.nextBoolean() ? 2147483647 : -2147483648L)
+                    : random.nextInt(9) + 1;
+            return "(" + coefficient + "x^" + random.nextInt(4) + ")";
+        }
+        String left = randomExpression(random, depth - 1);
+        String right = randomExpression(random, depth - 1);
+        return switch (random.nextInt(11)) {
+            case 0, 1 -> "(" + left + "+" + right + ")";
+            case 2 -> "(" + left + "-" + right + ")";
+            case 3, 4 -> "(" + left + "*" + right + ")";
+            case 5 -> "(" + left + "/" + right + ")";
+            case 6 -> "(" + left + "%" + right + ")";
+            case 7 -> "(" + left + ")^" + random.nextInt(4);
+            case 8 -> "(-" + left + ")";
+            case 9 -> "(" + left + ")'";
+            default -> "(∫" + left + ")";
+        };
+    }
+
+    //the value of a node over RationalPolynomials, child by child, without any of the integer paths
+    private static RationalPolynomial reference(Expression node) throws Operations.OverflowException{
+        RationalPolynomial left = node.getLeft() == null ? null : reference(node.getLeft());
+        RationalPolynomial right = node.getRight() == null ? null : reference(node.getRight());
+        switch (node.getKind()) {
+            case MONOMIAL -> {
+                RationalPolynomial term = new RationalPolynomial(1);
+                term.add(node.getValue(), node.getExponent());
+                return term;
+            }
+            case ADD -> {
+                return RationalOperations.addition(left, right);
+            }
+            case SUBTRACT -> {
+                return RationalOperations.subtraction(left, right);
+            }
+            case MULTIPLY -> {
+                return RationalOperations.multiplication(left, right);
+            }
+            case DIVIDE -> {
+                return RationalOperations.division(left, right).getQuotient();
+            }
+            case REMAINDER -> {
+                return RationalOperations.division(left, right).getRemainder();
+            }
+            case POWER -> {
+                RationalPolynomial result = new RationalPolynomial(1);
+                result.add(1, 0);
+                for (long i = 0; i < node.getValue(); i++)
+                    result = RationalOperations.multiplication(result, left);
+                return result;
+            }
+            case NEGATE -> {
+                return RationalOperations.subtraction(new RationalPolynomial(), left);
+            }
+            case DERIVATIVE -> {
+                return RationalOperations.differentiation(left);
+            }
+            default -> {
+                return RationalOperations.integration(left);
+            }
+        }
+    }
+
+    private static String referenceOutcome(Expression expression){
+        try{
+            return reference(expression).niceForm();
+        }
+        catch (Operations.OverflowException | ArithmeticException e){
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    void evaluationMatchesRationals() throws ExpressionParser.ParseException, Operations.OverflowException{
+        Random random = new Random(31);
+        for (int i = 0; i < 20000; i++){
+            String text = randomExpression(random, 1 + random.nextInt(5));
+            Expression expression = ExpressionParser.parse(text);
+            String expected = referenceOutcome(expression);
+            assertEquals(expected, evaluate(text), text);
+            if (!expected.endsWith(".") && !expected.equals(Operations.DIVISION_BY_ZERO))        //not an error message
+                assertEquals(expected, expression.evaluate().niceForm(), text);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/** Differential checks of Newton division (FastDivision) against long division
+ *   - the same division is done once with the Newton threshold at 1 and once with Newton iteration turned off; the
+ *     results, or the overflow messages, must be the same
+ */
+
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FastDivisionTest {
+    private int newtonThreshold;
+
+    @BeforeEach
+    void saveThreshold(){
+        newtonThreshold = FastDivision.getNewtonThreshold();
+    }
+
+    @AfterEach
+    void restoreThreshold(){
+        FastDivision.setNewtonThreshold(newtonThreshold);
+    }
+
+    //quotient and remainder, or the message of the exception
+    private static String divide(Polynomial dividend, Polynomial divisor, int threshold){
+        FastDivision.setNewtonThreshold(threshold);
+        try{
+            return Operations.division(dividend, divisor).niceForm();
+        }
+        catch (Operations.OverflowException | ArithmeticException e){
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    void newtonMatchesLongDivision(){
+        Random random = new Random(4);
+        for (int i = 0; i < 2000; i++){
+            Polynomial divisor = Generators.dense(random, 1 + random.nextInt(40), 3, random.nextInt(4) > 0);
+            Polynomial dividend = Generators.dense(random, divisor.biggestExponent() + random.nextInt(60), 3, false);
+            assertEquals(divide(dividend, divisor, Integer.MAX_VALUE), divide(dividend, divisor, 1));
+        }
+    }
+
+    @Test
+    void exactQuotientsMatchLongDivision() throws Operations.OverflowException{
+        Random random = new Random(5);
+        for (int i = 0; i < 500; i++){
+            Polynomial divisor = Generators.dense(random, 1 + random.nextInt(60), 100, true);
+            Polynomial quotient = Generators.dense(random, random.nextInt(60), 100, false);
+            Polynomial dividend = Operations.addition(Operations.multiplication(quotient, divisor),
+                    Generators.dense(random, divisor.biggestExponent() - 1, 100, false));
+            assertEquals(divide(dividend, divisor, Integer.MAX_VALUE), divide(dividend, divisor, 1));
+        }
+    }
+
+    //big coefficients, which may overflow in the middle of long division while the results would fit
+    @Test
+    void overflowsMatchLongDivision(){
+        Random random = new Random(6);
+        for (int i = 0; i < 20000; i++){
+            int degree = 2 + random.nextInt(8);
+            Polynomial dividend = new Polynomial();
+            for (int exponent = degree; exponent >= 0; exponent--)
+                dividend.add(random.nextInt(5) == 0 ? (random.nextBoolean() ? 1 : -1) * (2_000_000_000L +
+                        random.nextInt(100_000_000)) : random.nextInt(7) - 3, exponent);
+            Polynomial divisor = Generators.dense(random, 1 + random.nextInt(degree), 1, true);
+            if (dividend.size() > 0)
+                assertEquals(divide(dividend, divisor, Integer.MAX_VALUE), divide(dividend, divisor, 1));
+        }
+    }
+}
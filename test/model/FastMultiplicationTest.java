@@ -0,0 +1,74 @@
+/** Differential checks of the fast multiplications against the schoolbook loop
+ *   - the thresholds are lowered, so Karatsuba and Toom-3 run on small random operands too
+ *   - Operations.multiplication is compared with multiplying the polynomials term by term
+ */
+
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastMultiplicationTest {
+    private int karatsubaThreshold;
+    private int toomThreshold;
+    private int nttThreshold;
+
+    @BeforeEach
+    void saveThresholds(){
+        karatsubaThreshold = FastMultiplication.getKaratsubaThreshold();
+        toomThreshold = FastMultiplication.getToomThreshold();
+        nttThreshold = FastMultiplication.getNttThreshold();
+    }
+
+    @AfterEach
+    void restoreThresholds(){
+        FastMultiplication.setKaratsubaThreshold(karatsubaThreshold);
+        FastMultiplication.setToomThreshold(toomThreshold);
+        FastMultiplication.setNttThreshold(nttThreshold);
+    }
+
+    @Test
+    void karatsubaAndToomMatchSchoolbook(){
+        FastMultiplication.setKaratsubaThreshold(2);
+        FastMultiplication.setToomThreshold(3);
+        FastMultiplication.setNttThreshold(Integer.MAX_VALUE);
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++){
+            long[] a = Generators.array(random, 200, 1000);
+            long[] b = Generators.array(random, 200, 1000);
+            assertTrue(FastMultiplication.isSafe(a, b));
+            assertArrayEquals(FastMultiplication.schoolbook(a, b), FastMultiplication.multiply(a, b));
+        }
+    }
+
+    @Test
+    void multiplicationMatchesTermByTerm() throws Operations.OverflowException{
+        FastMultiplication.setKaratsubaThreshold(2);
+        FastMultiplication.setToomThreshold(3);
+        FastMultiplication.setNttThreshold(16);
+        Random random = new Random(3);
+        for (int i = 0; i < 1000; i++){
+            Polynomial a = Polynomial.fromDense(Generators.array(random, 100, 100));
+            Polynomial b = Polynomial.fromDense(Generators.array(random, 100, 100));
+
+            Polynomial expected = new Polynomial();
+            for (int j = 0; j < a.size(); j++){
+                Polynomial term = new Polynomial(1);
+                term.add(a.getCoefficient(j), a.getExponent(j));
+                for (int k = 0; k < b.size(); k++){
+                    Polynomial product = new Polynomial(1);
+                    product.add(term.getCoefficient(0) * b.getCoefficient(k), term.getExponent(0) + b.getExponent(k));
+                    expected = Operations.addition(expected, product);
+                }
+            }
+            assertEquals(expected, Operations.multiplication(a, b));
+        }
+    }
+}
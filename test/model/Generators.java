@@ -0,0 +1,59 @@
+/** Random operands shared by the tests, always drawn from a Random the test seeds itself
+ *   - coefficient arrays for the dense algorithms (FastMultiplication, NumberTheoreticTransform)
+ *   - dense polynomials of a given degree, with a non-zero (or a monic) leading term
+ *   - gapped polynomials, where every exponent below the degree is present with some probability
+ *   - descending polynomials, whose coefficients and gaps between the exponents are chosen by the test
+ *   - public, since the tests of control use them too
+ */
+
+package model;
+
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+public final class Generators {
+    private Generators(){
+    }
+
+    //between -maxCoefficient and maxCoefficient, 0 included
+    public static int coefficient(Random random, int maxCoefficient){
+        return random.nextInt(2 * maxCoefficient + 1) - maxCoefficient;
+    }
+
+    //1..maxLength coefficients, each between -maxCoefficient and maxCoefficient
+    public static long[] array(Random random, int maxLength, int maxCoefficient){
+        long[] array = new long[1 + random.nextInt(maxLength)];
+        for (int i = 0; i < array.length; i++)
+            array[i] = coefficient(random, maxCoefficient);
+        return array;
+    }
+
+    //every exponent from "degree" down to 0; the leading coefficient is 1 or -1 if "monic", otherwise not 0
+    public static Polynomial dense(Random random, int degree, int maxCoefficient, boolean monic){
+        Polynomial polynomial = new Polynomial();
+        int leading = monic ? 1 : 1 + random.nextInt(maxCoefficient);
+        polynomial.add(random.nextBoolean() ? leading : -leading, degree);
+        for (int exponent = degree - 1; exponent >= 0; exponent--)
+            polynomial.add(coefficient(random, maxCoefficient), exponent);
+        return polynomial;
+    }
+
+    //at most "terms" terms from "degree" down to 0, each exponent present with probability 1/gap
+    public static Polynomial gapped(Random random, int degree, int gap, int terms, int maxCoefficient){
+        Polynomial polynomial = new Polynomial();
+        for (int exponent = degree; exponent >= 0 && polynomial.size() < terms; exponent--)
+            if (random.nextInt(gap) == 0)
+                polynomial.add(coefficient(random, maxCoefficient), exponent);
+        return polynomial;
+    }
+
+    //at most "terms" terms from "exponent" downwards, each "step" below the one before
+    public static Polynomial descending(int exponent, int terms, IntSupplier coefficient, IntSupplier step){
+        Polynomial polynomial = new Polynomial();
+        for (; terms > 0 && exponent >= 0; terms--){
+            polynomial.add(coefficient.getAsInt(), exponent);
+            exponent -= step.getAsInt();
+        }
+        return polynomial;
+    }
+}
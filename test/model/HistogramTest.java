@@ -0,0 +1,90 @@
+/** Checks of the bucket arithmetic of Histogram
+ *   - the values around the bucket boundaries (127/128, 255/256) and the extremes (0, Long.MAX_VALUE)
+ *   - percentiles of random values of every magnitude against the exact percentiles of the sorted values: never
+ *     lower, and higher by at most 1/64 of the exact value
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+    private static final long[] BOUNDARIES = {0, 127, 128, 255, 256, Long.MAX_VALUE};
+
+    private static void assertClose(long exact, long percentile, String context){
+        assertTrue(percentile >= exact, context + ": " + percentile + " < " + exact);
+        assertTrue(percentile - exact <= exact / 64, context + ": " + percentile + " too far from " + exact);
+    }
+
+    //the smallest of the sorted values which at least "percentile" percent of the values are not bigger than
+    private static long exact(long[] sorted, double percentile){
+        return sorted[(int) Math.max(0, Math.ceil(percentile / 100 * sorted.length) - 1)];
+    }
+
+    //recorded with Long.MAX_VALUE, so the median is the highest value of the bucket and not clamped to the maximum
+    @Test
+    void boundaryValues(){
+        for (long value : BOUNDARIES){
+            Histogram histogram = new Histogram();
+            histogram.record(value);
+            histogram.record(Long.MAX_VALUE);
+            assertClose(value, histogram.getPercentile(50), "median of " + value);
+            assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+            assertEquals(Long.MAX_VALUE, histogram.getMax());
+        }
+
+        Histogram histogram = new Histogram();
+        for (long value : BOUNDARIES)
+            histogram.record(value);
+        for (double percentile = 0; percentile <= 100; percentile += 2.5)
+            assertClose(exact(BOUNDARIES, percentile), histogram.getPercentile(percentile), "percentile " + percentile);
+        assertEquals(BOUNDARIES.length, histogram.getCount());
+    }
+
+    //below 128 every value has its own bucket
+    @Test
+    void smallValuesAreExact(){
+        for (long value = 0; value < 128; value++){
+            Histogram histogram = new Histogram();
+            histogram.record(value);
+            histogram.record(1000);
+            assertEquals(value, histogram.getPercentile(50));
+        }
+    }
+
+    @Test
+    void percentilesMatchSortedValues(){
+        Random random = new Random(22);
+        for (int i = 0; i < 200; i++){
+            long[] values = new long[1 + random.nextInt(1000)];
+            Histogram histogram = new Histogram();
+            for (int j = 0; j < values.length; j++){
+                values[j] = (random.nextLong() >>> 1) >>> random.nextInt(63);
+                histogram.record(values[j]);
+            }
+            Arrays.sort(values);
+            for (double percentile : new double[]{0, 1, 25, 50, 90, 99, 99.9, 100})
+                assertClose(exact(values, percentile), histogram.getPercentile(percentile), "percentile " + percentile);
+            assertEquals(values[values.length - 1], histogram.getMax());
+            assertEquals(values.length, histogram.getCount());
+        }
+    }
+
+    @Test
+    void emptyAndNegative(){
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMean());
+        histogram.record(-5);
+        histogram.record(4);
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(4, histogram.getPercentile(100));
+        assertEquals(2, histogram.getMean());
+    }
+}
@@ -0,0 +1,129 @@
+/** Checks of the hash-consed ImmutablePolynomial
+ *   - addition and subtraction against Operations, the results or the overflow messages must be the same
+ *   - equal polynomials are the same object, also when they are built by several threads at the same time
+ *   - the untouched tail of an operand is reused by the result
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ImmutablePolynomialTest {
+    private static Polynomial random(Random random){
+        return random(random, true);
+    }
+
+    //with "extremes", some coefficients are the biggest or the smallest int, so the operations may overflow
+    private static Polynomial random(Random random, boolean extremes){
+        return Generators.descending(random.nextInt(30), Integer.MAX_VALUE,
+                () -> extremes && random.nextInt(10) == 0 ? (random.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE)
+                        : Generators.coefficient(random, 5),
+                () -> 1 + random.nextInt(4));
+    }
+
+    private interface Operation<T> {
+        T apply(T one, T two) throws Operations.OverflowException;
+    }
+
+    private static String outcome(Operation<Polynomial> operation, Polynomial one, Polynomial two){
+        try{
+            return operation.apply(one, two).niceForm();
+        }
+        catch (Operations.OverflowException oe){
+            return oe.getMessage();
+        }
+    }
+
+    private static String immutableOutcome(Operation<ImmutablePolynomial> operation, Polynomial one, Polynomial two){
+        try{
+            return operation.apply(ImmutablePolynomial.of(one), ImmutablePolynomial.of(two)).niceForm();
+        }
+        catch (Operations.OverflowException oe){
+            return oe.getMessage();
+        }
+    }
+
+    @Test
+    void operationsMatchOperations(){
+        Random random = new Random(12);
+        for (int i = 0; i < 20000; i++){
+            Polynomial one = random(random);
+            Polynomial two = random(random);
+            assertEquals(outcome(Operations::addition, one, two), immutableOutcome(ImmutablePolynomial::add, one, two));
+            assertEquals(outcome(Operations::subtraction, one, two),
+                    immutableOutcome(ImmutablePolynomial::subtract, one, two));
+        }
+    }
+
+    @Test
+    void equalPolynomialsAreTheSameObject() throws Operations.OverflowException{
+        Random random = new Random(13);
+        for (int i = 0; i < 1000; i++){
+            Polynomial polynomial = random(random, false);
+            ImmutablePolynomial immutable = ImmutablePolynomial.of(polynomial);
+            assertSame(immutable, ImmutablePolynomial.of(new Polynomial(polynomial)));
+            assertSame(immutable, ImmutablePolynomial.of(immutable.toPolynomial()));
+            assertSame(ImmutablePolynomial.ZERO, immutable.subtract(immutable.add(ImmutablePolynomial.ZERO)));
+        }
+    }
+
+    @Test
+    void untouchedTailIsShared() throws Operations.OverflowException{
+        Polynomial big = new Polynomial();
+        for (int exponent = 1000; exponent >= 0; exponent--)
+            big.add(exponent + 1, exponent);
+        Polynomial small = new Polynomial();
+        small.add(5, 1001);
+        small.add(-1001, 1000);
+
+        ImmutablePolynomial longer = ImmutablePolynomial.of(big);
+        ImmutablePolynomial shorter = ImmutablePolynomial.of(small);
+        assertSame(longer.tail(), shorter.add(longer).tail());
+        assertSame(longer.tail(), longer.subtract(shorter).tail().tail());
+        assertEquals(1002, longer.subtract(shorter).size());
+    }
+
+    //every thread builds the same polynomials, in a different order, and must get the same objects
+    @Test
+    void internIsThreadSafe() throws Exception{
+        List<Polynomial> polynomials = new ArrayList<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 2000; i++)
+            polynomials.add(random(random));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try{
+            List<Future<ImmutablePolynomial[]>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++){
+                int offset = thread * 500;
+                futures.add(executor.submit(() -> {
+                    ImmutablePolynomial[] result = new ImmutablePolynomial[polynomials.size()];
+                    for (int i = 0; i < result.length; i++){
+                        int index = (i + offset) % result.length;
+                        result[index] = ImmutablePolynomial.of(polynomials.get(index));
+                    }
+                    return result;
+                }));
+            }
+            ImmutablePolynomial[] first = futures.get(0).get();
+            for (Future<ImmutablePolynomial[]> future : futures){
+                ImmutablePolynomial[] result = future.get();
+                for (int i = 0; i < result.length; i++)
+                    assertSame(first[i], result[i]);
+            }
+        }
+        finally{
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/** Differential checks of IncrementalEvaluator against parsing the whole text again
+ *   - random edits: typing at the end, deleting at the end, inserting in the middle
+ *   - after every edit, evaluate must give what InputEvaluator.evaluationRoutine gives for the whole text
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IncrementalEvaluatorTest {
+    @Test
+    void incrementalMatchesWholeText() throws IOException{
+        Random random = new Random(8);
+        for (int run = 0; run < 1000; run++){
+            IncrementalEvaluator evaluator = new IncrementalEvaluator();
+            String text = "";
+            for (int step = 0; step < 60; step++){
+                int edit = random.nextInt(10);
+                char c = InputEvaluatorTest.ALPHABET.charAt(random.nextInt(InputEvaluatorTest.ALPHABET.length()));
+                if (edit < 6)
+                    text += c;
+                else if (edit < 8 && text.length() > 0)
+                    text = text.substring(0, text.length() - 1 - random.nextInt(Math.min(3, text.length())));
+                else if (text.length() > 0){
+                    int position = random.nextInt(text.length());
+                    text = text.substring(0, position) + c + text.substring(position);
+                }
+                evaluator.update(text);
+
+                String current = text;
+                assertEquals(current, evaluator.getText());
+                assertEquals(InputEvaluatorTest.outcome((polynomial, message) ->
+                        InputEvaluator.evaluationRoutine(current, polynomial, message)),
+                        InputEvaluatorTest.outcome(evaluator::evaluate), current);
+            }
+        }
+    }
+
+    //evaluating does not change the state, so it can be done twice in a row
+    @Test
+    void evaluateKeepsState() throws IOException{
+        IncrementalEvaluator evaluator = new IncrementalEvaluator();
+        evaluator.update("3x^2-x");
+        assertEquals("OK 3x^2-x", InputEvaluatorTest.outcome(evaluator::evaluate));
+        assertEquals("OK 3x^2-x", InputEvaluatorTest.outcome(evaluator::evaluate));
+        evaluator.update("3x^2-x+1");
+        assertEquals("OK 3x^2-x+1", InputEvaluatorTest.outcome(evaluator::evaluate));
+    }
+}
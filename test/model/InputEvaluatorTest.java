@@ -0,0 +1,116 @@
+/** Differential checks of the single pass parser against the original three steps of InputEvaluator
+ *   - evaluationRoutine (PolynomialScanner) must give the same result and message as preEvaluate, evaluateInput and
+ *     postEvaluate, or fail with a NumberFormatException when they do
+ *   - the streaming versions (Reader, channel, ByteBuffer, mapped file) must give what the String version gives, also
+ *     for inputs longer than their buffers and for inputs followed by a line break
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InputEvaluatorTest {
+    static final String ALPHABET = "0123456789x^+-x1x2^+-";
+
+    static final String[] FIXED = {"", "x", "-x", "+x", "x55", "3x^2x^3", "x^", "99999999999", "-2147483648",
+            "2147483648", "x^2147483648", "x^2-3x+8", "x+x", "x^2+x^3", "0", "5-", "^", "3x^2+5x^2", "x^1+1", "x^10+1"};
+
+    interface Parser {
+        boolean parse(Polynomial polynomial, Message message) throws IOException;
+    }
+
+    //"OK" and the polynomial, "ERROR" and the message, or "NFE" for a NumberFormatException
+    static String outcome(Parser parser) throws IOException{
+        Polynomial polynomial = new Polynomial();
+        Message message = new Message();
+        try{
+            return parser.parse(polynomial, message) ? "OK " + polynomial.niceForm() : "ERROR " + message.getText();
+        }
+        catch (NumberFormatException nfe){
+            return "NFE";
+        }
+    }
+
+    static String reference(String text) throws IOException{
+        return outcome((polynomial, message) -> InputEvaluator.preEvaluate(text, message) &&
+                evaluateInput(text, polynomial) && InputEvaluator.postEvaluate(polynomial, message));
+    }
+
+    private static boolean evaluateInput(String text, Polynomial polynomial){
+        InputEvaluator.evaluateInput(text, polynomial);
+        return true;
+    }
+
+    //the fixed texts first, then random ones, mostly made of characters of the input alphabet
+    static String text(Random random, int index){
+        if (index < FIXED.length)
+            return FIXED[index];
+        StringBuilder text = new StringBuilder();
+        int length = 1 + random.nextInt(9);
+        for (int i = 0; i < length; i++)
+            text.append(random.nextInt(200) == 0 ? 'a' : ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return text.toString();
+    }
+
+    @Test
+    void scannerMatchesThreeSteps() throws IOException{
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++){
+            String text = text(random, i);
+            assertEquals(reference(text), outcome((polynomial, message) ->
+                    InputEvaluator.evaluationRoutine(text, polynomial, message)), text);
+        }
+    }
+
+    //the String version on "text", against every streaming version on "input" (text, maybe followed by more lines)
+    private static void checkStreams(String text, String input, Path file) throws IOException{
+        byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+        String expected = outcome((polynomial, message) -> InputEvaluator.evaluationRoutine(text, polynomial, message));
+        assertEquals(expected, outcome((polynomial, message) ->
+                InputEvaluator.evaluationRoutine(new StringReader(input), polynomial, message)), text);
+        assertEquals(expected, outcome((polynomial, message) -> InputEvaluator.evaluationRoutine(
+                Channels.newChannel(new ByteArrayInputStream(bytes)), polynomial, message)), text);
+        assertEquals(expected, outcome((polynomial, message) ->
+                InputEvaluator.evaluationRoutine(ByteBuffer.wrap(bytes), polynomial, message)), text);
+        if (file != null){
+            Files.write(file, bytes);
+            assertEquals(expected, outcome((polynomial, message) ->
+                    InputEvaluator.evaluationRoutine(file, polynomial, message)), text);
+        }
+    }
+
+    @Test
+    void streamsMatchString(@TempDir Path directory) throws IOException{
+        Path file = directory.resolve("input.txt");
+        Random random = new Random(11);
+        for (int i = 0; i < 20000; i++){
+            String text = text(random, i);
+            checkStreams(text, random.nextBoolean() ? text : text + (random.nextBoolean() ? "\n" : "\r\n") + "x+1",
+                    i % 100 == 0 ? file : null);
+        }
+    }
+
+    //many terms, so the text goes over several buffers; once correct, once with a bad character near the end
+    @Test
+    void longInputsMatchString(@TempDir Path directory) throws IOException{
+        StringBuilder text = new StringBuilder();
+        for (int exponent = 30000; exponent >= 0; exponent--)
+            text.append(exponent % 2 == 0 ? '+' : '-').append(exponent % 97 + 1).append("x^").append(exponent);
+        checkStreams(text.toString(), text + "\n", directory.resolve("long.txt"));
+        text.insert(text.length() - 3, 'a');
+        checkStreams(text.toString(), text.toString(), directory.resolve("bad.txt"));
+    }
+}
@@ -0,0 +1,150 @@
+/** Checks of LazyPolynomial against doing the same operations one after the other with Operations
+ *   - random pipelines, whose nodes are used again by later pipelines (like Expression shares subexpressions)
+ *   - both give the same polynomial, or both overflow (the message may name another term, see LazyPolynomial)
+ *   - scale(0) and the derivative of a constant give nothing, but must still work out their operand, since the
+ *     operand itself may overflow
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyPolynomialTest {
+    private static final int[] EXTREMES = {Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE / 2 + 1, 46341};
+
+    //a pipeline and the result of the same steps done with Operations, null if they overflow
+    private record Node(LazyPolynomial lazy, Polynomial expected) {
+    }
+
+    private static int coefficient(Random random){
+        if (random.nextInt(8) == 0)
+            return EXTREMES[random.nextInt(EXTREMES.length)] * (random.nextBoolean() ? 1 : -1);
+        int coefficient = random.nextInt(19) - 9;
+        return coefficient == 0 ? 1 : coefficient;
+    }
+
+    private static Polynomial random(Random random){
+        int exponent = random.nextInt(10) == 0 ? Integer.MAX_VALUE - random.nextInt(3) : random.nextInt(12);
+        return Generators.descending(exponent, random.nextInt(6), () -> coefficient(random), () -> 1 + random.nextInt(3));
+    }
+
+    private static Polynomial constant(long value){
+        Polynomial polynomial = new Polynomial();
+        polynomial.add(value, 0);
+        return polynomial;
+    }
+
+    private interface Step {
+        Polynomial apply() throws Operations.OverflowException;
+    }
+
+    //the result of one step with Operations, null if it (or one of its operands) overflows
+    private static Polynomial step(Step step, Polynomial... operands){
+        for (Polynomial operand : operands)
+            if (operand == null)
+                return null;
+        try{
+            return step.apply();
+        }
+        catch (Operations.OverflowException oe){
+            return null;
+        }
+    }
+
+    private static Node next(Random random, List<Node> pool){
+        Node a = pool.get(random.nextInt(pool.size()));
+        Node b = pool.get(random.nextInt(pool.size()));
+        Polynomial p = a.expected();
+        Polynomial q = b.expected();
+        switch (random.nextInt(7)) {
+            case 0 -> {
+                return new Node(a.lazy().add(b.lazy()), step(() -> Operations.addition(p, q), p, q));
+            }
+            case 1 -> {
+                return new Node(a.lazy().subtract(b.lazy()), step(() -> Operations.subtraction(p, q), p, q));
+            }
+            case 2 -> {
+                return new Node(a.lazy().negate(), step(() -> Operations.subtraction(new Polynomial(), p), p));
+            }
+            case 3 -> {
+                int factor = random.nextInt(4) == 0 ? 0 : coefficient(random);
+                return new Node(a.lazy().scale(factor), step(() -> Operations.multiplication(p, constant(factor)), p));
+            }
+            case 4, 5 -> {
+                return new Node(a.lazy().differentiate(), step(() -> Operations.differentiation(p), p));
+            }
+            default -> {
+                int places = random.nextInt(10) == 0 ? Integer.MAX_VALUE - random.nextInt(3) : random.nextInt(5);
+                Polynomial shift = new Polynomial();
+                shift.add(1, places);
+                return new Node(a.lazy().shift(places), step(() -> Operations.multiplication(p, shift), p));
+            }
+        }
+    }
+
+    private static String outcome(Step step){
+        try{
+            return step.apply().niceForm();
+        }
+        catch (Operations.OverflowException oe){
+            return "overflow";
+        }
+    }
+
+    @Test
+    void pipelinesMatchStepByStep() throws Operations.OverflowException{
+        Random random = new Random(61);
+        int overflows = 0;
+        for (int round = 0; round < 2000; round++){
+            List<Node> pool = new ArrayList<>();
+            for (int i = 0; i < 3; i++){
+                Polynomial source = random(random);
+                pool.add(new Node(LazyPolynomial.of(source), source));
+            }
+            for (int i = 0; i < 12; i++){
+                Node node = next(random, pool);
+                pool.add(node);
+                String expected = node.expected() == null ? "overflow" : node.expected().niceForm();
+                assertEquals(expected, outcome(() -> node.lazy().materialize()), "round " + round + ", node " + i);
+                String text;
+                try{
+                    text = node.lazy().niceForm();
+                }
+                catch (Operations.OverflowException oe){
+                    text = "overflow";
+                }
+                assertEquals(expected, text);
+                if (node.expected() == null)
+                    overflows++;
+            }
+        }
+        assertTrue(overflows > 1000 && overflows < 20000, overflows + " overflows");
+    }
+
+    @Test
+    void emptyResultsStillWorkOutTheirOperand() throws Operations.OverflowException{
+        LazyPolynomial big = LazyPolynomial.of(constant(Integer.MAX_VALUE));
+        LazyPolynomial overflowing = big.add(big);
+
+        assertEquals("0", big.scale(0).niceForm());
+        assertThrows(Operations.OverflowException.class, () -> overflowing.scale(0).materialize());
+        assertThrows(Operations.OverflowException.class, () -> overflowing.scale(0).niceForm());
+
+        assertEquals("0", big.differentiate().niceForm());
+        assertThrows(Operations.OverflowException.class, () -> overflowing.differentiate().materialize());
+        assertThrows(Operations.OverflowException.class, () -> overflowing.differentiate().niceForm());
+
+        //the same steps one by one
+        assertThrows(Operations.OverflowException.class, () -> Operations.addition(constant(Integer.MAX_VALUE),
+                constant(Integer.MAX_VALUE)));
+        assertThrows(IllegalArgumentException.class, () -> big.shift(-1));
+    }
+}
@@ -0,0 +1,186 @@
+/** Differential checks of ModularOperations against plain BigInteger arithmetic
+ *   - for a small prime, a prime below 2^31 (products of long operands go through the NTT) and a prime near 2^62
+ *     (Karatsuba on Montgomery and normal operands, the Montgomery carries on coefficients close to p)
+ *   - products against the schoolbook product of BigIntegers, divisions against a = q*b + r with deg(r) < deg(b)
+ *   - evaluation in many points (the subproduct tree, with Newton remainders) against Horner's method in BigIntegers
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModularOperationsTest {
+    private static final long SMALL_PRIME = 7;
+    private static final long INT_PRIME = Integer.MAX_VALUE;
+    private static final long BIG_PRIME = largestPrime(ModularOperations.MAX_MODULUS);
+
+    private static long largestPrime(long limit){
+        long candidate = limit % 2 == 0 ? limit - 1 : limit;
+        while (!BigInteger.valueOf(candidate).isProbablePrime(64))
+            candidate -= 2;
+        return candidate;
+    }
+
+    //coefficients in [0,p), half of the time close to 0 or to p, where the reductions have to carry
+    private static long[] random(Random random, int length, long modulus){
+        long[] array = new long[length];
+        for (int i = 0; i < length; i++){
+            long value = Math.floorMod(random.nextLong(), modulus);
+            if (random.nextBoolean())
+                value = random.nextBoolean() ? Math.min(value % 4, modulus - 1) : modulus - 1 - value % 4;
+            array[i] = value;
+        }
+        if (length > 0 && array[length - 1] == 0)
+            array[length - 1] = 1;
+        return array;
+    }
+
+    private static long[] naiveProduct(long[] a, long[] b, long modulus){
+        if (a.length == 0 || b.length == 0)
+            return new long[0];
+        BigInteger p = BigInteger.valueOf(modulus);
+        BigInteger[] product = new BigInteger[a.length + b.length - 1];
+        Arrays.fill(product, BigInteger.ZERO);
+        for (int i = 0; i < a.length; i++)
+            for (int j = 0; j < b.length; j++)
+                product[i + j] = product[i + j].add(BigInteger.valueOf(a[i]).multiply(BigInteger.valueOf(b[j])));
+        long[] result = new long[product.length];
+        for (int i = 0; i < result.length; i++)
+            result[i] = product[i].mod(p).longValue();
+        return trim(result);
+    }
+
+    private static long naiveValue(long[] a, long x, long modulus){
+        BigInteger p = BigInteger.valueOf(modulus);
+        BigInteger point = BigInteger.valueOf(x);
+        BigInteger value = BigInteger.ZERO;
+        for (int i = a.length - 1; i >= 0; i--)
+            value = value.multiply(point).add(BigInteger.valueOf(a[i])).mod(p);
+        return value.longValue();
+    }
+
+    private static long[] trim(long[] array){
+        int length = array.length;
+        while (length > 0 && array[length - 1] == 0)
+            length--;
+        return Arrays.copyOf(array, length);
+    }
+
+    private static void checkMultiplication(long modulus, int maxLength, int cases, long seed){
+        ModularOperations operations = new ModularOperations(modulus);
+        Random random = new Random(seed);
+        for (int i = 0; i < cases; i++){
+            long[] a = random(random, random.nextInt(maxLength + 1), modulus);
+            long[] b = random(random, random.nextInt(maxLength + 1), modulus);
+            assertArrayEquals(naiveProduct(a, b, modulus), operations.multiplication(a, b));
+        }
+    }
+
+    private static void checkDivision(long modulus, long seed){
+        ModularOperations operations = new ModularOperations(modulus);
+        Random random = new Random(seed);
+        for (int i = 0; i < 300; i++){
+            long[] a = random(random, random.nextInt(200), modulus);
+            long[] b = random(random, 1 + random.nextInt(100), modulus);
+            long[][] result = operations.division(a, b);
+            long[] quotient = result[0];
+            long[] remainder = result[1];
+            assertTrue(remainder.length < b.length);
+            long[] product = naiveProduct(quotient, b, modulus);
+            long[] sum = new long[Math.max(product.length, remainder.length)];
+            for (int k = 0; k < sum.length; k++)
+                sum[k] = Math.floorMod((k < product.length ? product[k] : 0) + (k < remainder.length ? remainder[k] : 0), modulus);
+            assertArrayEquals(trim(a), trim(sum));
+        }
+    }
+
+    /** Evaluation in "length" points, of a polynomial with "length" coefficients
+     *   - the subproduct tree is used directly, since with big moduli evaluate only uses it from 2^17 points
+     *   - only some of the points are checked, Horner's method in BigIntegers on all of them would take too long
+     */
+    private static void checkEvaluation(long modulus, int length, long seed){
+        ModularOperations operations = new ModularOperations(modulus);
+        Random random = new Random(seed);
+        long[] a = random(random, length, modulus);
+        long[] points = new long[length];
+        for (int i = 0; i < length; i++)
+            points[i] = random.nextInt(4) == 0 ? random.nextLong() : Math.floorMod(random.nextLong(), modulus);
+
+        long[] values = new long[length];
+        operations.subproductTree(a, points, values);
+        assertArrayEquals(values, operations.evaluate(a, points));
+        for (int check = 0; check < 200; check++){
+            int i = check < 2 ? check * (length - 1) : random.nextInt(length);
+            assertEquals(naiveValue(a, Math.floorMod(points[i], modulus), modulus), values[i]);
+            assertEquals(values[i], operations.evaluate(a, points[i]));
+        }
+    }
+
+    @Test
+    void multiplicationMatchesBigIntegers(){
+        checkMultiplication(SMALL_PRIME, 700, 200, 15);
+        checkMultiplication(INT_PRIME, 700, 200, 16);
+        checkMultiplication(BIG_PRIME, 700, 200, 17);
+    }
+
+    @Test
+    void divisionMatchesBigIntegers(){
+        checkDivision(SMALL_PRIME, 18);
+        checkDivision(INT_PRIME, 19);
+        checkDivision(BIG_PRIME, 20);
+        assertThrows(ArithmeticException.class, () -> new ModularOperations(SMALL_PRIME).division(new long[]{1}, new long[0]));
+    }
+
+    @Test
+    void subproductTreeMatchesHorner(){
+        checkEvaluation(SMALL_PRIME, 4096, 21);
+        checkEvaluation(INT_PRIME, 4096, 22);
+        checkEvaluation(BIG_PRIME, 4099, 23);
+    }
+
+    @Test
+    void greatestCommonDivisorIsMonic(){
+        ModularOperations operations = new ModularOperations(INT_PRIME);
+        Random random = new Random(24);
+        for (int i = 0; i < 100; i++){
+            long[] g = random(random, 1 + random.nextInt(10), INT_PRIME);
+            long[] a = operations.multiplication(g, random(random, 1 + random.nextInt(20), INT_PRIME));
+            long[] b = operations.multiplication(g, random(random, 1 + random.nextInt(20), INT_PRIME));
+            long[] gcd = operations.greatestCommonDivisor(a, b);
+            assertEquals(1, gcd[gcd.length - 1]);
+            assertEquals(0, operations.division(a, gcd)[1].length);
+            assertEquals(0, operations.division(b, gcd)[1].length);
+            assertTrue(gcd.length >= g.length);
+        }
+    }
+
+    //with p = 7, x^6 has no integral, but longer polynomials without that term do
+    @Test
+    void integrationUndoesDifferentiation(){
+        ModularOperations operations = new ModularOperations(SMALL_PRIME);
+        Random random = new Random(25);
+        for (int i = 0; i < 1000; i++){
+            int length = 1 + random.nextInt(30);
+            long[] a = random(random, length % SMALL_PRIME == 0 ? length + 1 : length, SMALL_PRIME);
+            for (int j = (int) SMALL_PRIME - 1; j < a.length; j += (int) SMALL_PRIME)
+                a[j] = 0;
+            long[] integral = operations.integration(a);
+            assertEquals(a.length + 1, integral.length);
+            assertArrayEquals(a, operations.differentiation(integral));
+        }
+        assertArrayEquals(new long[]{0, 1, 0, 0, 0, 0, 0, 0, 0, 4},
+                operations.integration(new long[]{1, 0, 0, 0, 0, 0, 0, 0, 1}));
+        ArithmeticException ae = assertThrows(ArithmeticException.class,
+                () -> operations.integration(new long[]{1, 0, 0, 0, 0, 0, 2}));
+        assertEquals("Integration needs the inverse of a multiple of the modulus.", ae.getMessage());
+    }
+}
@@ -0,0 +1,29 @@
+/** Differential checks of the multi-prime NTT against the schoolbook loop
+ *   - small and big coefficients, where the products need all the primes
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NumberTheoreticTransformTest {
+    @Test
+    void nttMatchesSchoolbook(){
+        Random random = new Random(2);
+        int multiplied = 0;
+        for (int i = 0; i < 500; i++){
+            long[] a = Generators.array(random, 300, i % 2 == 0 ? 9 : Integer.MAX_VALUE / 2);
+            long[] b = Generators.array(random, 300, 1000);
+            if (NumberTheoreticTransform.canMultiply(a, b)){
+                assertArrayEquals(FastMultiplication.schoolbook(a, b), NumberTheoreticTransform.multiply(a, b));
+                multiplied++;
+            }
+        }
+        assertTrue(multiplied > 400);
+    }
+}
@@ -0,0 +1,132 @@
+/** Checks of the integer gcd (Stein's algorithm), of how integration shows reduced fractions and of the
+ * heap-based merge that multiplies sparse operands
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OperationsTest {
+    @Test
+    void greatestCommonDenominatorMatchesBigInteger(){
+        Random random = new Random(28);
+        for (int i = 0; i < 100000; i++){
+            long a = random.nextInt(4) == 0 ? random.nextLong() : (random.nextLong() >> random.nextInt(64)) << random.nextInt(20);
+            long b = random.nextInt(4) == 0 ? random.nextLong() : (random.nextLong() >> random.nextInt(64)) << random.nextInt(20);
+            assertEquals(BigInteger.valueOf(a).gcd(BigInteger.valueOf(b)).longValue(),
+                    Operations.greatestCommonDenominator(a, b), a + " " + b);
+            assertEquals(BigInteger.valueOf((int) a).gcd(BigInteger.valueOf((int) b)).intValue(),
+                    Operations.greatestCommonDenominator((int) a, (int) b), (int) a + " " + (int) b);
+        }
+    }
+
+    //the magnitudes are unsigned, so 2^63 comes back as Long.MIN_VALUE (and 2^31 as Integer.MIN_VALUE)
+    @Test
+    void greatestCommonDenominatorEdgeCases(){
+        assertEquals(0, Operations.greatestCommonDenominator(0L, 0L));
+        assertEquals(6, Operations.greatestCommonDenominator(-12L, 18L));
+        assertEquals(6, Operations.greatestCommonDenominator(-12L, -18L));
+        assertEquals(7, Operations.greatestCommonDenominator(0L, -7L));
+        assertEquals(Long.MIN_VALUE, Operations.greatestCommonDenominator(Long.MIN_VALUE, 0L));
+        assertEquals(Long.MIN_VALUE, Operations.greatestCommonDenominator(Long.MIN_VALUE, Long.MIN_VALUE));
+        assertEquals(2, Operations.greatestCommonDenominator(Long.MIN_VALUE, 6L));
+        assertEquals(1, Operations.greatestCommonDenominator(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(Integer.MIN_VALUE, Operations.greatestCommonDenominator(Integer.MIN_VALUE, 0));
+        assertEquals(8, Operations.greatestCommonDenominator(Integer.MIN_VALUE, 24));
+    }
+
+    //the fractions are reduced by a positive gcd, so the sign stays in the numerator
+    @Test
+    void integrationReducesNegativeFractions() throws Operations.OverflowException{
+        assertEquals("(-x^6)/2+C", Operations.integration(parse("-3x^5")));
+        assertEquals("(x^6)/2-2x^2+C", Operations.integration(parse("3x^5-4x")));
+        assertEquals("(-5x^3)/3+C", Operations.integration(parse("-5x^2")));
+        assertEquals("-536870912x^4+C", Operations.integration(parse("-2147483648x^3")));
+        assertEquals("C", Operations.integration(parse("0")));
+    }
+
+    //exponents are multiples of 997 up to about 200000, so operands are sparse but many products share an exponent
+    @Test
+    void sparseMultiplicationMatchesTermByTerm() throws Operations.OverflowException{
+        Random random = new Random(2);
+        for (int i = 0; i < 2000; i++){
+            Polynomial a = randomSparse(random, 1 + random.nextInt(40));
+            Polynomial b = randomSparse(random, 1 + random.nextInt(40));
+            assertFalse(ProductHeap.isDenseEnough((long) a.size() * b.size(), a.biggestExponent() + b.biggestExponent()));
+            assertEquals(termByTerm(a, b), Operations.multiplication(a, b), a.niceForm() + " * " + b.niceForm());
+        }
+    }
+
+    //one exponent in 2..32 present: such products have few exponents per pair of terms, so they are summed up densely
+    @Test
+    void gappedMultiplicationMatchesTermByTerm() throws Operations.OverflowException{
+        Random random = new Random(4);
+        for (int i = 0; i < 300; i++){
+            Polynomial a = Generators.gapped(random, 1 + random.nextInt(2000), 2 + random.nextInt(31), Integer.MAX_VALUE,
+                    1000);
+            Polynomial b = Generators.gapped(random, 1 + random.nextInt(2000), 2 + random.nextInt(31), Integer.MAX_VALUE,
+                    1000);
+            assertEquals(termByTerm(a, b), Operations.multiplication(a, b), a.niceForm() + " * " + b.niceForm());
+        }
+    }
+
+    @Test
+    void sparseMultiplicationOfBinomials() throws Operations.OverflowException{
+        assertEquals("x^2000000+2x^1000000+1", Operations.multiplication(parse("x^1000000+1"), parse("x^1000000+1")).niceForm());
+        assertEquals("x^2000000-1", Operations.multiplication(parse("x^1000000+1"), parse("x^1000000-1")).niceForm());
+        assertEquals("x^1000003+x^1000000+x^3+1", Operations.multiplication(parse("x^1000000+1"), parse("x^3+1")).niceForm());
+        assertEquals("-x^1000003", Operations.multiplication(parse("x^1000000"), parse("-x^3")).niceForm());
+    }
+
+    //every product fits in an int, but two of them add up to 2^31 on x^1000
+    @Test
+    void sparseMultiplicationChecksSums(){
+        Operations.OverflowException oe = assertThrows(Operations.OverflowException.class,
+                () -> Operations.multiplication(parse("1073741824x^1000+1073741824"), parse("x^1000+1")));
+        assertEquals("Multiplication positive overflow.", oe.getMessage());
+        oe = assertThrows(Operations.OverflowException.class,
+                () -> Operations.multiplication(parse("65536x^1000+1"), parse("-65536x^5000+1")));
+        assertEquals("Multiplication negative overflow.", oe.getMessage());
+    }
+
+    //distinct exponents in decreasing order, coefficients between -1000 and 1000 (without 0)
+    private static Polynomial randomSparse(Random random, int terms){
+        TreeSet<Integer> exponents = new TreeSet<>();
+        while (exponents.size() < terms)
+            exponents.add(random.nextInt(200) * 997 + (random.nextInt(8) == 0 ? random.nextInt(997) : 0));
+        Polynomial polynomial = new Polynomial();
+        for (int exponent : exponents.descendingSet()){
+            int coefficient = 1 + random.nextInt(1000);
+            polynomial.add(random.nextBoolean() ? coefficient : -coefficient, exponent);
+        }
+        return polynomial;
+    }
+
+    //sums every product of two terms by exponent, then lists the non-zero sums in decreasing order of exponents
+    private static Polynomial termByTerm(Polynomial a, Polynomial b){
+        TreeMap<Integer, Long> sums = new TreeMap<>();
+        for (int i = 0; i < a.size(); i++)
+            for (int j = 0; j < b.size(); j++)
+                sums.merge(a.getExponent(i) + b.getExponent(j), a.getCoefficient(i) * b.getCoefficient(j), Long::sum);
+        Polynomial product = new Polynomial();
+        for (Map.Entry<Integer, Long> sum : sums.descendingMap().entrySet())
+            product.add(sum.getValue(), sum.getKey());
+        return product;
+    }
+
+    private static Polynomial parse(String text){
+        Polynomial polynomial = new Polynomial();
+        InputEvaluator.evaluationRoutine(text, polynomial, new Message());
+        return polynomial;
+    }
+}
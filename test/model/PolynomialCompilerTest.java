@@ -0,0 +1,73 @@
+/** Differential checks of the compiled evaluators against PolynomialEvaluator
+ *   - long evaluators must give the same value, or overflow where PolynomialEvaluator overflows
+ *   - double evaluators must give the same value to the last bit
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PolynomialCompilerTest {
+    private static final long[] POINTS = {0, 1, -1, 2, -2, 3, 10, -10, 1000, 65536, Integer.MAX_VALUE};
+
+    //the value, or "overflow"
+    private static String value(LongUnaryOperator evaluator, long x){
+        try{
+            return Long.toString(evaluator.applyAsLong(x));
+        }
+        catch (ArithmeticException ae){
+            return "overflow";
+        }
+    }
+
+    private static String reference(Polynomial polynomial, long x){
+        try{
+            return Long.toString(PolynomialEvaluator.evaluate(polynomial, x));
+        }
+        catch (Operations.OverflowException oe){
+            return "overflow";
+        }
+    }
+
+    private static Polynomial random(Random random){
+        return Generators.descending(random.nextInt(random.nextBoolean() ? 10 : 3000), Integer.MAX_VALUE,
+                () -> Generators.coefficient(random, 10), () -> 1 + random.nextInt(random.nextBoolean() ? 3 : 200));
+    }
+
+    private static void check(Polynomial polynomial, Random random){
+        LongUnaryOperator compiledLong = PolynomialCompiler.compileLong(polynomial);
+        DoubleUnaryOperator compiledDouble = PolynomialCompiler.compileDouble(polynomial);
+        for (long x : POINTS){
+            assertEquals(reference(polynomial, x), value(compiledLong, x), polynomial.niceForm() + " at " + x);
+            assertEquals(reference(polynomial, -x), value(compiledLong, -x), polynomial.niceForm() + " at " + -x);
+        }
+        for (int i = 0; i < 10; i++){
+            double x = random.nextDouble() * 4 - 2;
+            assertEquals(PolynomialEvaluator.evaluate(polynomial, x), compiledDouble.applyAsDouble(x));
+        }
+    }
+
+    @Test
+    void compiledMatchesEvaluator(){
+        Random random = new Random(9);
+        for (int i = 0; i < 300; i++)
+            check(random(random), random);
+    }
+
+    //the accumulator is 0 before the last gap, where 2^63 itself would not fit
+    @Test
+    void zeroAccumulatorDoesNotOverflow(){
+        Polynomial polynomial = new Polynomial();
+        polynomial.add(1, 64);
+        polynomial.add(-2, 63);
+        polynomial.add(7, 0);
+        check(polynomial, new Random(10));
+        assertEquals("7", value(PolynomialCompiler.compileLong(polynomial), 2));
+    }
+}
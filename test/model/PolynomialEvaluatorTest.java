@@ -0,0 +1,182 @@
+/** Differential checks of PolynomialEvaluator against Horner's method on BigIntegers
+ *   - the reference does the same steps (multiply by x^gap, add the next coefficient) on BigIntegers, and marks an
+ *     overflow where a step, or x^gap for a non-zero accumulator, leaves the range of a long
+ *   - gaps of every size between the exponents, from dense polynomials to x^1000000-like ones
+ *   - the zero accumulator: x^gap is not needed, and not checked, while the accumulator is 0
+ *   - the batch overloads (one point after the other, compiled for many points, modulo a prime) give the same values,
+ *     and the long one overflows if any point does
+ *   - the double overloads give the exact value where every intermediate value is exact in a double (0 and -0 are
+ *     not told apart)
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolynomialEvaluatorTest {
+    private static final BigInteger MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final long[] POINTS = {0, 1, -1, 2, -2, 3, -3, 10, -1000, 65536, 3037000499L, Integer.MAX_VALUE,
+            Long.MAX_VALUE, Long.MIN_VALUE};
+
+    private static boolean fits(BigInteger value){
+        return value.compareTo(MIN) >= 0 && value.compareTo(MAX) <= 0;
+    }
+
+    //value * x^exponent, null if x^exponent (for a non-zero value) or the product does not fit in a long
+    private static BigInteger timesPower(BigInteger value, long x, int exponent){
+        if (value.signum() == 0)
+            return value;
+        BigInteger power = BigInteger.valueOf(x).pow(exponent);
+        BigInteger product = value.multiply(power);
+        return fits(power) && fits(product) ? product : null;
+    }
+
+    //the value in x as a decimal String, or "overflow"
+    private static String reference(Polynomial polynomial, long x){
+        if (polynomial.size() == 0)
+            return "0";
+        BigInteger result = BigInteger.valueOf(polynomial.getCoefficient(0));
+        for (int i = 1; i < polynomial.size() && result != null; i++){
+            result = timesPower(result, x, polynomial.getExponent(i - 1) - polynomial.getExponent(i));
+            if (result != null){
+                result = result.add(BigInteger.valueOf(polynomial.getCoefficient(i)));
+                result = fits(result) ? result : null;
+            }
+        }
+        if (result != null)
+            result = timesPower(result, x, polynomial.getExponent(polynomial.size() - 1));
+        return result == null ? "overflow" : result.toString();
+    }
+
+    private static String value(Polynomial polynomial, long x){
+        try{
+            return Long.toString(PolynomialEvaluator.evaluate(polynomial, x));
+        }
+        catch (Operations.OverflowException oe){
+            return "overflow";
+        }
+    }
+
+    //gaps of 1..3 for dense polynomials, up to "maxGap" for sparse ones, coefficients up to "maxCoefficient"
+    private static Polynomial random(Random random, int maxGap, int maxCoefficient){
+        return Generators.descending(random.nextInt(maxGap * 4), 1 + random.nextInt(8),
+                () -> random.nextBoolean() ? Generators.coefficient(random, maxCoefficient)
+                        : (random.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE),
+                () -> 1 + random.nextInt(random.nextBoolean() ? 3 : maxGap));
+    }
+
+    @Test
+    void longMatchesBigIntegers(){
+        Random random = new Random(19);
+        int overflows = 0;
+        for (int i = 0; i < 3000; i++){
+            Polynomial polynomial = random(random, i % 2 == 0 ? 8 : 100, 9);
+            for (long x : POINTS){
+                String expected = reference(polynomial, x);
+                assertEquals(expected, value(polynomial, x), polynomial.niceForm() + " at " + x);
+                if (expected.equals("overflow"))
+                    overflows++;
+            }
+            long x = random.nextInt(41) - 20;
+            assertEquals(reference(polynomial, x), value(polynomial, x), polynomial.niceForm() + " at " + x);
+        }
+        assertTrue(overflows > 1000, overflows + " overflows");
+    }
+
+    //the accumulator becomes 0 before a gap whose power of x would not fit in a long
+    @Test
+    void zeroAccumulator() throws Operations.OverflowException{
+        Polynomial cancelling = new Polynomial();
+        cancelling.add(1, 64);
+        cancelling.add(-2, 63);
+        assertEquals(0, PolynomialEvaluator.evaluate(cancelling, 2));
+        cancelling.add(5, 0);
+        assertEquals(5, PolynomialEvaluator.evaluate(cancelling, 2));
+        assertEquals("overflow", value(cancelling, 3));
+
+        //-1 * 2^63 fits, but 2^63 does not: the accumulator is not 0, so the overflow of x^gap is reported
+        Polynomial negative = new Polynomial();
+        negative.add(-1, 63);
+        assertEquals("overflow", value(negative, 2));
+        assertEquals(reference(negative, -2), value(negative, -2));
+
+        assertEquals(0, PolynomialEvaluator.evaluate(new Polynomial(), Long.MAX_VALUE));
+        Polynomial huge = new Polynomial();
+        huge.add(3, 1_000_000);
+        huge.add(-1, 0);
+        assertEquals(2, PolynomialEvaluator.evaluate(huge, 1));
+        assertEquals(2, PolynomialEvaluator.evaluate(huge, -1));
+        assertEquals(-1, PolynomialEvaluator.evaluate(huge, 0));
+    }
+
+    //a few points one after the other, and enough points to compile the polynomial; in a third of the batches some
+    //points are extreme, so these overflow, and the others do not
+    @Test
+    void batchesMatchSinglePoints() throws Operations.OverflowException{
+        Random random = new Random(20);
+        ModularOperations modular = new ModularOperations(998244353);
+        BigInteger modulus = BigInteger.valueOf(modular.getModulus());
+        for (int i = 0; i < 40; i++){
+            Polynomial polynomial = random(random, i % 2 == 0 ? 4 : 50, 9);
+            long[] points = new long[i % 4 < 2 ? 1 + random.nextInt(50) : (1 << 14) + random.nextInt(100)];
+            boolean extremes = i % 3 == 0;
+            boolean overflow = false;
+            for (int j = 0; j < points.length; j++){
+                points[j] = extremes && random.nextInt(10) == 0 ? POINTS[random.nextInt(POINTS.length)]
+                        : random.nextInt(7) - 3;
+                overflow |= reference(polynomial, points[j]).equals("overflow");
+            }
+
+            if (overflow)
+                assertThrows(Operations.OverflowException.class,
+                        () -> PolynomialEvaluator.evaluate(polynomial, points));
+            else{
+                long[] values = PolynomialEvaluator.evaluate(polynomial, points);
+                for (int j = 0; j < points.length; j++)
+                    assertEquals(reference(polynomial, points[j]), Long.toString(values[j]));
+            }
+
+            long[] residues = PolynomialEvaluator.evaluate(polynomial, points, modular);
+            for (int j = 0; j < points.length; j++)
+                assertEquals(exact(polynomial, BigInteger.valueOf(points[j])).mod(modulus).longValue(), residues[j]);
+        }
+    }
+
+    //the value without any overflow
+    private static BigInteger exact(Polynomial polynomial, BigInteger x){
+        BigInteger result = BigInteger.ZERO;
+        for (int i = 0; i < polynomial.size(); i++)
+            result = result.add(BigInteger.valueOf(polynomial.getCoefficient(i))
+                    .multiply(x.pow(polynomial.getExponent(i))));
+        return result;
+    }
+
+    //small coefficients, degrees and points, so that every value is an integer below 2^53 and exact in a double
+    @Test
+    void doublesAreExactForSmallValues(){
+        Random random = new Random(21);
+        for (int i = 0; i < 200; i++){
+            Polynomial polynomial = Generators.gapped(random, random.nextInt(12), 1 + random.nextInt(3),
+                    Integer.MAX_VALUE, 9);
+            double[] points = new double[i % 2 == 0 ? 1 + random.nextInt(20) : (1 << 14) + random.nextInt(10)];
+            for (int j = 0; j < points.length; j++)
+                points[j] = random.nextInt(9) - 4;
+
+            double[] expected = new double[points.length];
+            for (int j = 0; j < points.length; j++){
+                expected[j] = exact(polynomial, BigInteger.valueOf((long) points[j])).doubleValue();
+                assertEquals(expected[j], PolynomialEvaluator.evaluate(polynomial, points[j]), 0);
+            }
+            assertArrayEquals(expected, PolynomialEvaluator.evaluate(polynomial, points), 0);
+        }
+    }
+}
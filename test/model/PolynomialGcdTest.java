@@ -0,0 +1,194 @@
+/** Checks of the modular polynomial gcd against Euclid's algorithm with primitive pseudo-remainders in BigIntegers
+ *   - operands g*a and g*b (built with ExactOperations), so the gcd is at least g up to its content
+ *   - small gcds, and gcds with coefficients bigger than a long (which need several primes put together with the CRT)
+ *   - zero and constant operands, negative leading coefficients
+ *   - unlucky primes: operands built so that the first primes tried see a common factor which is not there over the
+ *     integers, or a leading coefficient which vanishes
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PolynomialGcdTest {
+    private static ExactPolynomial random(Random random, int degree, int maxCoefficient){
+        return ExactPolynomial.of(Generators.dense(random, degree, maxCoefficient, false));
+    }
+
+    private static BigInteger[] dense(ExactPolynomial polynomial){
+        BigInteger[] dense = new BigInteger[polynomial.size() == 0 ? 0 : polynomial.biggestExponent() + 1];
+        Arrays.fill(dense, BigInteger.ZERO);
+        for (int i = 0; i < polynomial.size(); i++)
+            dense[polynomial.getExponent(i)] = polynomial.getBigCoefficient(i);
+        return dense;
+    }
+
+    private static BigInteger[] trim(BigInteger[] values){
+        int length = values.length;
+        while (length > 0 && values[length - 1].signum() == 0)
+            length--;
+        return Arrays.copyOf(values, length);
+    }
+
+    private static BigInteger content(BigInteger[] values){
+        BigInteger content = BigInteger.ZERO;
+        for (BigInteger value : values)
+            content = content.gcd(value);
+        return content;
+    }
+
+    //divided by its content, with a positive leading coefficient
+    private static BigInteger[] primitive(BigInteger[] values){
+        BigInteger content = content(values);
+        if (values[values.length - 1].signum() < 0)
+            content = content.negate();
+        BigInteger[] result = new BigInteger[values.length];
+        for (int i = 0; i < values.length; i++)
+            result[i] = values[i].divide(content);
+        return result;
+    }
+
+    //pseudo-remainder: lc(b)^(deg(a)-deg(b)+1) * a mod b, which stays in Z[x]
+    private static BigInteger[] pseudoRemainder(BigInteger[] a, BigInteger[] b){
+        BigInteger[] remainder = a.clone();
+        BigInteger leading = b[b.length - 1];
+        for (int i = remainder.length - 1; i >= b.length - 1; i--){
+            BigInteger factor = remainder[i];
+            for (int k = 0; k <= i; k++)
+                remainder[k] = remainder[k].multiply(leading);
+            for (int k = 0; k < b.length; k++)
+                remainder[i - b.length + 1 + k] = remainder[i - b.length + 1 + k].subtract(factor.multiply(b[k]));
+        }
+        return trim(Arrays.copyOf(remainder, b.length - 1));
+    }
+
+    private static BigInteger[] referenceGcd(BigInteger[] a, BigInteger[] b){
+        if (a.length == 0 || b.length == 0){
+            BigInteger[] other = a.length == 0 ? b : a;
+            return other.length == 0 ? other : primitiveWithContent(other, content(other));
+        }
+        BigInteger content = content(a).gcd(content(b));
+        a = primitive(a);
+        b = primitive(b);
+        if (a.length < b.length){
+            BigInteger[] swap = a;
+            a = b;
+            b = swap;
+        }
+        while (b.length > 0){
+            BigInteger[] remainder = pseudoRemainder(a, b);
+            a = b;
+            b = remainder.length == 0 ? remainder : primitive(remainder);
+        }
+        return primitiveWithContent(a, content);
+    }
+
+    private static BigInteger[] primitiveWithContent(BigInteger[] values, BigInteger content){
+        BigInteger[] result = primitive(values);
+        for (int i = 0; i < result.length; i++)
+            result[i] = result[i].multiply(content);
+        return result;
+    }
+
+    private static void check(ExactPolynomial a, ExactPolynomial b){
+        BigInteger[] expected = referenceGcd(dense(a), dense(b));
+        assertArrayEquals(expected, dense(PolynomialGcd.gcd(a, b)), a.niceForm() + " and " + b.niceForm());
+        assertArrayEquals(expected, dense(PolynomialGcd.gcd(b, a)));
+    }
+
+    //the primes PolynomialGcd tries first, going down from ModularOperations.MAX_MODULUS
+    private static long previousPrime(long limit){
+        long candidate = (limit - 2) | 1;
+        while (!BigInteger.valueOf(candidate).isProbablePrime(64))
+            candidate -= 2;
+        return candidate;
+    }
+
+    //x + value
+    private static ExactPolynomial linear(long value){
+        ExactPolynomial polynomial = new ExactPolynomial();
+        polynomial.add(1, 1);
+        polynomial.add(value, 0);
+        return polynomial;
+    }
+
+    private static ExactPolynomial constant(long value){
+        ExactPolynomial polynomial = new ExactPolynomial();
+        polynomial.add(value, 0);
+        return polynomial;
+    }
+
+    private static ExactPolynomial negate(ExactPolynomial polynomial){
+        return ExactOperations.subtraction(new ExactPolynomial(), polynomial);
+    }
+
+    @Test
+    void commonFactorIsFound() throws Operations.OverflowException{
+        Random random = new Random(25);
+        for (int i = 0; i < 300; i++){
+            ExactPolynomial g = random(random, random.nextInt(5), 20);
+            ExactPolynomial a = ExactOperations.multiplication(g, random(random, random.nextInt(6), 20));
+            ExactPolynomial b = ExactOperations.multiplication(g, random(random, random.nextInt(6), 20));
+            check(a, b);
+
+            //the gcd contains g, up to its content
+            BigInteger[] gcd = dense(PolynomialGcd.gcd(a, b));
+            assertEquals(0, pseudoRemainder(primitive(gcd), primitive(dense(g))).length);
+        }
+    }
+
+    @Test
+    void bigCoefficientsNeedSeveralPrimes() throws Operations.OverflowException{
+        Random random = new Random(26);
+        for (int i = 0; i < 30; i++){
+            ExactPolynomial g = ExactOperations.power(random(random, 1 + random.nextInt(3), 100000), 4);
+            ExactPolynomial a = ExactOperations.multiplication(g, random(random, 1 + random.nextInt(4), 1000));
+            ExactPolynomial b = ExactOperations.multiplication(g, random(random, 1 + random.nextInt(4), 1000));
+            check(a, b);
+        }
+    }
+
+    @Test
+    void edgeCases() throws Operations.OverflowException{
+        ExactPolynomial zero = new ExactPolynomial();
+        ExactPolynomial p = random(new Random(27), 5, 9);
+        assertEquals("0", PolynomialGcd.gcd(zero, zero).niceForm());
+        check(zero, p);
+        check(zero, negate(p));
+        check(constant(12), constant(-18));
+        check(constant(-7), p);
+        check(ExactOperations.multiplication(constant(6), p), ExactOperations.multiplication(constant(-4), p));
+        check(negate(p), ExactOperations.multiplication(p, p));
+        assertEquals("6", PolynomialGcd.gcd(constant(12), constant(-18)).niceForm());
+    }
+
+    //an unlucky prime which is not skipped makes the candidate change forever, hence the time limit
+    @Test
+    @Timeout(60)
+    void unluckyPrimesAreSkipped() throws Operations.OverflowException{
+        long first = previousPrime(ModularOperations.MAX_MODULUS);
+        long second = previousPrime(first);
+        ExactPolynomial common = linear(1);
+        ExactPolynomial x = linear(0);
+
+        //x and x+p are the same modulo p: the first prime gives a gcd of degree 2, the second one of degree 1
+        check(ExactOperations.multiplication(common, x), ExactOperations.multiplication(common, linear(first)));
+        //the second prime gives a bigger degree than the first one, so it is skipped
+        check(ExactOperations.multiplication(common, x), ExactOperations.multiplication(common, linear(second)));
+        //the leading coefficient vanishes modulo the first prime
+        ExactPolynomial vanishing = new ExactPolynomial();
+        vanishing.add(first, 1);
+        vanishing.add(1, 0);
+        check(ExactOperations.multiplication(common, vanishing), ExactOperations.multiplication(common, linear(2)));
+        assertEquals("x+1", PolynomialGcd.gcd(ExactOperations.multiplication(common, x),
+                ExactOperations.multiplication(common, linear(first))).niceForm());
+    }
+}
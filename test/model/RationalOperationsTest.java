@@ -0,0 +1,188 @@
+/** Checks of Rational and RationalOperations
+ *   - Rational arithmetic against fractions of BigIntegers: equal results, or an overflow exception, never a wrong value
+ *   - multiplication (the dense one and the heap-based one, see ProductHeap) against summing the products one by one
+ *   - division gives quotient * divisor + remainder = dividend exactly, and integration undoes differentiation
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RationalOperationsTest {
+    private static final long[] EXTREMES = {Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1, 1L << 32, 3037000499L,
+            3037000500L, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+    private static long value(Random random, boolean extreme){
+        if (extreme && random.nextInt(3) == 0)
+            return EXTREMES[random.nextInt(EXTREMES.length)] + random.nextInt(3) - 1;
+        return extreme ? random.nextLong() >> random.nextInt(64) : random.nextInt(2001) - 1000;
+    }
+
+    //the fraction in lowest terms as "numerator/denominator", or null if it does not fit in longs
+    private static String reference(BigInteger numerator, BigInteger denominator){
+        if (denominator.signum() < 0){
+            numerator = numerator.negate();
+            denominator = denominator.negate();
+        }
+        BigInteger gcd = numerator.gcd(denominator);
+        numerator = numerator.divide(gcd);
+        denominator = denominator.divide(gcd);
+        if (numerator.bitLength() > 63 || denominator.bitLength() > 63)
+            return null;
+        return denominator.equals(BigInteger.ONE) ? numerator.toString() : numerator + "/" + denominator;
+    }
+
+    @Test
+    void rationalsMatchBigIntegers(){
+        Random random = new Random(41);
+        for (int i = 0; i < 200000; i++){
+            boolean extreme = i % 2 == 1;
+            long a = value(random, extreme);
+            long b = value(random, extreme);
+            long c = value(random, extreme);
+            long d = value(random, extreme);
+            if (b == 0 || d == 0 || b == Long.MIN_VALUE || d == Long.MIN_VALUE)
+                continue;
+            Rational x;
+            Rational y;
+            try{
+                x = Rational.of(a, b);
+                y = Rational.of(c, d);
+            }
+            catch (ArithmeticException e){
+                continue;
+            }
+            BigInteger p = BigInteger.valueOf(x.getNumerator());
+            BigInteger q = BigInteger.valueOf(x.getDenominator());
+            BigInteger r = BigInteger.valueOf(y.getNumerator());
+            BigInteger s = BigInteger.valueOf(y.getDenominator());
+
+            check(reference(p.multiply(s).add(r.multiply(q)), q.multiply(s)), () -> x.add(y), extreme);
+            check(reference(p.multiply(s).subtract(r.multiply(q)), q.multiply(s)), () -> x.subtract(y), extreme);
+            check(reference(p.multiply(r), q.multiply(s)), () -> x.multiply(y), extreme);
+            if (!y.isZero())
+                check(reference(p.multiply(s), q.multiply(r)), () -> x.divide(y), extreme);
+        }
+        assertEquals("/ by zero", assertThrows(ArithmeticException.class,
+                () -> Rational.ONE.divide(Rational.ZERO)).getMessage());
+    }
+
+    private interface RationalResult {
+        Rational get();
+    }
+
+    //small values never overflow; big ones may overflow on the way even if the result fits, but are never wrong
+    private static void check(String expected, RationalResult operation, boolean extreme){
+        Rational result;
+        try{
+            result = operation.get();
+        }
+        catch (ArithmeticException e){
+            assertEquals("Rational coefficient overflow.", e.getMessage());
+            assertTrue(extreme, "small values overflowed, expected " + expected);
+            return;
+        }
+        assertEquals(expected, result.toString());
+        assertTrue(result.getDenominator() > 0);
+    }
+
+    //"terms" terms with exponents below "degree", small fractions as coefficients
+    static RationalPolynomial random(Random random, int terms, int degree){
+        TreeMap<Integer, Rational> coefficients = new TreeMap<>();
+        for (int i = 0; i < terms; i++)
+            coefficients.put(random.nextInt(degree), Rational.of(random.nextInt(19) - 9, random.nextInt(6) + 1));
+        RationalPolynomial result = new RationalPolynomial();
+        for (Map.Entry<Integer, Rational> entry : coefficients.descendingMap().entrySet())
+            result.add(entry.getValue(), entry.getKey());
+        return result;
+    }
+
+    private static RationalPolynomial termByTerm(RationalPolynomial a, RationalPolynomial b){
+        TreeMap<Integer, Rational> sums = new TreeMap<>();
+        for (int i = 0; i < a.size(); i++)
+            for (int j = 0; j < b.size(); j++)
+                sums.merge(a.getExponent(i) + b.getExponent(j), a.getCoefficient(i).multiply(b.getCoefficient(j)),
+                        Rational::add);
+        RationalPolynomial result = new RationalPolynomial();
+        for (Map.Entry<Integer, Rational> entry : sums.descendingMap().entrySet())
+            result.add(entry.getValue(), entry.getKey());
+        return result;
+    }
+
+    @Test
+    void multiplicationMatchesTermByTerm() throws Operations.OverflowException{
+        Random random = new Random(43);
+        for (int i = 0; i < 3000; i++){
+            //dense shapes take the array, sparse ones the heap
+            int degree = i % 2 == 0 ? 1 + random.nextInt(40) : 1 + random.nextInt(1 << 20);
+            RationalPolynomial a = random(random, random.nextInt(30), degree);
+            RationalPolynomial b = random(random, random.nextInt(30), degree);
+            String expected = termByTerm(a, b).niceForm();
+            assertEquals(expected, RationalOperations.multiplication(a, b).niceForm());
+            assertEquals(expected, RationalOperations.multiplication(b, a).niceForm());
+        }
+    }
+
+    @Test
+    void divisionIsExact() throws Operations.OverflowException{
+        Random random = new Random(47);
+        int divided = 0;
+        for (int i = 0; i < 3000; i++){
+            RationalPolynomial a = random(random, random.nextInt(12), 1 + random.nextInt(30));
+            RationalPolynomial b = random(random, 1 + random.nextInt(6), 1 + random.nextInt(20));
+            if (b.size() == 0)
+                continue;
+            RationalDivisionResult result;
+            try{
+                result = RationalOperations.division(a, b);
+            }
+            catch (ArithmeticException e){
+                //the denominators grow with every step of a long quotient
+                assertEquals("Rational coefficient overflow.", e.getMessage());
+                continue;
+            }
+            divided++;
+            RationalPolynomial remainder = result.getRemainder();
+            assertTrue(remainder.size() == 0 || remainder.biggestExponent() < b.biggestExponent());
+            assertEquals(a.niceForm(), RationalOperations.addition(RationalOperations.multiplication(result.getQuotient(), b),
+                    remainder).niceForm());
+
+            RationalDivisionResult product = RationalOperations.division(RationalOperations.multiplication(a, b), b);
+            assertEquals(a.niceForm(), product.getQuotient().niceForm());
+            assertEquals("0", product.getRemainder().niceForm());
+        }
+        assertTrue(divided > 2000, "only " + divided + " divisions fit in longs");
+        RationalPolynomial x = random(new Random(1), 3, 5);
+        assertEquals("/ by zero", assertThrows(ArithmeticException.class,
+                () -> RationalOperations.division(x, new RationalPolynomial())).getMessage());
+    }
+
+    @Test
+    void integrationUndoesDifferentiation() throws Operations.OverflowException{
+        Random random = new Random(53);
+        for (int i = 0; i < 3000; i++){
+            RationalPolynomial a = random(random, random.nextInt(12), 1 + random.nextInt(50));
+            RationalPolynomial integral = RationalOperations.integration(a);
+            assertEquals(a.niceForm(), RationalOperations.differentiation(integral).niceForm());
+            assertEquals("0", RationalOperations.subtraction(a, a).niceForm());
+        }
+
+        RationalPolynomial p = new RationalPolynomial();
+        p.add(3, 2);
+        p.add(1, 1);
+        assertEquals("x^3+(x^2)/2", RationalOperations.integration(p).niceForm());
+        RationalPolynomial q = new RationalPolynomial();
+        q.add(Rational.of(-3, 6), 6);
+        assertEquals("(-x^6)/2", q.niceForm());
+        assertEquals("-3x^5", RationalOperations.differentiation(q).niceForm());
+    }
+}
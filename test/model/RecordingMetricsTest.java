@@ -0,0 +1,100 @@
+/** Checks of what RecordingMetrics reports
+ *   - the totals of the MBean add up the operations, overflows and parse failures recorded, also read through JMX
+ *   - the text report has one line per operation, sorted by name, then the parse failures and the counters
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecordingMetricsTest {
+    //Add: 1, 2 and 3 us with 2, 4 and 6 terms, one overflow; Multiply: 1 us; two parse failures of one kind, one of another
+    private static RecordingMetrics recorded(){
+        RecordingMetrics metrics = new RecordingMetrics();
+        metrics.operationCompleted("Multiply", 1000, 10);
+        metrics.operationCompleted("Add", 1000, 2);
+        metrics.operationCompleted("Add", 2000, 4);
+        metrics.operationCompleted("Add", 3000, 6);
+        metrics.overflow("Add");
+        metrics.parseFailed("Unknown character.");
+        metrics.parseFailed("Unknown character.");
+        metrics.parseFailed("Empty input.");
+        metrics.count("sparse division steps", 3);
+        metrics.count("sparse division steps", 2);
+        return metrics;
+    }
+
+    @Test
+    void totalsAddUp(){
+        RecordingMetrics metrics = recorded();
+        assertEquals(4, metrics.getOperationCount());
+        assertEquals(1, metrics.getOverflowCount());
+        assertEquals(3, metrics.getParseFailureCount());
+        assertEquals(metrics.toString(), metrics.getReport());
+
+        //an overflow is counted for its operation even if no operation was completed
+        metrics.overflow("Divide");
+        assertEquals(4, metrics.getOperationCount());
+        assertEquals(2, metrics.getOverflowCount());
+    }
+
+    //1000 ns is counted in the slice 1000..1007 and 2000 ns in 2000..2015, which give their highest value; a result
+    //above the biggest value recorded is the biggest value itself
+    @Test
+    void latencyPercentiles(){
+        RecordingMetrics metrics = recorded();
+        assertEquals(1.007, metrics.latencyPercentile("Add", 0), 1e-9);
+        assertEquals(2.015, metrics.latencyPercentile("Add", 50), 1e-9);
+        assertEquals(3.0, metrics.latencyPercentile("Add", 90));
+        assertEquals(1.0, metrics.latencyPercentile("Multiply", 99));
+        assertEquals(0, metrics.latencyPercentile("Divide", 50));
+    }
+
+    @Test
+    void report(){
+        String[] lines = recorded().toString().split(System.lineSeparator());
+        assertEquals(7, lines.length);
+        assertArrayEquals(new String[]{"operation", "count", "mean", "us", "p50", "us", "p90", "us", "p99", "us", "max",
+                "us", "p50", "terms", "overflows"}, lines[0].trim().split("\\s+"));
+        assertArrayEquals(new String[]{"Add", "3", decimal(2.0), decimal(2.015), decimal(3.0), decimal(3.0),
+                decimal(3.0), "4", "1"}, lines[1].trim().split("\\s+"));
+        assertArrayEquals(new String[]{"Multiply", "1", decimal(1.0), decimal(1.0), decimal(1.0), decimal(1.0),
+                decimal(1.0), "10", "0"}, lines[2].trim().split("\\s+"));
+        assertEquals("parse failures: 3", lines[3]);
+        assertEquals("  Empty input. 1", lines[4]);
+        assertEquals("  Unknown character. 2", lines[5]);
+        assertEquals("sparse division steps: 5", lines[6]);
+    }
+
+    //formatted like the report, in the default locale
+    private static String decimal(double value){
+        return String.format("%.1f", value);
+    }
+
+    @Test
+    void gettersThroughJmx() throws JMException{
+        RecordingMetrics metrics = recorded();
+        metrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(RecordingMetrics.OBJECT_NAME);
+        try{
+            assertEquals(4L, server.getAttribute(name, "OperationCount"));
+            assertEquals(1L, server.getAttribute(name, "OverflowCount"));
+            assertEquals(3L, server.getAttribute(name, "ParseFailureCount"));
+            assertEquals(metrics.toString(), server.getAttribute(name, "Report"));
+            assertEquals(1.0, server.invoke(name, "latencyPercentile", new Object[]{"Multiply", 50.0},
+                    new String[]{String.class.getName(), double.class.getName()}));
+        }
+        finally{
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/** Checks that rendering into an Appendable gives the Strings the old concatenating niceForm methods gave
+ *   - the old Monomial, Polynomial and integration code is kept here as the reference, String.concat and all
+ *   - fixed cases: coefficients 1 and -1, x^1, constants, the zero polynomial and the "+C" of integration
+ *   - random polynomials with small coefficients (so 1 and -1 are common), through niceForm and a Writer
+ *   - DivisionResult and RationalDivisionResult, in the format Q: ___  R: ___
+ */
+
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RenderingTest {
+    //the old Monomial.niceForm
+    private static String oldNiceForm(int coefficient, int exponent){
+        if (coefficient == 0)
+            return "0";
+        if (exponent == 0)
+            if (coefficient == 1)
+                return "1";
+            else if (coefficient == -1)
+                return "-1";
+
+        String output = "";
+        if (coefficient == -1)
+            output = output.concat("-");
+        else if (coefficient != 1)
+            output = output.concat(Integer.toString(coefficient));
+        if (exponent == 1)
+            output = output.concat("x");
+        else if (exponent != 0)
+            output = output.concat("x^" + exponent);
+        return output;
+    }
+
+    //the old Polynomial.niceForm
+    private static String oldNiceForm(Polynomial polynomial){
+        if (polynomial.size() == 0)
+            return "0";
+        String output = "";
+        for (int i = 0; i < polynomial.size(); i++){
+            int coefficient = (int) polynomial.getCoefficient(i);
+            if (i > 0 && coefficient > 0)
+                output = output.concat("+");
+            output = output.concat(oldNiceForm(coefficient, polynomial.getExponent(i)));
+        }
+        return output;
+    }
+
+    //the old Operations.integration
+    private static String oldIntegration(Polynomial polynomial){
+        String result = "";
+        for (int i = 0; i < polynomial.size(); i++){
+            int exponent = polynomial.getExponent(i) + 1;
+            int coefficient = (int) polynomial.getCoefficient(i);
+            if (i > 0 && coefficient > 0)
+                result = result.concat("+");
+            int denominator = exponent;
+            int gcd = Operations.greatestCommonDenominator(coefficient, denominator);
+            if (gcd > 1){
+                denominator /= gcd;
+                coefficient /= gcd;
+            }
+            if (denominator > 1)
+                result = result.concat("(");
+            result = result.concat(oldNiceForm(coefficient, exponent));
+            if (denominator > 1)
+                result = result.concat(")/" + denominator);
+        }
+        if (result.equals("0") || result.equals(""))
+            return "C";
+        return result.concat("+C");
+    }
+
+    private static Polynomial of(int... coefficientsAndExponents){
+        Polynomial polynomial = new Polynomial();
+        for (int i = 0; i < coefficientsAndExponents.length; i += 2)
+            polynomial.add(coefficientsAndExponents[i], coefficientsAndExponents[i + 1]);
+        return polynomial;
+    }
+
+    private static String written(Rendering.Appender<RuntimeException> appender) throws IOException{
+        StringWriter writer = new StringWriter();
+        appender.appendTo(writer);
+        return writer.toString();
+    }
+
+    private static void check(Polynomial polynomial) throws IOException, Operations.OverflowException{
+        String expected = oldNiceForm(polynomial);
+        assertEquals(expected, polynomial.niceForm());
+        assertEquals(expected, written(polynomial::appendNiceForm));
+
+        String integrated = oldIntegration(polynomial);
+        assertEquals(integrated, Operations.integration(polynomial), expected);
+        StringWriter writer = new StringWriter();
+        Operations.integration(polynomial, writer);
+        assertEquals(integrated, writer.toString(), expected);
+    }
+
+    @Test
+    void fixedCases() throws IOException, Operations.OverflowException{
+        assertEquals("x^3-x^2+x-1", of(1, 3, -1, 2, 1, 1, -1, 0).niceForm());
+        assertEquals("-x+1", of(-1, 1, 1, 0).niceForm());
+        assertEquals("2x^2-5", of(2, 2, -5, 0).niceForm());
+        assertEquals("-7", of(-7, 0).niceForm());
+        assertEquals("0", new Polynomial().niceForm());
+        assertEquals("x^3+x^2+x+C", Operations.integration(of(3, 2, 2, 1, 1, 0)));
+        assertEquals("(x^2)/2+(2x^3)/3+C", Operations.integration(of(1, 1, 2, 2)));
+        assertEquals("C", Operations.integration(new Polynomial()));
+        assertEquals("-x+C", Operations.integration(of(-1, 0)));
+
+        for (Polynomial polynomial : new Polynomial[]{of(1, 3, -1, 2, 1, 1, -1, 0), of(-1, 1, 1, 0), of(2, 2, -5, 0),
+                of(-7, 0), of(1, 0), of(-1, 0), of(1, 1), of(-1, 1), new Polynomial()})
+            check(polynomial);
+    }
+
+    @Test
+    void randomPolynomialsMatchOldForm() throws IOException, Operations.OverflowException{
+        Random random = new Random(8);
+        for (int i = 0; i < 2000; i++){
+            check(Generators.gapped(random, random.nextInt(20), 1 + random.nextInt(3), Integer.MAX_VALUE, 2));
+            check(Generators.gapped(random, random.nextInt(20), 2, Integer.MAX_VALUE, 1000));
+        }
+    }
+
+    @Test
+    void divisionResults() throws IOException{
+        Random random = new Random(9);
+        for (int i = 0; i < 500; i++){
+            Polynomial quotient = Generators.gapped(random, random.nextInt(10), 2, Integer.MAX_VALUE, 2);
+            Polynomial remainder = Generators.gapped(random, random.nextInt(10), 2, Integer.MAX_VALUE, 2);
+            DivisionResult result = new DivisionResult(quotient, remainder);
+            String expected = "Q: " + oldNiceForm(quotient) + "  R: " + oldNiceForm(remainder);
+            assertEquals(expected, result.niceForm());
+            assertEquals(expected, written(result::appendNiceForm));
+
+            RationalPolynomial divisor = RationalOperationsTest.random(random, 1 + random.nextInt(3), 6);
+            if (divisor.size() == 0)
+                continue;
+            RationalDivisionResult rational = RationalOperations.division(RationalOperationsTest.random(random, 5, 12),
+                    divisor);
+            String rationalExpected = "Q: " + rational.getQuotient().niceForm() + "  R: "
+                    + rational.getRemainder().niceForm();
+            assertEquals(rationalExpected, rational.niceForm());
+            assertEquals(rationalExpected, written(rational::appendNiceForm));
+        }
+    }
+}